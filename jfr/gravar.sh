@@ -0,0 +1,36 @@
+#!/usr/bin/env bash
+# Sobe a aplicação gravando com o perfil jfr/tgid.jfc. A gravação é salva ao
+# encerrar a aplicação (Ctrl+C) ou a qualquer momento com:
+#
+#   jcmd <pid> JFR.dump name=tgid
+#
+# Para gravar uma aplicação já em execução, sem reiniciar:
+#
+#   jcmd <pid> JFR.start name=tgid settings=$PWD/jfr/tgid.jfc duration=5m filename=tgid.jfr
+#
+# Leitura rápida dos eventos da aplicação:
+#
+#   jfr print --events tgid.MovimentacaoSaldo tgid.jfr
+#   jfr summary tgid.jfr
+#
+# O perfil foi gerado a partir do "default" com:
+#
+#   jfr configure --input default --output jfr/tgid.jfc \
+#     '+tgid.MovimentacaoSaldo#enabled=true' '+tgid.MovimentacaoSaldo#threshold=0 ms' \
+#     '+tgid.ChamadaRepositorio#enabled=true' '+tgid.ChamadaRepositorio#threshold=1 ms' \
+#     'jdk.JavaMonitorEnter#threshold=5 ms' 'jdk.ThreadPark#threshold=5 ms' \
+#     'jdk.SocketRead#threshold=5 ms' 'jdk.SocketWrite#threshold=5 ms' \
+#     'jdk.FileRead#threshold=5 ms' 'jdk.FileWrite#threshold=5 ms' \
+#     allocation-profiling=medium
+#
+# Uso: jfr/gravar.sh [arquivo.jfr] [argumentos da aplicação...]
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+JAR=${JAR:-$(ls target/tgid-bruno-*.jar | grep -v original | head -1)}
+ARQUIVO=${1:-tgid-$(date +%Y%m%d-%H%M%S).jfr}
+shift || true
+
+exec java -XX:StartFlightRecording=name=tgid,settings=jfr/tgid.jfc,filename="$ARQUIVO",dumponexit=true \
+    -jar "$JAR" "$@"
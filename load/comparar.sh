@@ -0,0 +1,52 @@
+#!/usr/bin/env bash
+# Compara throughput e p99 entre threads de plataforma e virtual threads.
+#
+# Para cada modo sobe a aplicação, cadastra uma empresa e um cliente e roda
+# load/tgid.js com 1k, 5k e 10k conexões simultâneas. Os resumos do k6 ficam
+# em load/resultados/<modo>-<vus>.json e a tabela final vai para a saída.
+#
+# Requer Java 21, k6 e jq no PATH e um limite de arquivos abertos (ulimit -n)
+# acima do maior número de VUs, tanto para o k6 quanto para a aplicação.
+#
+#   ./load/comparar.sh            # VUS="1000 5000 10000" DURATION=60s
+#   VUS="1000" DURATION=30s ./load/comparar.sh
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+VUS=${VUS:-"1000 5000 10000"}
+DURATION=${DURATION:-60s}
+BASE_URL=${BASE_URL:-http://localhost:8081}
+RESULTADOS=load/resultados
+
+mkdir -p "$RESULTADOS"
+mvn -q -B package -DskipTests
+JAR=$(ls target/tgid-bruno-*.jar | head -1)
+
+source load/comum.sh
+trap descer EXIT
+
+printf '%-9s %6s %12s %12s %12s %12s\n' modo vus 'req/s' 'p99 empresa' 'p99 cliente' 'p99 deposito'
+
+# "default" é o perfil padrão, com o pool de threads de plataforma do Tomcat
+for modo in default virtual; do
+    subir "$modo" --spring.profiles.active="$modo"
+    preparar
+
+    for vus in $VUS; do
+        resumo="$RESULTADOS/$modo-$vus.json"
+        k6 run -q --summary-export "$resumo" \
+            -e BASE_URL="$BASE_URL" -e EMPRESA_ID="$EMPRESA_ID" -e CLIENTE_ID="$CLIENTE_ID" \
+            -e VUS="$vus" -e DURATION="$DURATION" load/tgid.js > /dev/null
+
+        jq -r --arg modo "$modo" --arg vus "$vus" '[$modo, $vus,
+            (.metrics.http_reqs.rate | floor),
+            .metrics["http_req_duration{endpoint:empresa}"]["p(99)"],
+            .metrics["http_req_duration{endpoint:cliente}"]["p(99)"],
+            .metrics["http_req_duration{endpoint:deposito}"]["p(99)"]]
+            | "\(.[0]) \(.[1]) \(.[2]) \(.[3] | floor)ms \(.[4] | floor)ms \(.[5] | floor)ms"' "$resumo" |
+            xargs printf '%-9s %6s %12s %12s %12s %12s\n'
+    done
+
+    descer
+done
@@ -0,0 +1,32 @@
+# Funções compartilhadas pelos scripts de carga. Use com "source load/comum.sh".
+#
+# Variáveis esperadas: BASE_URL, RESULTADOS e JAR.
+
+# subir <nome-do-log> [argumentos da aplicação...]
+subir() {
+    local nome=$1
+    shift
+    rm -rf data
+    java -Djdk.tracePinnedThreads=short -jar "$JAR" --spring.jpa.show-sql=false "$@" \
+        > "$RESULTADOS/app-$nome.log" 2>&1 &
+    APP_PID=$!
+    for _ in $(seq 60); do
+        curl -s -o /dev/null "$BASE_URL/actuator/health" && return 0
+        sleep 1
+    done
+    echo "A aplicação não subiu, veja $RESULTADOS/app-$nome.log" >&2
+    exit 1
+}
+
+descer() {
+    kill "$APP_PID" 2>/dev/null || true
+    wait "$APP_PID" 2>/dev/null || true
+}
+
+# Cadastra uma empresa e um cliente; define EMPRESA_ID e CLIENTE_ID
+preparar() {
+    EMPRESA_ID=$(curl -s -X POST "$BASE_URL/api/empresas/nova" -H 'Content-Type: application/json' \
+        -d '{"cnpj":"11222333000181","nome":"Empresa Carga"}' | jq -r .id)
+    CLIENTE_ID=$(curl -s -X POST "$BASE_URL/api/clientes/novo" -H 'Content-Type: application/json' \
+        -d "{\"cpf\":\"52998224725\",\"nome\":\"Cliente Carga\",\"id_empresa\":\"$EMPRESA_ID\"}" | jq -r .id)
+}
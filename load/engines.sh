@@ -0,0 +1,55 @@
+#!/usr/bin/env bash
+# Compara as engines de saldo (tgid.saldo.engine) numa conta quente.
+#
+# Para cada engine sobe a aplicação, cadastra uma empresa e roda load/saldo.js
+# com cada quantidade de VUs. Além de req/s e p99, mostra a fração de
+# respostas 409 e os conflitos contados pela engine otimista.
+#
+# Requer Java 21, k6 e jq no PATH.
+#
+#   ./load/engines.sh                          # ENGINES="jpa optimistic mailbox"
+#   ENGINES="jpa optimistic" VUS="50 500" ./load/engines.sh
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+ENGINES=${ENGINES:-"jpa optimistic mailbox"}
+VUS=${VUS:-"50 200 1000"}
+DURATION=${DURATION:-60s}
+BASE_URL=${BASE_URL:-http://localhost:8081}
+RESULTADOS=load/resultados
+
+mkdir -p "$RESULTADOS"
+mvn -q -B package -DskipTests
+JAR=$(ls target/tgid-bruno-*.jar | head -1)
+
+source load/comum.sh
+trap descer EXIT
+
+printf '%-11s %6s %10s %10s %8s %10s\n' engine vus 'req/s' p99 '409' conflitos
+
+for engine in $ENGINES; do
+    for vus in $VUS; do
+        # Uma aplicação nova por rodada, para os contadores começarem do zero
+        subir "engine-$engine" --tgid.saldo.engine="$engine"
+        preparar
+
+        resumo="$RESULTADOS/engine-$engine-$vus.json"
+        k6 run -q --summary-export "$resumo" \
+            -e BASE_URL="$BASE_URL" -e EMPRESA_ID="$EMPRESA_ID" \
+            -e VUS="$vus" -e DURATION="$DURATION" load/saldo.js > /dev/null
+
+        total=$(curl -s "$BASE_URL/actuator/metrics/saldo.otimista.conflitos" |
+            jq -r '.measurements[0].value // 0' 2>/dev/null || echo 0)
+
+        jq -r --arg engine "$engine" --arg vus "$vus" --arg conflitos "${total:-0}" '[$engine, $vus,
+            (.metrics.http_reqs.rate | floor),
+            (.metrics.http_req_duration["p(99)"] | floor),
+            (.metrics.conflitos.value * 100 | floor),
+            ($conflitos | tonumber | floor)]
+            | "\(.[0]) \(.[1]) \(.[2]) \(.[3])ms \(.[4])% \(.[5])"' "$resumo" |
+            xargs printf '%-11s %6s %10s %10s %8s %10s\n'
+
+        descer
+    done
+done
@@ -0,0 +1,39 @@
+// Carga concentrada numa única empresa (conta "quente"): depósitos e saques
+// concorrentes, para comparar as engines de saldo (k6).
+//
+//   k6 run -e BASE_URL=http://localhost:8081 -e EMPRESA_ID=... -e VUS=200 load/saldo.js
+//
+// O script engines.sh sobe a aplicação com cada engine e executa este cenário.
+import http from 'k6/http';
+import { check } from 'k6';
+import { Rate } from 'k6/metrics';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8081';
+const EMPRESA_ID = __ENV.EMPRESA_ID;
+
+// respostas 409: a engine otimista esgotou as tentativas
+const conflitos = new Rate('conflitos');
+
+export const options = {
+    scenarios: {
+        conta_quente: {
+            executor: 'constant-vus',
+            vus: Number(__ENV.VUS || 200),
+            duration: __ENV.DURATION || '60s',
+            gracefulStop: '10s',
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+const json = { headers: { 'Content-Type': 'application/json' } };
+
+export default function () {
+    for (const [rota, valor] of [['deposito', 10.0], ['saque', 5.0]]) {
+        const resposta = http.post(`${BASE_URL}/api/clientes/${rota}`,
+            JSON.stringify({ id_empresa: EMPRESA_ID, value: valor }), json);
+
+        conflitos.add(resposta.status === 409);
+        check(resposta, { [`${rota} 200`]: (r) => r.status === 200 });
+    }
+}
@@ -0,0 +1,46 @@
+// Teste de carga dos endpoints de empresas e clientes (k6).
+//
+// Uso direto:
+//   k6 run -e BASE_URL=http://localhost:8081 -e EMPRESA_ID=... -e CLIENTE_ID=... \
+//          -e VUS=1000 -e DURATION=60s load/tgid.js
+//
+// O script comparar.sh prepara os dados e executa as duas configurações.
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8081';
+const EMPRESA_ID = __ENV.EMPRESA_ID;
+const CLIENTE_ID = __ENV.CLIENTE_ID;
+
+export const options = {
+    scenarios: {
+        carga: {
+            executor: 'constant-vus',
+            vus: Number(__ENV.VUS || 1000),
+            duration: __ENV.DURATION || '60s',
+            gracefulStop: '10s',
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+    // métricas separadas por endpoint no resumo
+    thresholds: {
+        'http_req_duration{endpoint:empresa}': ['max>=0'],
+        'http_req_duration{endpoint:cliente}': ['max>=0'],
+        'http_req_duration{endpoint:deposito}': ['max>=0'],
+    },
+};
+
+const json = { headers: { 'Content-Type': 'application/json' } };
+
+export default function () {
+    const empresa = http.get(`${BASE_URL}/api/empresas/${EMPRESA_ID}`, { tags: { endpoint: 'empresa' } });
+    check(empresa, { 'empresa 200': (r) => r.status === 200 });
+
+    const cliente = http.get(`${BASE_URL}/api/clientes/${CLIENTE_ID}`, { tags: { endpoint: 'cliente' } });
+    check(cliente, { 'cliente 200': (r) => r.status === 200 });
+
+    const deposito = http.post(`${BASE_URL}/api/clientes/deposito`,
+        JSON.stringify({ id_empresa: EMPRESA_ID, value: 1.0 }),
+        Object.assign({ tags: { endpoint: 'deposito' } }, json));
+    check(deposito, { 'deposito 200': (r) => r.status === 200 });
+}
@@ -0,0 +1,58 @@
+package teste.tgid_bruno.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import teste.tgid_bruno.services.DocumentoValidator;
+
+/**
+ * Compara a validação por regex com a validação em uma passada. Rodar com
+ * {@code -prof gc} para ver os bytes alocados por operação
+ * ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DocumentoValidatorBenchmark {
+
+    @Param({ "482.472.818-56", "48247281856" })
+    String cpf;
+
+    @Param({ "12.345.678/0001-95" })
+    String cnpj;
+
+    DocumentoValidator validator = new DocumentoValidator();
+
+    @Benchmark
+    public boolean cpfRegex() {
+        return ValidadorLegado.validateCpf(cpf);
+    }
+
+    @Benchmark
+    public boolean cpfUmaPassada() {
+        return validator.isCpfValido(cpf);
+    }
+
+    @Benchmark
+    public boolean cnpjRegex() {
+        return ValidadorLegado.validateCnpj(cnpj);
+    }
+
+    @Benchmark
+    public boolean cnpjUmaPassada() {
+        return validator.isCnpjValido(cnpj);
+    }
+}
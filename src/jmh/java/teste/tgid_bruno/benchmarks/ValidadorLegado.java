@@ -0,0 +1,92 @@
+package teste.tgid_bruno.benchmarks;
+
+/**
+ * Cópia da validação baseada em regex usada antes do {@code DocumentoValidator},
+ * mantida só como referência de comparação nos benchmarks.
+ */
+final class ValidadorLegado {
+
+    private ValidadorLegado() {
+    }
+
+    static boolean validateCpf(String cpf) {
+        cpf = cpf.replaceAll("\\D", "");
+
+        if (cpf.length() != 11) {
+            return false;
+        }
+
+        if (cpf.matches("(\\d)\\1{10}")) {
+            return false;
+        }
+
+        int sum = 0;
+        for (int i = 0; i < 9; i++) {
+            sum += (cpf.charAt(i) - '0') * (10 - i);
+        }
+        int firstDigit = 11 - (sum % 11);
+        if (firstDigit >= 10) {
+            firstDigit = 0;
+        }
+
+        sum = 0;
+        for (int i = 0; i < 10; i++) {
+            sum += (cpf.charAt(i) - '0') * (11 - i);
+        }
+        int secondDigit = 11 - (sum % 11);
+        if (secondDigit >= 10) {
+            secondDigit = 0;
+        }
+
+        return (firstDigit == (cpf.charAt(9) - '0')) && (secondDigit == (cpf.charAt(10) - '0'));
+    }
+
+    static boolean validateCnpj(String cnpj) {
+        cnpj = cnpj.replaceAll("[^\\d]", "");
+
+        if (cnpj.length() != 14) {
+            return false;
+        }
+
+        char dig13, dig14;
+        int sm, i, r, num, peso;
+
+        sm = 0;
+        peso = 2;
+        for (i = 11; i >= 0; i--) {
+            num = (int) (cnpj.charAt(i) - 48);
+            sm = sm + (num * peso);
+            peso = peso + 1;
+            if (peso == 10) {
+                peso = 2;
+            }
+        }
+
+        r = sm % 11;
+        if ((r == 0) || (r == 1)) {
+            dig13 = '0';
+        } else {
+            dig13 = (char) ((11 - r) + 48);
+        }
+
+        sm = 0;
+        peso = 2;
+        for (i = 12; i >= 0; i--) {
+            num = (int) (cnpj.charAt(i) - 48);
+            sm = sm + (num * peso);
+            peso = peso + 1;
+            if (peso == 10) {
+                peso = 2;
+            }
+        }
+
+        r = sm % 11;
+        if ((r == 0) || (r == 1)) {
+            dig14 = '0';
+        } else {
+            dig14 = (char) ((11 - r) + 48);
+        }
+
+        return (dig13 == cnpj.charAt(12)) && (dig14 == cnpj.charAt(13));
+    }
+}
@@ -1,39 +1,80 @@
 package teste.tgid_bruno.controllers;
 
+import static teste.tgid_bruno.infra.metricas.MetricasOperacao.BUSCA;
+import static teste.tgid_bruno.infra.metricas.MetricasOperacao.DEPOSITO;
+import static teste.tgid_bruno.infra.metricas.MetricasOperacao.NOVO_CLIENTE;
+import static teste.tgid_bruno.infra.metricas.MetricasOperacao.PERSISTENCIA;
+import static teste.tgid_bruno.infra.metricas.MetricasOperacao.SAQUE;
+import static teste.tgid_bruno.infra.metricas.MetricasOperacao.VALIDACAO;
+
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import teste.tgid_bruno.domain.entities.Cliente;
+import teste.tgid_bruno.domain.entities.Empresa;
 import teste.tgid_bruno.dtos.ClienteRequestDto;
 import teste.tgid_bruno.dtos.CreditRequestDto;
+import teste.tgid_bruno.dtos.EmpresaResponseDto;
+import teste.tgid_bruno.dtos.LoteRequestDto;
+import teste.tgid_bruno.infra.metricas.MetricasOperacao;
 import teste.tgid_bruno.services.ClienteService;
+import teste.tgid_bruno.services.DocumentoService.Formato;
 import teste.tgid_bruno.services.EmpresaService;
+import teste.tgid_bruno.services.IdempotenciaService;
+import teste.tgid_bruno.services.ImportacaoClienteService;
 
 @RestController
 @RequestMapping("/api/clientes")
 @RequiredArgsConstructor
 public class ClienteController {
 
+    private static final CacheControl CACHE_CLIENTE = CacheControl.maxAge(Duration.ofMinutes(5)).cachePrivate();
+
     private final ClienteService clienteService;
     private final EmpresaService empresaService;
+    private final IdempotenciaService idempotenciaService;
+    private final ImportacaoClienteService importacaoClienteService;
+    private final MetricasOperacao metricas;
 
     // GET
+    // O ETag é a versão do cliente; If-None-Match só lê a versão atual, sem
+    // carregá-lo
     @GetMapping("/{id}")
-    public ResponseEntity<?> getCliente(@PathVariable("id") String id) {
+    public ResponseEntity<?> getCliente(@PathVariable("id") String id, WebRequest request) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            var revisao = clienteService.revisao(id);
+
+            if (revisao.isPresent() && request.checkNotModified(etag(revisao.get()))) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(CACHE_CLIENTE).build();
+            }
+        }
+
         var cliente = clienteService.findById(id);
 
         if (cliente.isPresent()) {
-            return ResponseEntity.ok(cliente.get());
+            return ResponseEntity.ok().eTag(etag(clienteService.revisao(cliente.get()))).cacheControl(CACHE_CLIENTE)
+                    .body(cliente.get());
         }
 
         return ResponseEntity.notFound().build();
@@ -42,49 +83,96 @@ public class ClienteController {
     // POST
     @PostMapping("/novo")
     public ResponseEntity<?> newCliente(@RequestBody @Valid ClienteRequestDto data) throws URISyntaxException {
-        boolean validateCpf = clienteService.validateCpf(data.cpf());
+        boolean validateCpf = metricas.medir(NOVO_CLIENTE, VALIDACAO, () -> clienteService.validateCpf(data.cpf()));
 
         if (!validateCpf) {
+            metricas.falhaValidacao(NOVO_CLIENTE, "cpf_invalido");
             return ResponseEntity.badRequest().body("Informe um CPF válido!");
         }
 
-        var possibleCliente = clienteService.findByCpf(data.cpf());
+        var possibleCliente = metricas.medir(NOVO_CLIENTE, VALIDACAO, () -> clienteService.findByCpf(data.cpf()));
 
         if (possibleCliente.isPresent()) {
+            metricas.falhaValidacao(NOVO_CLIENTE, "cpf_cadastrado");
             return ResponseEntity.badRequest().body("CPF Inválido ou já cadastrado, verifique e tente novamente!");
         }
 
-        var possibleEmpresa = empresaService.findById(data.id_empresa());
+        var possibleEmpresa = metricas.medir(NOVO_CLIENTE, BUSCA, () -> empresaService.findById(data.id_empresa()));
 
         if (possibleEmpresa.isEmpty()) {
+            metricas.falhaValidacao(NOVO_CLIENTE, "empresa_inexistente");
             return ResponseEntity.badRequest().body("Informe um Id de empresa válido");
         }
 
-        Cliente newCliente = clienteService.newCliente(data, possibleEmpresa.get());
+        Cliente newCliente = metricas.medir(NOVO_CLIENTE, PERSISTENCIA,
+                () -> clienteService.newCliente(data, possibleEmpresa.get()));
 
         return ResponseEntity.created(new URI("/api/clientes/" + newCliente.getId())).body(newCliente);
 
     }
 
-    @PostMapping("/deposito")
-    public ResponseEntity<?> credit(@RequestBody @Valid CreditRequestDto data) {
-        var possibleEmpresa = empresaService.findById(data.id_empresa());
+    // Importação em massa dos clientes de uma empresa: uma linha de resultado
+    // (NDJSON) por cliente recebido, na ordem da entrada
+    @PostMapping(value = "/importacao", consumes = { MediaType.APPLICATION_NDJSON_VALUE, "text/csv" })
+    public ResponseEntity<StreamingResponseBody> importar(@RequestParam("id_empresa") String idEmpresa,
+            @RequestHeader("Content-Type") MediaType contentType, InputStream entrada) {
+        var possibleEmpresa = empresaService.findById(idEmpresa);
 
         if (possibleEmpresa.isEmpty()) {
-            return ResponseEntity.badRequest().body("Empresa não encontrada, verifique o ID e tente novamente!");
+            return ResponseEntity.badRequest().contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+                    .body(saida -> saida.write("Informe um Id de empresa válido".getBytes(StandardCharsets.UTF_8)));
         }
 
-        return ResponseEntity.ok(empresaService.credit(possibleEmpresa.get(), data.value()));
+        Formato formato = MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType) ? Formato.NDJSON : Formato.CSV;
+
+        StreamingResponseBody body = saida -> importacaoClienteService.importar(possibleEmpresa.get(), entrada,
+                formato, saida);
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    // Com Idempotency-Key, repetições da mesma requisição recebem a resposta original
+    @PostMapping("/deposito")
+    public ResponseEntity<?> credit(@RequestHeader(value = IdempotenciaService.HEADER, required = false) String chave,
+            @RequestBody @Valid CreditRequestDto data) {
+        return idempotenciaService.executar(chave, "deposito", data, () -> {
+            var possibleEmpresa = metricas.medir(DEPOSITO, BUSCA, () -> empresaService.findById(data.id_empresa()));
+
+            if (possibleEmpresa.isEmpty()) {
+                metricas.falhaValidacao(DEPOSITO, "empresa_inexistente");
+                return ResponseEntity.badRequest().body("Empresa não encontrada, verifique o ID e tente novamente!");
+            }
+
+            Empresa empresa = empresaService.credit(possibleEmpresa.get(), data.value());
+
+            return ResponseEntity.ok(EmpresaResponseDto.de(empresa));
+        });
     }
 
     @PostMapping("/saque")
-    public ResponseEntity<?> debit(@RequestBody @Valid CreditRequestDto data) {
-        var possibleEmpresa = empresaService.findById(data.id_empresa());
+    public ResponseEntity<?> debit(@RequestHeader(value = IdempotenciaService.HEADER, required = false) String chave,
+            @RequestBody @Valid CreditRequestDto data) {
+        return idempotenciaService.executar(chave, "saque", data, () -> {
+            var possibleEmpresa = metricas.medir(SAQUE, BUSCA, () -> empresaService.findById(data.id_empresa()));
 
-        if (possibleEmpresa.isEmpty()) {
-            return ResponseEntity.badRequest().body("Empresa não encontrada, verifique o ID e tente novamente!");
-        }
+            if (possibleEmpresa.isEmpty()) {
+                metricas.falhaValidacao(SAQUE, "empresa_inexistente");
+                return ResponseEntity.badRequest().body("Empresa não encontrada, verifique o ID e tente novamente!");
+            }
+
+            Empresa empresa = empresaService.debit(possibleEmpresa.get(), data.value());
+
+            return ResponseEntity.ok(EmpresaResponseDto.de(empresa));
+        });
+    }
+
+    // Depósitos e saques em lote: o resultado de cada item vem na mesma posição da requisição
+    @PostMapping("/lote")
+    public ResponseEntity<?> batch(@RequestBody @Valid LoteRequestDto data) {
+        return ResponseEntity.ok(empresaService.aplicarLote(data.operacoes()));
+    }
 
-        return ResponseEntity.ok(empresaService.debit(possibleEmpresa.get(), data.value()));
+    private static String etag(String revisao) {
+        return "\"" + revisao + "\"";
     }
 }
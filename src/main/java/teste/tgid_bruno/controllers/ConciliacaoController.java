@@ -0,0 +1,26 @@
+package teste.tgid_bruno.controllers;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import lombok.RequiredArgsConstructor;
+import teste.tgid_bruno.dtos.RelatorioConciliacaoDto;
+import teste.tgid_bruno.services.conciliacao.ConciliacaoSaldoService;
+
+@RestController
+@RequestMapping("/api/conciliacao")
+@RequiredArgsConstructor
+public class ConciliacaoController {
+
+    private final ConciliacaoSaldoService conciliacaoSaldoService;
+
+    // POST
+    // Executa a conciliação e responde com o relatório de divergências; 409 se outra
+    // conciliação ainda está rodando
+    @PostMapping
+    public ResponseEntity<RelatorioConciliacaoDto> conciliar() {
+        return ResponseEntity.ok(conciliacaoSaldoService.conciliar());
+    }
+}
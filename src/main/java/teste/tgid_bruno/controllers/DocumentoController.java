@@ -0,0 +1,36 @@
+package teste.tgid_bruno.controllers;
+
+import java.io.InputStream;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import lombok.RequiredArgsConstructor;
+import teste.tgid_bruno.services.DocumentoService;
+import teste.tgid_bruno.services.DocumentoService.Formato;
+
+@RestController
+@RequestMapping("/api/documentos")
+@RequiredArgsConstructor
+public class DocumentoController {
+
+    private final DocumentoService documentoService;
+
+    // POST
+    // Uma linha de resultado (NDJSON) por documento recebido, na ordem da entrada
+    @PostMapping(value = "/validacao", consumes = { MediaType.APPLICATION_NDJSON_VALUE, "text/csv" })
+    public ResponseEntity<StreamingResponseBody> validarLote(
+            @RequestHeader("Content-Type") MediaType contentType, InputStream entrada) {
+
+        Formato formato = MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType) ? Formato.NDJSON : Formato.CSV;
+
+        StreamingResponseBody body = saida -> documentoService.validarLote(entrada, formato, saida);
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+}
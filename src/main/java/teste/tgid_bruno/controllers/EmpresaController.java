@@ -2,35 +2,135 @@ package teste.tgid_bruno.controllers;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import teste.tgid_bruno.domain.entities.Empresa;
 import teste.tgid_bruno.dtos.EmpresaRequestDto;
+import teste.tgid_bruno.dtos.EmpresaResponseDto;
+import teste.tgid_bruno.infra.identificador.UuidV7;
+import teste.tgid_bruno.services.ClienteService;
+import teste.tgid_bruno.services.DocumentoService.Formato;
 import teste.tgid_bruno.services.EmpresaService;
+import teste.tgid_bruno.services.MovimentacaoService;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/empresas")
 @RequiredArgsConstructor
 public class EmpresaController {
 
+    private static final int LIMITE_MAXIMO = 500;
+    private static final List<String> EXPANSOES = List.of("clientes");
+    // O painel sempre revalida, mas só recebe o corpo quando o saldo mudou
+    private static final CacheControl CACHE_EMPRESA = CacheControl.noCache().cachePrivate();
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+
     private final EmpresaService empresaService;
+    private final ClienteService clienteService;
+    private final MovimentacaoService movimentacaoService;
 
     // GET
+    // expand=clientes inclui a lista completa de clientes; sem ele a lista não é lida.
+    // Sem expansão a resposta tem ETag, e If-None-Match igual à revisão atual
+    // recebe 304 sem corpo; a revisão é lida do banco sem carregar a empresa
     @GetMapping("/{id}")
-    public ResponseEntity<?> getEmpresa(@PathVariable("id") String id) {
+    public ResponseEntity<?> getEmpresa(@PathVariable("id") String id,
+            @RequestParam(value = "expand", required = false) List<String> expand, WebRequest request) {
+        if (expand != null && !EXPANSOES.containsAll(expand)) {
+            return ResponseEntity.badRequest().body("Expansões suportadas: " + String.join(", ", EXPANSOES));
+        }
+
+        if (expand == null && request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            var revisao = empresaService.revisao(id);
+
+            // checkNotModified já coloca o ETag na resposta 304
+            if (revisao.isPresent() && request.checkNotModified(etag(revisao.get()))) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(CACHE_EMPRESA).build();
+            }
+        }
+
         var possibleEmpresa = empresaService.findById(id);
 
         if (possibleEmpresa.isPresent()) {
-            Empresa empresa = possibleEmpresa.get();
-            return ResponseEntity.ok(empresa);
+            EmpresaResponseDto empresa = EmpresaResponseDto.de(possibleEmpresa.get());
+
+            if (expand != null && expand.contains("clientes")) {
+                empresa = empresa.comClientes(clienteService.listarTodosPorEmpresa(id));
+                return ResponseEntity.ok(empresa);
+            }
+
+            // O ETag vem da própria empresa respondida, para nunca identificar um corpo
+            // mais novo que o enviado
+            String etag = etag(empresaService.revisao(possibleEmpresa.get()));
+
+            return ResponseEntity.ok().eTag(etag).cacheControl(CACHE_EMPRESA).body(empresa);
         }
 
         return ResponseEntity.notFound().build();
     }
 
+    // Clientes da empresa em páginas; "depois" é o "proximo" devolvido na página anterior
+    @GetMapping("/{id}/clientes")
+    public ResponseEntity<?> getClientes(@PathVariable("id") String id,
+            @RequestParam(value = "depois", required = false) String depois,
+            @RequestParam(value = "limite", defaultValue = "50") int limite) {
+        if (limite < 1 || limite > LIMITE_MAXIMO) {
+            return ResponseEntity.badRequest().body("O limite deve estar entre 1 e " + LIMITE_MAXIMO);
+        }
+
+        if (depois != null && !UuidV7.valido(depois)) {
+            return ResponseEntity.badRequest().body("Informe um valor válido para o parâmetro depois");
+        }
+
+        if (!empresaService.existsById(id)) {
+            return ResponseEntity.notFound().build();
+        }
+
+        return ResponseEntity.ok(clienteService.listarPorEmpresa(id, depois, limite));
+    }
+
+    // Extrato dos dias "de" a "ate" (inclusive, em UTC), lido e escrito em streaming;
+    // CSV quando o Accept pede text/csv, NDJSON nos demais casos
+    @GetMapping("/{id}/extrato")
+    public ResponseEntity<StreamingResponseBody> getExtrato(@PathVariable("id") String id,
+            @RequestParam("de") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate de,
+            @RequestParam("ate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        if (ate.isBefore(de)) {
+            return ResponseEntity.badRequest().contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+                    .body(saida -> saida.write("A data final deve ser igual ou posterior à data inicial"
+                            .getBytes(StandardCharsets.UTF_8)));
+        }
+
+        if (!empresaService.existsById(id)) {
+            return ResponseEntity.notFound().build();
+        }
+
+        boolean csv = accept != null
+                && MediaType.parseMediaTypes(accept).stream().anyMatch(TEXT_CSV::equalsTypeAndSubtype);
+        Formato formato = csv ? Formato.CSV : Formato.NDJSON;
+        Instant inicio = de.atStartOfDay(ZoneOffset.UTC).toInstant();
+        Instant fim = ate.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+
+        StreamingResponseBody body = saida -> movimentacaoService.exportarExtrato(id, inicio, fim, formato, saida);
+
+        return ResponseEntity.ok().contentType(csv ? TEXT_CSV : MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     // POST
     @PostMapping("/nova")
     public ResponseEntity<?> newEmpresa(@RequestBody @Valid EmpresaRequestDto data) throws URISyntaxException {
@@ -43,10 +143,15 @@ public class EmpresaController {
         Empresa novaEmpresa = empresaService.newEmpresa(data);
 
         if (novaEmpresa != null) {
-            return ResponseEntity.created(new URI("/api/empresas/" + novaEmpresa.getId())).body(novaEmpresa);
+            return ResponseEntity.created(new URI("/api/empresas/" + novaEmpresa.getId()))
+                    .body(EmpresaResponseDto.de(novaEmpresa));
         }
 
         return ResponseEntity.badRequest().body("CNPJ já cadastrado!");
 
     }
+
+    private static String etag(String revisao) {
+        return "\"" + revisao + "\"";
+    }
 }
@@ -4,17 +4,21 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import teste.tgid_bruno.infra.identificador.IdUuidV7;
 
-@Table(name = "Clientes")
+@Table(name = "Clientes", indexes = @Index(name = "idx_clientes_empresa_id", columnList = "empresa_id, id"))
 @Entity
 @Data
 @AllArgsConstructor
@@ -22,7 +26,7 @@ import lombok.NoArgsConstructor;
 public class Cliente {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @IdUuidV7
     private String id;
 
     @Column(name = "cpf", unique = true, nullable = false)
@@ -31,11 +35,23 @@ public class Cliente {
     @Column(name = "nome", nullable = false)
     private String nome;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "empresa_id")
     @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Empresa empresa;
 
+    // Identifica a representação do cliente no ETag; qualquer alteração feita pelo
+    // JPA a incrementa
+    @Version
+    @JsonIgnore
+    private Long version;
+
+    public Cliente(String id, String cpf, String nome, Empresa empresa) {
+        this(id, cpf, nome, empresa, null);
+    }
+
     public Cliente(String cpf, String nome, Empresa empresa) {
         this.cpf = cpf;
         this.nome = nome;
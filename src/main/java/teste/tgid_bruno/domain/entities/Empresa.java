@@ -3,16 +3,21 @@ package teste.tgid_bruno.domain.entities;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import teste.tgid_bruno.infra.identificador.IdUuidV7;
+import lombok.With;
 
 @Table(name = "Empresas")
 @Entity
@@ -22,7 +27,7 @@ import lombok.NoArgsConstructor;
 public class Empresa {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @IdUuidV7
     private String id;
 
     @Column(name = "cnpj", nullable = false, unique = true)
@@ -31,15 +36,32 @@ public class Empresa {
     @Column(name = "nome", nullable = false)
     private String nome;
 
-    @Column(name = "saldo")
-    private Double saldo;
+    // Em centavos (ver Dinheiro)
+    @Column(name = "saldo", nullable = false)
+    @With
+    private long saldo;
 
-    @Column(name = "taxa_servico")
-    private float taxaServico;
+    // Em pontos-base: 500 = 5%
+    @Column(name = "taxa_servico", nullable = false)
+    private int taxaServico;
 
+    // Lazy e fora de toString/equals/hashCode e do JSON: só é lida por consulta
+    // explícita (ClienteRepository), nunca ao serializar ou comparar a empresa
     @OneToMany(mappedBy = "empresa")
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private List<Cliente> clientes = new ArrayList<>();
 
+    // Incrementada a cada alteração de saldo, inclusive pelos updates nativos do repositório
+    @Version
+    @JsonIgnore
+    private Long version;
+
+    public Empresa(String id, String cnpj, String nome, long saldo, int taxaServico, List<Cliente> clientes) {
+        this(id, cnpj, nome, saldo, taxaServico, clientes, null);
+    }
+
     public Empresa(String cnpj, String nome) {
         this.cnpj = cnpj;
         this.nome = nome;
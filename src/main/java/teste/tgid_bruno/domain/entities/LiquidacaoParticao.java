@@ -0,0 +1,76 @@
+package teste.tgid_bruno.domain.entities;
+
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import teste.tgid_bruno.infra.identificador.IdUuidV7;
+
+/**
+ * Checkpoint de uma partição da liquidação de taxas de um dia: a faixa de ids
+ * de empresas {@code [inicio, fim)}, o último id já liquidado e os totais até
+ * ali. É gravado na mesma transação de cada bloco de empresas, então uma
+ * execução interrompida continua do último bloco confirmado. Valores em centavos.
+ */
+@Table(name = "LiquidacoesTaxa", uniqueConstraints = @UniqueConstraint(name = "uk_liquidacoes_taxa_dia_particao", columnNames = {
+        "dia", "particao" }))
+@Entity
+@Data
+@NoArgsConstructor
+public class LiquidacaoParticao {
+
+    @Id
+    @IdUuidV7
+    private String id;
+
+    @Column(name = "dia", nullable = false)
+    private LocalDate dia;
+
+    @Column(name = "particao", nullable = false)
+    private int particao;
+
+    @Column(name = "inicio", nullable = false, length = 36)
+    private String inicio;
+
+    @Column(name = "fim", nullable = false, length = 36)
+    private String fim;
+
+    @Column(name = "ultimo_id", length = 36)
+    private String ultimoId;
+
+    @Column(name = "concluida", nullable = false)
+    private boolean concluida;
+
+    // Empresas percorridas, com ou sem taxa no dia
+    @Column(name = "empresas", nullable = false)
+    private long empresas;
+
+    @Column(name = "cobradas", nullable = false)
+    private long cobradas;
+
+    @Column(name = "valor_cobrado", nullable = false)
+    private long valorCobrado;
+
+    // Empresas cujo saldo não cobria a taxa; o valor fica registrado como em aberto
+    @Column(name = "sem_saldo", nullable = false)
+    private long semSaldo;
+
+    @Column(name = "valor_em_aberto", nullable = false)
+    private long valorEmAberto;
+
+    // Soma do tempo dos blocos, inclusive de execuções anteriores
+    @Column(name = "duracao_ms", nullable = false)
+    private long duracaoMs;
+
+    public LiquidacaoParticao(LocalDate dia, int particao, String inicio, String fim) {
+        this.dia = dia;
+        this.particao = particao;
+        this.inicio = inicio;
+        this.fim = fim;
+    }
+}
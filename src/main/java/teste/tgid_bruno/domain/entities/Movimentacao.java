@@ -0,0 +1,81 @@
+package teste.tgid_bruno.domain.entities;
+
+import java.time.Instant;
+
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.JavaType;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import teste.tgid_bruno.dtos.TipoMovimentacao;
+import teste.tgid_bruno.infra.identificador.IdUuidV7;
+import teste.tgid_bruno.infra.identificador.UuidTextoJavaType;
+
+/**
+ * Depósito, saque ou cobrança de taxa confirmados em uma empresa. Só é
+ * inserida, nunca alterada: o extrato é a sequência destas linhas. Valores em
+ * centavos.
+ */
+@Table(name = "Movimentacoes", indexes = @Index(name = "idx_movimentacoes_empresa_data", columnList = "empresa_id, data_hora, id"))
+@Entity
+@Immutable
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class Movimentacao {
+
+    @Id
+    @IdUuidV7
+    private String id;
+
+    // Só o id: registrar uma movimentação não lê a empresa
+    @Column(name = "empresa_id", nullable = false)
+    @JavaType(UuidTextoJavaType.class)
+    private String empresaId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "tipo", nullable = false, length = 8)
+    private TipoMovimentacao tipo;
+
+    @Column(name = "valor", nullable = false)
+    private long valor;
+
+    @Column(name = "taxa", nullable = false)
+    private long taxa;
+
+    // Taxa calculada no depósito mas não descontada: fica para a liquidação noturna
+    @Column(name = "taxa_diferida", nullable = false)
+    private boolean taxaDiferida;
+
+    // Saldo da empresa logo após a movimentação
+    @Column(name = "saldo", nullable = false)
+    private long saldo;
+
+    @Column(name = "data_hora", nullable = false)
+    private Instant dataHora;
+
+    // Gravada na mesma transação que alterou o saldo (engine jpa). Nas engines
+    // que aplicam o saldo fora do banco o histórico é melhor esforço: uma queda
+    // entre o saldo e o INSERT deixa o saldo sem a linha correspondente
+    @Column(name = "atomica", nullable = false)
+    private boolean atomica;
+
+    public Movimentacao(String empresaId, TipoMovimentacao tipo, long valor, long taxa, boolean taxaDiferida,
+            long saldo, Instant dataHora) {
+        this(empresaId, tipo, valor, taxa, taxaDiferida, saldo, dataHora, true);
+    }
+
+    public Movimentacao(String empresaId, TipoMovimentacao tipo, long valor, long taxa, boolean taxaDiferida,
+            long saldo, Instant dataHora, boolean atomica) {
+        this(null, empresaId, tipo, valor, taxa, taxaDiferida, saldo, dataHora, atomica);
+    }
+}
@@ -0,0 +1,71 @@
+package teste.tgid_bruno.domain.entities;
+
+import java.time.Instant;
+
+import org.springframework.data.domain.Persistable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Lob;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resposta de uma requisição com {@code Idempotency-Key}, guardada para ser
+ * devolvida quando o cliente repetir a mesma chave. A linha é inserida sem
+ * corpo antes de a operação rodar, como reserva da chave, e recebe a resposta
+ * quando ela termina.
+ */
+@Table(name = "respostas_idempotentes", indexes = @Index(name = "idx_respostas_idempotentes_criado_em", columnList = "criado_em"))
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RespostaIdempotente implements Persistable<String> {
+
+    // A própria chave enviada pelo cliente
+    @Id
+    @Column(length = 255)
+    private String id;
+
+    // SHA-256 da operação e do corpo da requisição original
+    @Column(name = "impressao", nullable = false, length = 32)
+    private byte[] impressao;
+
+    @Column(name = "status", nullable = false)
+    private int status;
+
+    // Nulo enquanto a requisição que reservou a chave não termina
+    @Lob
+    @Column(name = "corpo")
+    private byte[] corpo;
+
+    @Column(name = "criado_em", nullable = false)
+    private Instant criadoEm;
+
+    // O id é atribuído pelo cliente, então o save faria um SELECT antes do INSERT
+    @Transient
+    private boolean novo = true;
+
+    public RespostaIdempotente(String id, byte[] impressao, int status, byte[] corpo, Instant criadoEm) {
+        this(id, impressao, status, corpo, criadoEm, true);
+    }
+
+    @Override
+    public boolean isNew() {
+        return novo;
+    }
+
+    @PostLoad
+    @PostPersist
+    void marcarPersistida() {
+        novo = false;
+    }
+}
@@ -1,11 +1,52 @@
 package teste.tgid_bruno.domain.repositories;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
 import teste.tgid_bruno.domain.entities.Cliente;
+import teste.tgid_bruno.dtos.ClienteResumoDto;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+
+import jakarta.persistence.QueryHint;
 
 public interface ClienteRepository extends JpaRepository<Cliente, String> {
 
     public Optional<Cliente> findByCpf(String cpf);
+
+    // Só a versão, para conferir o ETag sem carregar o cliente
+    @Query("select c.version from Cliente c where c.id = :id")
+    public Optional<Long> findVersionById(@Param("id") String id);
+
+    @Query("select c.cpf from Cliente c where c.cpf in :cpfs")
+    public List<String> findCpfsCadastrados(@Param("cpfs") Collection<String> cpfs);
+
+    // Percorre todos os CPFs sem carregar entidades; precisa de transação aberta
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select c.cpf from Cliente c")
+    public Stream<String> streamCpfs();
+
+    // Paginação por chave: cada página continua do último id da anterior, pelo
+    // índice (empresa_id, id), sem OFFSET; o custo não cresce com a página.
+    // Ids são UUID v7, então a ordem é a de cadastro
+    @Query("select new teste.tgid_bruno.dtos.ClienteResumoDto(c.id, c.cpf, c.nome) from Cliente c "
+            + "where c.empresa.id = :empresaId order by c.id")
+    public List<ClienteResumoDto> findPrimeiraPagina(@Param("empresaId") String empresaId, Limit limite);
+
+    @Query("select new teste.tgid_bruno.dtos.ClienteResumoDto(c.id, c.cpf, c.nome) from Cliente c "
+            + "where c.empresa.id = :empresaId and c.id > :depois order by c.id")
+    public List<ClienteResumoDto> findPaginaApos(@Param("empresaId") String empresaId, @Param("depois") String depois,
+            Limit limite);
+
+    @Query("select new teste.tgid_bruno.dtos.ClienteResumoDto(c.id, c.cpf, c.nome) from Cliente c "
+            + "where c.empresa.id = :empresaId order by c.id")
+    public List<ClienteResumoDto> findResumosPorEmpresa(@Param("empresaId") String empresaId);
 }
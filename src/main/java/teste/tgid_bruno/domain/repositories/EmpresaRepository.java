@@ -1,11 +1,121 @@
 package teste.tgid_bruno.domain.repositories;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
 import teste.tgid_bruno.domain.entities.Empresa;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 
 public interface EmpresaRepository extends JpaRepository<Empresa, String> {
 
     public Optional<Empresa> findByCnpj(String cnpj);
+
+    @Query("select e.cnpj from Empresa e where e.cnpj in :cnpjs")
+    public List<String> findCnpjsCadastrados(@Param("cnpjs") Collection<String> cnpjs);
+
+    // Percorre todos os CNPJs sem carregar entidades; precisa de transação aberta
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select e.cnpj from Empresa e")
+    public Stream<String> streamCnpjs();
+
+    // Soma o valor ao saldo no proprio banco e devolve o saldo e a versão
+    // resultantes na mesma ida ao banco (FINAL TABLE do H2), sem ler a entidade antes
+    @Transactional
+    @Query(value = "SELECT saldo, version FROM FINAL TABLE (UPDATE empresas SET saldo = saldo + :valor, version = version + 1 WHERE id = CAST(:id AS UUID))", nativeQuery = true)
+    public Optional<SaldoVersionado> creditSaldo(@Param("id") String id, @Param("valor") long valor);
+
+    // Só subtrai quando há saldo suficiente; nenhuma linha retornada indica saldo
+    // insuficiente (ou empresa inexistente)
+    @Transactional
+    @Query(value = "SELECT saldo, version FROM FINAL TABLE (UPDATE empresas SET saldo = saldo - :valor, version = version + 1 WHERE id = CAST(:id AS UUID) AND saldo >= :valor)", nativeQuery = true)
+    public Optional<SaldoVersionado> debitSaldo(@Param("id") String id, @Param("valor") long valor);
+
+    // Lê e bloqueia (FOR UPDATE) os saldos de várias empresas, sempre na mesma
+    // ordem para que lotes concorrentes não entrem em deadlock
+    // (JPQL para que os ids textuais sejam convertidos para o tipo da coluna)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select e.id as id, e.saldo as saldo, e.version as version from Empresa e where e.id in :ids order by e.id")
+    public List<SaldoEmpresa> lockSaldos(@Param("ids") Collection<String> ids);
+
+    // Carrega e bloqueia as empresas, na mesma ordem de lockSaldos. Precisa ser a
+    // primeira leitura delas na transação: uma entidade que já estava no contexto
+    // de persistência volta como estava, sem o estado lido sob o lock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select e from Empresa e where e.id in :ids order by e.id")
+    public List<Empresa> lockAllById(@Param("ids") Collection<String> ids);
+
+    // Grava um saldo calculado fora do banco (engine em memória)
+    @Transactional
+    @Modifying
+    @Query("update Empresa e set e.saldo = :saldo, e.version = e.version + 1 where e.id = :id")
+    public int updateSaldo(@Param("id") String id, @Param("saldo") long saldo);
+
+    // Lê saldo e versão direto do banco (projeção, não passa pelo contexto de persistência)
+    @Query("select e.saldo as saldo, e.version as version from Empresa e where e.id = :id")
+    public Optional<SaldoVersionado> findSaldoVersionado(@Param("id") String id);
+
+    // Quais dos ids existem, sem carregar as empresas
+    @Query("select e.id from Empresa e where e.id in :ids")
+    public List<String> findIdsExistentes(@Param("ids") Collection<String> ids);
+
+    // Só a versão, para conferir o ETag sem carregar a empresa
+    @Query("select e.version from Empresa e where e.id = :id")
+    public Optional<Long> findVersionById(@Param("id") String id);
+
+    // Grava o saldo só se ninguém alterou a empresa desde a leitura da versão;
+    // 0 linhas alteradas indica conflito
+    @Transactional
+    @Modifying
+    @Query("update Empresa e set e.saldo = :saldo, e.version = e.version + 1 where e.id = :id and e.version = :version")
+    public int updateSaldoSeVersao(@Param("id") String id, @Param("saldo") long saldo,
+            @Param("version") Long version);
+
+    // Menor e maior id, para dividir as empresas em faixas (liquidação de taxas)
+    @Query("select min(e.id) as primeiro, max(e.id) as ultimo from Empresa e")
+    public IntervaloIds findIntervaloIds();
+
+    // Ids de uma faixa [inicio, fim) em páginas por chave, pela chave primária
+    @Query("select e.id from Empresa e where e.id >= :inicio and e.id < :fim order by e.id")
+    public List<String> findIdsFaixa(@Param("inicio") String inicio, @Param("fim") String fim, Limit limite);
+
+    @Query("select e.id from Empresa e where e.id > :depois and e.id < :fim order by e.id")
+    public List<String> findIdsFaixaApos(@Param("depois") String depois, @Param("fim") String fim, Limit limite);
+
+    public interface IntervaloIds {
+
+        String getPrimeiro();
+
+        String getUltimo();
+    }
+
+    public interface SaldoEmpresa {
+
+        String getId();
+
+        long getSaldo();
+
+        Long getVersion();
+    }
+
+    public interface SaldoVersionado {
+
+        long getSaldo();
+
+        Long getVersion();
+    }
 }
@@ -0,0 +1,13 @@
+package teste.tgid_bruno.domain.repositories;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import teste.tgid_bruno.domain.entities.LiquidacaoParticao;
+
+public interface LiquidacaoParticaoRepository extends JpaRepository<LiquidacaoParticao, String> {
+
+    public List<LiquidacaoParticao> findByDiaOrderByParticao(LocalDate dia);
+}
@@ -0,0 +1,75 @@
+package teste.tgid_bruno.domain.repositories;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import jakarta.persistence.QueryHint;
+import teste.tgid_bruno.domain.entities.Movimentacao;
+import teste.tgid_bruno.dtos.MovimentacaoDto;
+
+public interface MovimentacaoRepository extends JpaRepository<Movimentacao, String> {
+
+    // Extrato de um intervalo [de, ate), na ordem do índice (empresa_id, data_hora, id):
+    // percorre só o trecho do intervalo, sem ordenação em memória. Projeção direta
+    // em DTO, sem entidades no contexto de persistência; precisa de transação aberta
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new teste.tgid_bruno.dtos.MovimentacaoDto(m.id, m.tipo, m.valor, m.taxa, m.taxaDiferida, m.saldo, m.dataHora) "
+            + "from Movimentacao m where m.empresaId = :empresaId and m.dataHora >= :de and m.dataHora < :ate "
+            + "order by m.dataHora, m.id")
+    public Stream<MovimentacaoDto> streamExtrato(@Param("empresaId") String empresaId, @Param("de") Instant de,
+            @Param("ate") Instant ate);
+
+    // Taxas diferidas de um grupo de empresas, somadas por empresa, dos depósitos no
+    // intervalo [de, ate); cada empresa lê só o seu trecho do índice
+    @Query("select m.empresaId as empresaId, sum(m.taxa) as taxa from Movimentacao m "
+            + "where m.empresaId in :empresaIds and m.dataHora >= :de and m.dataHora < :ate and m.taxaDiferida = true "
+            + "group by m.empresaId")
+    public List<TaxaPendente> somarTaxasDiferidas(@Param("empresaIds") Collection<String> empresaIds,
+            @Param("de") Instant de, @Param("ate") Instant ate);
+
+    // Saldo de cada empresa da faixa [inicio, fim) ao lado do saldo que as suas
+    // movimentações produzem: depósitos creditam o valor menos a taxa (só o valor
+    // quando a taxa é diferida), saques e taxas cobradas debitam. O banco agrega
+    // pelo índice de cada empresa; chega ao Java uma linha por empresa, em
+    // streaming. Precisa de transação aberta
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select e.id as empresaId, e.saldo as saldo, count(m.id) as movimentacoes, "
+            + "coalesce(sum(case when m.tipo = teste.tgid_bruno.dtos.TipoMovimentacao.DEPOSITO "
+            + "then m.valor - (case when m.taxaDiferida = true then 0 else m.taxa end) "
+            + "else -m.valor end), 0) as saldoEsperado "
+            + "from Empresa e left join Movimentacao m on m.empresaId = e.id "
+            + "where e.id >= :inicio and e.id < :fim group by e.id, e.saldo order by e.id")
+    public Stream<SaldoConciliado> streamConciliacao(@Param("inicio") String inicio, @Param("fim") String fim);
+
+    public interface SaldoConciliado {
+
+        String getEmpresaId();
+
+        long getSaldo();
+
+        long getMovimentacoes();
+
+        long getSaldoEsperado();
+    }
+
+    public interface TaxaPendente {
+
+        String getEmpresaId();
+
+        long getTaxa();
+    }
+}
@@ -0,0 +1,38 @@
+package teste.tgid_bruno.domain.repositories;
+
+import java.time.Instant;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import teste.tgid_bruno.domain.entities.RespostaIdempotente;
+
+public interface RespostaIdempotenteRepository extends JpaRepository<RespostaIdempotente, String> {
+
+    // Grava a resposta na linha que reservou a chave
+    @Transactional
+    @Modifying
+    @Query("update RespostaIdempotente r set r.status = :status, r.corpo = :corpo where r.id = :id")
+    public int concluir(@Param("id") String id, @Param("status") int status, @Param("corpo") byte[] corpo);
+
+    // Libera a reserva de uma requisição que não terminou com sucesso
+    @Transactional
+    @Modifying
+    @Query("delete from RespostaIdempotente r where r.id = :id and r.corpo is null")
+    public int deleteReserva(@Param("id") String id);
+
+    // Reserva vencida de uma chave que ainda não passou pela limpeza periódica
+    @Transactional
+    @Modifying
+    @Query("delete from RespostaIdempotente r where r.id = :id and r.criadoEm < :limite")
+    public int deleteVencida(@Param("id") String id, @Param("limite") Instant limite);
+
+    // Remove as respostas vencidas com um único DELETE, sem carregar entidades
+    @Transactional
+    @Modifying
+    @Query("delete from RespostaIdempotente r where r.criadoEm < :limite")
+    public int deleteVencidas(@Param("limite") Instant limite);
+}
@@ -0,0 +1,8 @@
+package teste.tgid_bruno.dtos;
+
+public record ClienteResumoDto(
+        String id,
+        String cpf,
+        String nome) {
+
+}
@@ -1,9 +1,11 @@
 package teste.tgid_bruno.dtos;
 
 import jakarta.validation.constraints.Positive;
+import teste.tgid_bruno.infra.dinheiro.Reais;
 
+// value em reais no JSON, em centavos aqui
 public record CreditRequestDto(
         String id_empresa,
-        @Positive Double value) {
+        @Positive @Reais long value) {
 
 }
@@ -0,0 +1,13 @@
+package teste.tgid_bruno.dtos;
+
+import teste.tgid_bruno.infra.dinheiro.Reais;
+
+// Empresa cujo saldo não bate com as movimentações; diferenca = saldo - esperado
+public record DivergenciaSaldoDto(
+        String empresaId,
+        @Reais long saldo,
+        @Reais long saldoEsperado,
+        @Reais long diferenca,
+        long movimentacoes) {
+
+}
@@ -0,0 +1,29 @@
+package teste.tgid_bruno.dtos;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import teste.tgid_bruno.domain.entities.Empresa;
+import teste.tgid_bruno.infra.dinheiro.Reais;
+import teste.tgid_bruno.infra.dinheiro.TaxaPontosBase;
+
+// Resposta das rotas de empresa; clientes só vem preenchido com expand=clientes
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record EmpresaResponseDto(
+        String id,
+        String cnpj,
+        String nome,
+        @Reais long saldo,
+        @TaxaPontosBase int taxaServico,
+        List<ClienteResumoDto> clientes) {
+
+    public static EmpresaResponseDto de(Empresa empresa) {
+        return new EmpresaResponseDto(empresa.getId(), empresa.getCnpj(), empresa.getNome(), empresa.getSaldo(),
+                empresa.getTaxaServico(), null);
+    }
+
+    public EmpresaResponseDto comClientes(List<ClienteResumoDto> clientes) {
+        return new EmpresaResponseDto(id, cnpj, nome, saldo, taxaServico, clientes);
+    }
+}
@@ -0,0 +1,13 @@
+package teste.tgid_bruno.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ImportacaoClienteDto(
+        long linha,
+        String cpf,
+        boolean importado,
+        String id,
+        String erro) {
+
+}
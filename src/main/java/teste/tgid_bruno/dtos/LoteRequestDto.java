@@ -0,0 +1,12 @@
+package teste.tgid_bruno.dtos;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+public record LoteRequestDto(
+        @NotEmpty @Size(max = 10000) List<@Valid OperacaoLoteDto> operacoes) {
+
+}
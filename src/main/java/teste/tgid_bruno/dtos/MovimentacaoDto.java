@@ -0,0 +1,17 @@
+package teste.tgid_bruno.dtos;
+
+import java.time.Instant;
+
+import teste.tgid_bruno.infra.dinheiro.Reais;
+
+// Linha do extrato; valores em reais no JSON
+public record MovimentacaoDto(
+        String id,
+        TipoMovimentacao tipo,
+        @Reais long valor,
+        @Reais long taxa,
+        boolean taxaDiferida,
+        @Reais long saldo,
+        Instant dataHora) {
+
+}
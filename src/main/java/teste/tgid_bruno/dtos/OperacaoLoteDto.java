@@ -0,0 +1,13 @@
+package teste.tgid_bruno.dtos;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import teste.tgid_bruno.infra.dinheiro.Reais;
+
+public record OperacaoLoteDto(
+        @NotBlank String id_empresa,
+        @Positive @Reais long value,
+        @NotNull TipoOperacao tipo) {
+
+}
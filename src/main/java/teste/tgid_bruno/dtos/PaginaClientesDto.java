@@ -0,0 +1,13 @@
+package teste.tgid_bruno.dtos;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// proximo: valor do parâmetro "depois" para a página seguinte; ausente na última
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record PaginaClientesDto(
+        List<ClienteResumoDto> clientes,
+        String proximo) {
+
+}
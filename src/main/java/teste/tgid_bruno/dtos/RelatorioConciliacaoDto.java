@@ -0,0 +1,21 @@
+package teste.tgid_bruno.dtos;
+
+import java.time.Instant;
+import java.util.List;
+
+import teste.tgid_bruno.infra.dinheiro.Reais;
+
+// Resultado da conciliação; divergencias traz só as primeiras, em ordem de id
+// (truncado = true quando há mais que o limite)
+public record RelatorioConciliacaoDto(
+        Instant inicio,
+        long duracaoMs,
+        int particoes,
+        long empresas,
+        long movimentacoes,
+        long divergentes,
+        @Reais long diferencaTotal,
+        List<DivergenciaSaldoDto> divergencias,
+        boolean truncado) {
+
+}
@@ -0,0 +1,17 @@
+package teste.tgid_bruno.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import teste.tgid_bruno.infra.dinheiro.Reais;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ResultadoOperacaoDto(
+        int indice,
+        String id_empresa,
+        TipoOperacao tipo,
+        @Reais long value,
+        boolean sucesso,
+        @Reais Long saldo,
+        String erro) {
+
+}
@@ -0,0 +1,10 @@
+package teste.tgid_bruno.dtos;
+
+// Tipos do extrato: as operações dos clientes e a cobrança das taxas diferidas
+public enum TipoMovimentacao {
+    DEPOSITO, SAQUE, TAXA;
+
+    public static TipoMovimentacao de(TipoOperacao tipo) {
+        return tipo == TipoOperacao.DEPOSITO ? DEPOSITO : SAQUE;
+    }
+}
@@ -0,0 +1,5 @@
+package teste.tgid_bruno.dtos;
+
+public enum TipoOperacao {
+    DEPOSITO, SAQUE
+}
@@ -0,0 +1,14 @@
+package teste.tgid_bruno.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ValidacaoDocumentoDto(
+        long linha,
+        String documento,
+        String tipo,
+        boolean valido,
+        Boolean cadastrado,
+        String erro) {
+
+}
@@ -0,0 +1,5 @@
+package teste.tgid_bruno.exceptions;
+
+public class ChaveIdempotenciaException extends RuntimeException {
+
+}
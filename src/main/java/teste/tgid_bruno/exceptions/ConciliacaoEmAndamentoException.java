@@ -0,0 +1,5 @@
+package teste.tgid_bruno.exceptions;
+
+public class ConciliacaoEmAndamentoException extends RuntimeException {
+
+}
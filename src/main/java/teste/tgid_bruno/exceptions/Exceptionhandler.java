@@ -6,17 +6,51 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import lombok.RequiredArgsConstructor;
+import teste.tgid_bruno.infra.metricas.MetricasOperacao;
+
 @RestControllerAdvice
+@RequiredArgsConstructor
 public class Exceptionhandler {
 
+    private final MetricasOperacao metricas;
+
     @ExceptionHandler(SaldoException.class)
     public ResponseEntity<?> handleSaldoException() {
         return ResponseEntity.status(HttpStatusCode.valueOf(403))
                 .body("Saldo insuficiente para saque! verifique o valor e tente novamente.");
     }
 
+    @ExceptionHandler(ConflitoSaldoException.class)
+    public ResponseEntity<?> handleConflitoSaldoException() {
+        return ResponseEntity.status(HttpStatusCode.valueOf(409))
+                .body("Saldo alterado por outra operação ao mesmo tempo, tente novamente.");
+    }
+
+    @ExceptionHandler(RequisicaoEmAndamentoException.class)
+    public ResponseEntity<?> handleRequisicaoEmAndamentoException() {
+        return ResponseEntity.status(HttpStatusCode.valueOf(409))
+                .body("Uma requisição com esta Idempotency-Key ainda está em andamento, tente novamente.");
+    }
+
+    @ExceptionHandler(ConciliacaoEmAndamentoException.class)
+    public ResponseEntity<?> handleConciliacaoEmAndamentoException() {
+        return ResponseEntity.status(HttpStatusCode.valueOf(409))
+                .body("Já existe uma conciliação de saldos em andamento, aguarde o relatório dela.");
+    }
+
+    @ExceptionHandler(ChaveIdempotenciaException.class)
+    public ResponseEntity<?> handleChaveIdempotenciaException() {
+        return ResponseEntity.status(HttpStatusCode.valueOf(422))
+                .body("Idempotency-Key inválida ou já usada em outra requisição!");
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<?> handleCreateUserException(MethodArgumentNotValidException msg) {
+        // operação = objeto da requisição (clienteRequestDto...), motivo = campo rejeitado
+        metricas.falhaValidacao(msg.getObjectName(),
+                msg.getFieldError() != null ? msg.getFieldError().getField() : "corpo");
+
         String rawMsg = msg.getMessage().substring(msg.getMessage().lastIndexOf("default message"));
 
         // default message [não deve estar em branco]] ou default message [deve ser
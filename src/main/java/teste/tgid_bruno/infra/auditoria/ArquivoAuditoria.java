@@ -0,0 +1,152 @@
+package teste.tgid_bruno.infra.auditoria;
+
+import static teste.tgid_bruno.infra.auditoria.RingBufferAuditoria.POSICAO_CHECKSUM;
+import static teste.tgid_bruno.infra.auditoria.RingBufferAuditoria.POSICAO_SEQUENCIA;
+import static teste.tgid_bruno.infra.auditoria.RingBufferAuditoria.TAMANHO_REGISTRO;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Arquivos append-only da auditoria, em segmentos de tamanho limitado. Cada
+ * lote recebe sequências contínuas às do arquivo, o checksum de cada registro
+ * e um único fsync. Usado só pela thread consumidora.
+ */
+class ArquivoAuditoria {
+
+    private final Path diretorio;
+    private final long tamanhoSegmento;
+
+    private FileChannel canal;
+    private int segmento;
+    private long posicao;
+    private long sequencia;
+
+    ArquivoAuditoria(Path diretorio, long tamanhoSegmento) {
+        this.diretorio = diretorio;
+        this.tamanhoSegmento = tamanhoSegmento - (tamanhoSegmento % TAMANHO_REGISTRO);
+    }
+
+    void abrir() throws IOException {
+        Files.createDirectories(diretorio);
+
+        int ultimo = 0;
+        while (Files.exists(arquivo(ultimo + 1))) {
+            ultimo++;
+        }
+
+        abrirSegmento(ultimo);
+
+        // Registro incompleto de uma queda no meio da gravação
+        long inteiros = canal.size() - canal.size() % TAMANHO_REGISTRO;
+        if (inteiros != canal.size()) {
+            canal.truncate(inteiros);
+        }
+
+        posicao = inteiros;
+        canal.position(posicao);
+
+        if (posicao > 0) {
+            sequencia = ultimaSequencia(canal, posicao);
+        } else if (ultimo > 0) {
+            // Segmento novo, ainda vazio: a numeração continua a do anterior
+            try (FileChannel anterior = FileChannel.open(arquivo(ultimo - 1), StandardOpenOption.READ)) {
+                long tamanho = anterior.size() - anterior.size() % TAMANHO_REGISTRO;
+                sequencia = tamanho > 0 ? ultimaSequencia(anterior, tamanho) : 0;
+            }
+        }
+    }
+
+    /**
+     * Numera e grava o lote. Se falhar, o arquivo e a numeração voltam ao estado
+     * anterior e o mesmo lote pode ser gravado de novo.
+     */
+    void gravar(ByteBuffer[] trechos) throws IOException {
+        long sequenciaAnterior = sequencia;
+        long bytes = 0;
+        for (ByteBuffer trecho : trechos) {
+            numerar(trecho);
+            bytes += trecho.remaining();
+        }
+
+        try {
+            if (posicao > 0 && posicao + bytes > tamanhoSegmento) {
+                canal.close();
+                abrirSegmento(segmento + 1);
+                posicao = 0;
+            }
+
+            long escritos = 0;
+            while (escritos < bytes) {
+                escritos += canal.write(trechos);
+            }
+
+            canal.force(false);
+            posicao += bytes;
+        } catch (IOException e) {
+            sequencia = sequenciaAnterior;
+            for (ByteBuffer trecho : trechos) {
+                trecho.rewind();
+            }
+            descartarParcial();
+            throw e;
+        }
+    }
+
+    long ultimaSequencia() {
+        return sequencia;
+    }
+
+    void fechar() throws IOException {
+        if (canal != null) {
+            canal.close();
+        }
+    }
+
+    private void numerar(ByteBuffer trecho) {
+        CRC32C crc = new CRC32C();
+
+        for (int inicio = trecho.position(); inicio < trecho.limit(); inicio += TAMANHO_REGISTRO) {
+            trecho.putLong(inicio + POSICAO_SEQUENCIA, ++sequencia);
+
+            crc.reset();
+            crc.update(trecho.slice(inicio, POSICAO_CHECKSUM));
+            trecho.putInt(inicio + POSICAO_CHECKSUM, (int) crc.getValue());
+        }
+    }
+
+    // Melhor esforço: se o canal também falhar aqui, abrir() corta o registro
+    // incompleto na próxima inicialização
+    private void descartarParcial() {
+        try {
+            if (canal.isOpen()) {
+                canal.truncate(posicao);
+                canal.position(posicao);
+            }
+        } catch (IOException e) {
+            // a falha original já vai para quem chamou
+        }
+    }
+
+    private void abrirSegmento(int numero) throws IOException {
+        canal = FileChannel.open(arquivo(numero), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        segmento = numero;
+    }
+
+    private static long ultimaSequencia(FileChannel canal, long tamanho) throws IOException {
+        ByteBuffer sequencia = ByteBuffer.allocate(Long.BYTES);
+        canal.read(sequencia, tamanho - TAMANHO_REGISTRO + POSICAO_SEQUENCIA);
+
+        return sequencia.getLong(0);
+    }
+
+    private Path arquivo(int numero) {
+        return diretorio.resolve(String.format("auditoria-%06d.log", numero));
+    }
+}
@@ -0,0 +1,228 @@
+package teste.tgid_bruno.infra.auditoria;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Auditoria assíncrona dos cadastros e das operações de saldo.
+ *
+ * <p>
+ * A thread da requisição só escreve o evento no {@link RingBufferAuditoria} e
+ * segue; uma thread dedicada grava os eventos em lotes nos arquivos de
+ * {@code tgid.auditoria.dir}, com um fsync por lote. Com o buffer cheio vale a
+ * {@link PoliticaSaturacao} configurada.
+ *
+ * <p>
+ * Métricas: {@code tgid.auditoria.eventos} com a tag {@code resultado}
+ * ({@code gravado} ou {@code descartado}), {@code tgid.auditoria.pendentes}
+ * (eventos no buffer) e {@code tgid.auditoria.atraso} (do evento mais antigo do
+ * lote até a gravação).
+ */
+@Slf4j
+@Component
+public class AuditoriaLog {
+
+    public static final int NOVA_EMPRESA = 1;
+    public static final int NOVO_CLIENTE = 2;
+    public static final int CREDITO = 3;
+    public static final int DEBITO = 4;
+
+    private static final long ESPERA_POR_VAGA_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long ESPERA_APOS_FALHA_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final boolean enabled;
+    private final Path diretorio;
+    private final RingBufferAuditoria ring;
+    private final ArquivoAuditoria arquivo;
+    private final int tamanhoLote;
+    private final PoliticaSaturacao politica;
+    private final long esperaMaximaNanos;
+    private final long intervaloConsumidorNanos;
+
+    private final Counter gravados;
+    private final Counter descartados;
+    private final Timer atraso;
+
+    private Thread consumidor;
+    private volatile boolean fechado;
+
+    public AuditoriaLog(
+            @Value("${tgid.auditoria.enabled:true}") boolean enabled,
+            @Value("${tgid.auditoria.dir:data/auditoria}") String diretorio,
+            @Value("${tgid.auditoria.capacidade:65536}") int capacidade,
+            @Value("${tgid.auditoria.tamanho-lote:1024}") int tamanhoLote,
+            @Value("${tgid.auditoria.politica:esperar}") PoliticaSaturacao politica,
+            @Value("${tgid.auditoria.espera-maxima-micros:1000}") long esperaMaximaMicros,
+            @Value("${tgid.auditoria.intervalo-consumidor-micros:200}") long intervaloConsumidorMicros,
+            @Value("${tgid.auditoria.segment-size:67108864}") long tamanhoSegmento,
+            MeterRegistry registry) {
+        this.enabled = enabled;
+        this.diretorio = Path.of(diretorio);
+        this.ring = new RingBufferAuditoria(capacidade);
+        this.arquivo = new ArquivoAuditoria(this.diretorio, tamanhoSegmento);
+        this.tamanhoLote = tamanhoLote;
+        this.politica = politica;
+        this.esperaMaximaNanos = TimeUnit.MICROSECONDS.toNanos(esperaMaximaMicros);
+        this.intervaloConsumidorNanos = TimeUnit.MICROSECONDS.toNanos(intervaloConsumidorMicros);
+
+        this.gravados = contador(registry, "gravado");
+        this.descartados = contador(registry, "descartado");
+        this.atraso = Timer.builder("tgid.auditoria.atraso").register(registry);
+        Gauge.builder("tgid.auditoria.pendentes", ring, RingBufferAuditoria::pendentes).register(registry);
+    }
+
+    @PostConstruct
+    public void abrir() throws IOException {
+        if (!enabled) {
+            return;
+        }
+
+        arquivo.abrir();
+
+        consumidor = new Thread(this::consumir, "auditoria-consumidor");
+        consumidor.setDaemon(true);
+        consumidor.start();
+
+        log.info("Auditoria aberta em {} a partir do registro {}, buffer de {} eventos, política {}", diretorio,
+                arquivo.ultimaSequencia(), ring.capacidade(), politica);
+    }
+
+    /**
+     * Publica um evento para gravação assíncrona. Valor, taxa e saldo em
+     * centavos; nos cadastros, zero. No cadastro de cliente a entidade é o
+     * cliente, nos demais é a própria empresa.
+     */
+    public void registrar(int tipo, String entidadeId, String empresaId, long valor, long taxa, long saldo) {
+        if (!enabled) {
+            return;
+        }
+
+        UUID entidade = UUID.fromString(entidadeId);
+        UUID empresa = entidadeId.equals(empresaId) ? entidade : UUID.fromString(empresaId);
+        long instante = System.currentTimeMillis();
+
+        if (fechado || !publicar(tipo, instante, entidade, empresa, valor, taxa, saldo)) {
+            descartados.increment();
+        }
+    }
+
+    /**
+     * Grava o que ainda está no buffer e para o consumidor; eventos publicados
+     * depois disso são descartados.
+     */
+    @PreDestroy
+    public void fechar() throws IOException {
+        if (fechado) {
+            return;
+        }
+
+        fechado = true;
+
+        if (consumidor != null) {
+            LockSupport.unpark(consumidor);
+            try {
+                consumidor.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        arquivo.fechar();
+    }
+
+    private boolean publicar(int tipo, long instante, UUID entidade, UUID empresa, long valor, long taxa,
+            long saldo) {
+        if (ring.publicar(tipo, instante, entidade, empresa, valor, taxa, saldo)) {
+            return true;
+        }
+
+        if (politica == PoliticaSaturacao.DESCARTAR) {
+            return false;
+        }
+
+        long limite = System.nanoTime() + esperaMaximaNanos;
+        do {
+            LockSupport.parkNanos(ESPERA_POR_VAGA_NANOS);
+
+            if (ring.publicar(tipo, instante, entidade, empresa, valor, taxa, saldo)) {
+                return true;
+            }
+        } while (!fechado && (politica == PoliticaSaturacao.BLOQUEAR || System.nanoTime() - limite < 0));
+
+        return false;
+    }
+
+    private void consumir() {
+        boolean falhando = false;
+
+        while (true) {
+            int lote;
+            try {
+                lote = ring.consumir(tamanhoLote, this::gravar);
+            } catch (IOException | RuntimeException e) {
+                if (!falhando) {
+                    log.error("Falha ao gravar a auditoria em {}; os eventos ficam no buffer até a gravação voltar",
+                            diretorio, e);
+                    falhando = true;
+                }
+
+                if (fechado) {
+                    log.error("Auditoria encerrada com {} eventos não gravados", ring.pendentes());
+                    return;
+                }
+
+                LockSupport.parkNanos(ESPERA_APOS_FALHA_NANOS);
+                continue;
+            }
+
+            if (falhando) {
+                log.info("Auditoria voltou a gravar em {}", diretorio);
+                falhando = false;
+            }
+
+            if (lote == 0) {
+                if (fechado) {
+                    return;
+                }
+
+                LockSupport.parkNanos(intervaloConsumidorNanos);
+            }
+        }
+    }
+
+    private void gravar(ByteBuffer[] trechos) throws IOException {
+        // O primeiro registro do lote é o que esperou mais
+        long maisAntigo = trechos[0].getLong(RingBufferAuditoria.POSICAO_INSTANTE);
+
+        arquivo.gravar(trechos);
+
+        long bytes = 0;
+        for (ByteBuffer trecho : trechos) {
+            bytes += trecho.capacity();
+        }
+
+        gravados.increment(bytes / RingBufferAuditoria.TAMANHO_REGISTRO);
+        atraso.record(Math.max(0, System.currentTimeMillis() - maisAntigo), TimeUnit.MILLISECONDS);
+    }
+
+    private static Counter contador(MeterRegistry registry, String resultado) {
+        return Counter.builder("tgid.auditoria.eventos")
+                .tag("resultado", resultado)
+                .register(registry);
+    }
+}
@@ -0,0 +1,18 @@
+package teste.tgid_bruno.infra.auditoria;
+
+/**
+ * O que a thread da requisição faz quando o buffer da auditoria está cheio,
+ * pela propriedade {@code tgid.auditoria.politica}.
+ */
+public enum PoliticaSaturacao {
+
+    // Descarta o evento na hora; a requisição nunca espera pela auditoria
+    DESCARTAR,
+
+    // Espera vaga até tgid.auditoria.espera-maxima-micros e então descarta
+    ESPERAR,
+
+    // Espera até haver vaga; nenhum evento é perdido, mas a requisição fica
+    // presa enquanto o arquivo não anda
+    BLOQUEAR
+}
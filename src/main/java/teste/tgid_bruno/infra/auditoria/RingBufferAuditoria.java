@@ -0,0 +1,145 @@
+package teste.tgid_bruno.infra.auditoria;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fila circular sem locks de eventos de auditoria, com vários produtores e um
+ * único consumidor.
+ *
+ * <p>
+ * Os eventos ficam num buffer direto alocado uma vez, em registros de
+ * {@link #TAMANHO_REGISTRO} bytes já no formato do arquivo: publicar não aloca
+ * nem copia. O produtor reserva uma sequência por CAS, escreve o registro na
+ * posição dela e a publica em {@code publicados}; o consumidor lê o trecho
+ * contínuo de sequências publicadas e só libera as posições depois de
+ * gravá-las.
+ *
+ * <pre>
+ *  0 sequência (preenchida na gravação)   8 instante (epoch ms)
+ * 16 id da entidade (UUID)               32 id da empresa (UUID)
+ * 48 valor   56 taxa   64 saldo (centavos)
+ * 72 tipo (int)                          76 CRC32C (preenchido na gravação)
+ * </pre>
+ */
+public class RingBufferAuditoria {
+
+    public static final int TAMANHO_REGISTRO = 80;
+
+    static final int POSICAO_SEQUENCIA = 0;
+    static final int POSICAO_INSTANTE = 8;
+    static final int POSICAO_CHECKSUM = 76;
+
+    @FunctionalInterface
+    public interface Destino {
+
+        // Trechos em ordem; dois quando o lote dá a volta no fim do buffer
+        void gravar(ByteBuffer[] trechos) throws IOException;
+    }
+
+    private final int capacidade;
+    private final int mascara;
+    private final ByteBuffer registros;
+    private final AtomicLongArray publicados;
+    private final AtomicLong proxima = new AtomicLong();
+    private final AtomicLong consumida = new AtomicLong();
+
+    public RingBufferAuditoria(int capacidade) {
+        if (capacidade < 2 || Integer.bitCount(capacidade) != 1) {
+            throw new IllegalArgumentException("Capacidade deve ser potência de 2: " + capacidade);
+        }
+
+        this.capacidade = capacidade;
+        this.mascara = capacidade - 1;
+        this.registros = ByteBuffer.allocateDirect(capacidade * TAMANHO_REGISTRO).order(ByteOrder.BIG_ENDIAN);
+        this.publicados = new AtomicLongArray(capacidade);
+
+        // Nenhuma posição publicada: a sequência 0 ainda não está na posição 0
+        for (int i = 0; i < capacidade; i++) {
+            publicados.set(i, -1);
+        }
+    }
+
+    /**
+     * @return {@code false} sem publicar quando o buffer está cheio
+     */
+    public boolean publicar(int tipo, long instante, UUID entidade, UUID empresa, long valor, long taxa,
+            long saldo) {
+        long sequencia;
+        do {
+            sequencia = proxima.get();
+
+            if (sequencia - consumida.get() >= capacidade) {
+                return false;
+            }
+        } while (!proxima.compareAndSet(sequencia, sequencia + 1));
+
+        int indice = (int) (sequencia & mascara);
+        int inicio = indice * TAMANHO_REGISTRO;
+
+        // Escritas absolutas: cada produtor só toca a própria posição
+        registros.putLong(inicio + POSICAO_INSTANTE, instante)
+                .putLong(inicio + 16, entidade.getMostSignificantBits())
+                .putLong(inicio + 24, entidade.getLeastSignificantBits())
+                .putLong(inicio + 32, empresa.getMostSignificantBits())
+                .putLong(inicio + 40, empresa.getLeastSignificantBits())
+                .putLong(inicio + 48, valor)
+                .putLong(inicio + 56, taxa)
+                .putLong(inicio + 64, saldo)
+                .putInt(inicio + 72, tipo);
+
+        // Escrita volatile: o consumidor que vê a sequência vê também o registro
+        publicados.set(indice, sequencia);
+        return true;
+    }
+
+    /**
+     * Entrega ao destino até {@code maximo} registros publicados, em ordem, e
+     * libera as posições deles. Só pode ser chamado pela thread consumidora. Se o
+     * destino falhar, os registros continuam no buffer para a próxima chamada.
+     *
+     * @return quantos registros foram gravados
+     */
+    public int consumir(int maximo, Destino destino) throws IOException {
+        long primeira = consumida.get();
+
+        int quantidade = 0;
+        while (quantidade < maximo && publicados.get((int) ((primeira + quantidade) & mascara)) == primeira + quantidade) {
+            quantidade++;
+        }
+
+        if (quantidade == 0) {
+            return 0;
+        }
+
+        int inicio = (int) (primeira & mascara);
+        int ateOFim = Math.min(quantidade, capacidade - inicio);
+
+        ByteBuffer[] trechos = ateOFim == quantidade
+                ? new ByteBuffer[] { trecho(inicio, quantidade) }
+                : new ByteBuffer[] { trecho(inicio, ateOFim), trecho(0, quantidade - ateOFim) };
+
+        destino.gravar(trechos);
+
+        // Só agora os produtores podem reutilizar as posições
+        consumida.set(primeira + quantidade);
+        return quantidade;
+    }
+
+    // Reservados e ainda não gravados
+    public long pendentes() {
+        return proxima.get() - consumida.get();
+    }
+
+    public int capacidade() {
+        return capacidade;
+    }
+
+    private ByteBuffer trecho(int indice, int quantidade) {
+        return registros.slice(indice * TAMANHO_REGISTRO, quantidade * TAMANHO_REGISTRO);
+    }
+}
@@ -0,0 +1,80 @@
+package teste.tgid_bruno.infra.concorrencia;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Junta cargas concorrentes da mesma chave: a primeira thread executa a carga
+ * e as que chegam enquanto ela está em andamento esperam e recebem o mesmo
+ * resultado (ou a mesma exceção). Terminada a carga, a chave sai do mapa e a
+ * próxima chamada executa de novo; não há cache aqui.
+ *
+ * <p>
+ * A espera é feita em um {@link CompletableFuture}, sem {@code synchronized},
+ * então threads virtuais que aguardam são desmontadas da portadora. A carga não
+ * pode chamar o mesmo {@code SingleFlight} com a mesma chave.
+ *
+ * <p>
+ * Contador {@code tgid.coalescencia.cargas}, com as tags {@code carga} e
+ * {@code resultado} ({@code executada} ou {@code coalescida}).
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> emAndamento = new ConcurrentHashMap<>();
+    private final Counter executadas;
+    private final Counter coalescidas;
+
+    public SingleFlight(String carga, MeterRegistry registry) {
+        this.executadas = contador(registry, carga, "executada");
+        this.coalescidas = contador(registry, carga, "coalescida");
+    }
+
+    public V executar(K chave, Supplier<V> carga) {
+        CompletableFuture<V> propria = new CompletableFuture<>();
+        CompletableFuture<V> existente = emAndamento.putIfAbsent(chave, propria);
+
+        if (existente != null) {
+            coalescidas.increment();
+            return aguardar(existente);
+        }
+
+        executadas.increment();
+        try {
+            V resultado = carga.get();
+            propria.complete(resultado);
+            return resultado;
+        } catch (RuntimeException | Error e) {
+            propria.completeExceptionally(e);
+            throw e;
+        } finally {
+            emAndamento.remove(chave, propria);
+        }
+    }
+
+    // Quem esperou recebe a exceção original da carga, não a CompletionException
+    private V aguardar(CompletableFuture<V> carga) {
+        try {
+            return carga.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            if (e.getCause() instanceof Error causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+
+    private static Counter contador(MeterRegistry registry, String carga, String resultado) {
+        return Counter.builder("tgid.coalescencia.cargas")
+                .tag("carga", carga)
+                .tag("resultado", resultado)
+                .register(registry);
+    }
+}
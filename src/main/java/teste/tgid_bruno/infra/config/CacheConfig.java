@@ -0,0 +1,39 @@
+package teste.tgid_bruno.infra.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String EMPRESAS = "empresas";
+    public static final String EMPRESAS_POR_CNPJ = "empresasPorCnpj";
+
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${tgid.cache.empresas.tamanho-maximo:100000}") long tamanhoMaximo,
+            @Value("${tgid.cache.empresas.ttl:60s}") Duration ttl) {
+
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(EMPRESAS, EMPRESAS_POR_CNPJ);
+
+        // O limite é por quantidade de entradas, sem weigher: as empresas entram no
+        // cache sem os clientes (coleção lazy nunca inicializada), então todas
+        // ocupam mais ou menos o mesmo espaço
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(ttl)
+                .recordStats());
+        cacheManager.setAllowNullValues(false);
+
+        return cacheManager;
+    }
+}
@@ -0,0 +1,26 @@
+package teste.tgid_bruno.infra.config;
+
+import java.util.Optional;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import teste.tgid_bruno.domain.entities.Cliente;
+import teste.tgid_bruno.domain.entities.Empresa;
+import teste.tgid_bruno.infra.concorrencia.SingleFlight;
+
+// Uma instância por consulta; o tipo genérico distingue as beans na injeção
+@Configuration
+public class ConcorrenciaConfig {
+
+    @Bean
+    public SingleFlight<String, Optional<Empresa>> cargasEmpresaPorId(MeterRegistry registry) {
+        return new SingleFlight<>("empresa_por_id", registry);
+    }
+
+    @Bean
+    public SingleFlight<String, Optional<Cliente>> cargasClientePorCpf(MeterRegistry registry) {
+        return new SingleFlight<>("cliente_por_cpf", registry);
+    }
+}
@@ -0,0 +1,36 @@
+package teste.tgid_bruno.infra.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import teste.tgid_bruno.infra.jfr.EventosRepositorioJfr;
+import teste.tgid_bruno.infra.metricas.TempoBancoPorRequisicao;
+
+@Configuration
+public class MetricasConfig {
+
+    // Instrumenta cada repositório ao criá-lo: tempo de banco por requisição e
+    // eventos JFR por chamada. Static para não antecipar a criação das demais
+    // beans desta configuração
+    @Bean
+    public static BeanPostProcessor instrumentacaoRepositorios(ObjectProvider<TempoBancoPorRequisicao> tempoBanco) {
+        return new BeanPostProcessor() {
+
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> repositorio) {
+                    repositorio.addRepositoryFactoryCustomizer(fabrica -> {
+                        tempoBanco.ifAvailable(fabrica::addInvocationListener);
+                        fabrica.addRepositoryProxyPostProcessor((proxy, informacao) -> proxy
+                                .addAdvice(new EventosRepositorioJfr(informacao.getRepositoryInterface())));
+                    });
+                }
+
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,59 @@
+package teste.tgid_bruno.infra.dinheiro;
+
+import java.math.BigDecimal;
+
+/**
+ * Aritmética de dinheiro em ponto fixo: valores em centavos ({@code long}) e
+ * taxas em pontos-base ({@code int}, 1 ponto-base = 0,01%; 500 = 5%).
+ *
+ * <p>
+ * Somas, subtrações e comparações de saldo são exatas e sem boxing. A única
+ * divisão é a da taxa, arredondada para o centavo mais próximo e, no empate,
+ * para o centavo par (HALF_EVEN), para que os arredondamentos não puxem o
+ * total sempre para o mesmo lado.
+ */
+public final class Dinheiro {
+
+    public static final int CASAS_DECIMAIS = 2;
+
+    public static final int PONTOS_BASE_TOTAL = 10_000;
+
+    private Dinheiro() {
+    }
+
+    /**
+     * Converte reais em centavos.
+     *
+     * @throws ArithmeticException com frações de centavo ou fora do limite de um {@code long}
+     */
+    public static long centavos(BigDecimal reais) {
+        return reais.movePointRight(CASAS_DECIMAIS).longValueExact();
+    }
+
+    // Texto decimal em reais, sempre com duas casas ("12.50")
+    public static String reais(long centavos) {
+        return BigDecimal.valueOf(centavos, CASAS_DECIMAIS).toPlainString();
+    }
+
+    // Taxa como fração decimal, sem zeros à direita (500 -> "0.05")
+    public static String fracao(int pontosBase) {
+        return BigDecimal.valueOf(pontosBase, 4).stripTrailingZeros().toPlainString();
+    }
+
+    /**
+     * Taxa sobre um valor, em centavos, arredondada com HALF_EVEN.
+     *
+     * @throws ArithmeticException se {@code centavos * pontosBase} estourar um {@code long}
+     */
+    public static long taxa(long centavos, int pontosBase) {
+        long produto = Math.multiplyExact(centavos, pontosBase);
+        long quociente = Math.floorDiv(produto, PONTOS_BASE_TOTAL);
+        long dobroDoResto = 2 * Math.floorMod(produto, PONTOS_BASE_TOTAL);
+
+        if (dobroDoResto > PONTOS_BASE_TOTAL || (dobroDoResto == PONTOS_BASE_TOTAL && (quociente & 1) == 1)) {
+            quociente++;
+        }
+
+        return quociente;
+    }
+}
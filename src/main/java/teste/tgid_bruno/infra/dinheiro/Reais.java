@@ -0,0 +1,23 @@
+package teste.tgid_bruno.infra.dinheiro;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import com.fasterxml.jackson.annotation.JacksonAnnotationsInside;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+/**
+ * Campo em centavos que aparece no JSON como número decimal em reais
+ * ({@code 1050} <-> {@code 10.50}). A API continua recebendo e devolvendo
+ * reais; só a representação interna muda.
+ */
+@JacksonAnnotationsInside
+@JsonSerialize(using = ReaisSerializer.class)
+@JsonDeserialize(using = ReaisDeserializer.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.FIELD, ElementType.METHOD, ElementType.PARAMETER })
+public @interface Reais {
+}
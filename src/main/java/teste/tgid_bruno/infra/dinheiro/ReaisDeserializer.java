@@ -0,0 +1,39 @@
+package teste.tgid_bruno.infra.dinheiro;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+
+/**
+ * Lê o número decimal direto do texto do JSON, sem passar por {@code double}.
+ * Frações de centavo são recusadas em vez de arredondadas.
+ */
+public class ReaisDeserializer extends StdDeserializer<Long> {
+
+    public ReaisDeserializer() {
+        super(Long.class);
+    }
+
+    @Override
+    public Long deserialize(JsonParser parser, DeserializationContext contexto) throws IOException {
+        if (!parser.currentToken().isNumeric()) {
+            return (Long) contexto.handleUnexpectedToken(Long.class, parser);
+        }
+
+        try {
+            return Dinheiro.centavos(parser.getDecimalValue());
+        } catch (ArithmeticException e) {
+            throw InvalidFormatException.from(parser, "Valor em reais com mais de duas casas decimais",
+                    parser.getText(), Long.class);
+        }
+    }
+
+    // Ausente ou null vira zero, recusado pelo @Positive dos DTOs
+    @Override
+    public Long getNullValue(DeserializationContext contexto) {
+        return 0L;
+    }
+}
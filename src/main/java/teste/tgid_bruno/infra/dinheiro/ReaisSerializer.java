@@ -0,0 +1,19 @@
+package teste.tgid_bruno.infra.dinheiro;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+public class ReaisSerializer extends StdSerializer<Long> {
+
+    public ReaisSerializer() {
+        super(Long.class);
+    }
+
+    @Override
+    public void serialize(Long centavos, JsonGenerator gerador, SerializerProvider provider) throws IOException {
+        gerador.writeNumber(Dinheiro.reais(centavos));
+    }
+}
@@ -0,0 +1,20 @@
+package teste.tgid_bruno.infra.dinheiro;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import com.fasterxml.jackson.annotation.JacksonAnnotationsInside;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+/**
+ * Taxa em pontos-base que aparece no JSON como fração decimal
+ * ({@code 500} -> {@code 0.05}).
+ */
+@JacksonAnnotationsInside
+@JsonSerialize(using = TaxaPontosBaseSerializer.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.FIELD, ElementType.METHOD, ElementType.PARAMETER })
+public @interface TaxaPontosBase {
+}
@@ -0,0 +1,20 @@
+package teste.tgid_bruno.infra.dinheiro;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+public class TaxaPontosBaseSerializer extends StdSerializer<Integer> {
+
+    public TaxaPontosBaseSerializer() {
+        super(Integer.class);
+    }
+
+    @Override
+    public void serialize(Integer pontosBase, JsonGenerator gerador, SerializerProvider provider)
+            throws IOException {
+        gerador.writeNumber(Dinheiro.fracao(pontosBase));
+    }
+}
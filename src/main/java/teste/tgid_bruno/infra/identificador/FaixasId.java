@@ -0,0 +1,54 @@
+package teste.tgid_bruno.infra.identificador;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Divide o espaço de ids em faixas contíguas {@code [inicio, fim)} para
+ * percorrer uma tabela em partes independentes pela chave primária (lotes
+ * paralelos).
+ */
+public final class FaixasId {
+
+    public static final String ID_MINIMO = "00000000-0000-0000-0000-000000000000";
+    public static final String ID_MAXIMO = "ffffffff-ffff-ffff-ffff-ffffffffffff";
+
+    private FaixasId() {
+    }
+
+    /**
+     * Limites das faixas de ids: divide o intervalo dos 64 bits mais altos entre o
+     * primeiro e o último id em partes iguais. Em UUID v7 esses bits começam pelo
+     * instante de criação, então cada faixa reúne as empresas de um período. A
+     * primeira faixa começa no menor UUID e a última termina no maior, cobrindo
+     * também ids criados depois do planejamento.
+     */
+    public static List<String> limites(UUID primeiro, UUID ultimo, int particoes) {
+        BigInteger inicio = semSinal(primeiro.getMostSignificantBits());
+        BigInteger amplitude = semSinal(ultimo.getMostSignificantBits()).subtract(inicio).add(BigInteger.ONE);
+
+        List<String> limites = new ArrayList<>();
+        limites.add(ID_MINIMO);
+
+        BigInteger anterior = inicio;
+        for (int k = 1; k < particoes; k++) {
+            BigInteger limite = inicio.add(amplitude.multiply(BigInteger.valueOf(k))
+                    .divide(BigInteger.valueOf(particoes)));
+
+            // Intervalos menores que a quantidade de partições gerariam faixas vazias
+            if (limite.compareTo(anterior) > 0) {
+                limites.add(new UUID(limite.longValue(), 0).toString());
+                anterior = limite;
+            }
+        }
+
+        limites.add(ID_MAXIMO);
+        return limites;
+    }
+
+    private static BigInteger semSinal(long bits) {
+        return new BigInteger(Long.toUnsignedString(bits));
+    }
+}
@@ -0,0 +1,21 @@
+package teste.tgid_bruno.infra.identificador;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.hibernate.annotations.IdGeneratorType;
+import org.hibernate.annotations.JavaType;
+
+/**
+ * Chave primária textual gravada como UUID binário (16 bytes) e gerada por
+ * {@link UuidV7} no insert. Substitui {@code @GeneratedValue} no campo
+ * {@code @Id}.
+ */
+@IdGeneratorType(UuidV7Generator.class)
+@JavaType(UuidTextoJavaType.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.FIELD, ElementType.METHOD })
+public @interface IdUuidV7 {
+}
@@ -0,0 +1,54 @@
+package teste.tgid_bruno.infra.identificador;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+import org.hibernate.type.SqlTypes;
+import org.hibernate.type.descriptor.WrapperOptions;
+import org.hibernate.type.descriptor.java.StringJavaType;
+import org.hibernate.type.descriptor.jdbc.JdbcType;
+import org.hibernate.type.descriptor.jdbc.JdbcTypeIndicators;
+
+/**
+ * Mantém o id como {@code String} no Java (e portanto na API REST), mas grava
+ * no tipo UUID do banco: {@code uuid} no H2 e no PostgreSQL, {@code binary(16)}
+ * nos bancos sem tipo próprio. As chaves estrangeiras herdam o mesmo tipo.
+ */
+public class UuidTextoJavaType extends StringJavaType {
+
+    @Override
+    public JdbcType getRecommendedJdbcType(JdbcTypeIndicators indicators) {
+        return indicators.getJdbcType(SqlTypes.UUID);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <X> X unwrap(String value, Class<X> type, WrapperOptions options) {
+        if (value == null) {
+            return null;
+        }
+        if (UUID.class.isAssignableFrom(type)) {
+            return (X) UUID.fromString(value);
+        }
+        if (byte[].class.isAssignableFrom(type)) {
+            UUID uuid = UUID.fromString(value);
+            return (X) ByteBuffer.allocate(16)
+                    .putLong(uuid.getMostSignificantBits())
+                    .putLong(uuid.getLeastSignificantBits())
+                    .array();
+        }
+        return super.unwrap(value, type, options);
+    }
+
+    @Override
+    public <X> String wrap(X value, WrapperOptions options) {
+        if (value instanceof UUID uuid) {
+            return uuid.toString();
+        }
+        if (value instanceof byte[] bytes && bytes.length == 16) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            return new UUID(buffer.getLong(), buffer.getLong()).toString();
+        }
+        return super.wrap(value, options);
+    }
+}
@@ -0,0 +1,53 @@
+package teste.tgid_bruno.infra.identificador;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gera UUIDs versão 7 (RFC 9562): os 48 bits mais altos são o instante em
+ * milissegundos, então ids gerados em sequência ficam em ordem crescente e os
+ * inserts vão sempre para o fim do índice da chave primária.
+ *
+ * <p>
+ * Dentro do mesmo milissegundo os 12 bits seguintes funcionam como contador,
+ * mantendo a ordem também entre ids gerados no mesmo instante; o restante é
+ * aleatório.
+ */
+public final class UuidV7 {
+
+    private static final SecureRandom ALEATORIO = new SecureRandom();
+
+    // instante (48 bits) e contador (12 bits) do último id gerado
+    private static final AtomicLong ULTIMO = new AtomicLong();
+
+    private UuidV7() {
+    }
+
+    public static UUID gerar() {
+        long agora = System.currentTimeMillis() << 12;
+        long atual = ULTIMO.updateAndGet(anterior -> Math.max(anterior + 1, agora));
+
+        long maisSignificativos = (atual >>> 12) << 16 | 0x7000L | (atual & 0xFFFL);
+        long menosSignificativos = ALEATORIO.nextLong() & 0x3FFFFFFFFFFFFFFFL | 0x8000000000000000L;
+
+        return new UUID(maisSignificativos, menosSignificativos);
+    }
+
+    /**
+     * Indica se o texto é um UUID no formato canônico (36 caracteres), de
+     * qualquer versão; ids gravados antes da migração continuam válidos.
+     */
+    public static boolean valido(String texto) {
+        if (texto == null || texto.length() != 36) {
+            return false;
+        }
+
+        try {
+            UUID.fromString(texto);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
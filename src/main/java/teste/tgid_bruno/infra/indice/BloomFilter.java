@@ -0,0 +1,119 @@
+package teste.tgid_bruno.infra.indice;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Filtro de Bloom para textos, seguro para uso concorrente.
+ *
+ * <p>
+ * {@link #possivelmenteContem} nunca responde {@code false} para um valor
+ * adicionado; um {@code true} pode ser falso positivo, com probabilidade
+ * próxima da taxa configurada enquanto a capacidade não for ultrapassada.
+ */
+public class BloomFilter {
+
+    private static final double LN2 = Math.log(2);
+
+    private final AtomicLongArray bits;
+    private final long tamanhoEmBits;
+    private final int numeroHashes;
+    private final LongAdder elementos = new LongAdder();
+
+    public BloomFilter(long capacidade, double taxaFalsoPositivo) {
+        if (capacidade <= 0) {
+            throw new IllegalArgumentException("A capacidade do filtro deve ser positiva");
+        }
+        if (taxaFalsoPositivo <= 0 || taxaFalsoPositivo >= 1) {
+            throw new IllegalArgumentException("A taxa de falso positivo deve estar entre 0 e 1");
+        }
+
+        long bitsNecessarios = (long) Math.ceil(-capacidade * Math.log(taxaFalsoPositivo) / (LN2 * LN2));
+        int palavras = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (bitsNecessarios + 63) / 64));
+
+        this.bits = new AtomicLongArray(palavras);
+        this.tamanhoEmBits = palavras * 64L;
+        this.numeroHashes = Math.max(1, (int) Math.round((double) tamanhoEmBits / capacidade * LN2));
+    }
+
+    /**
+     * Adiciona o valor ao filtro. Retorna {@code true} se algum bit mudou, ou
+     * seja, se o valor certamente ainda não estava presente.
+     */
+    public boolean adicionar(CharSequence valor) {
+        long h1 = hash(valor);
+        long h2 = misturar(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+
+        boolean alterou = false;
+        for (int i = 0; i < numeroHashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, tamanhoEmBits);
+            int palavra = (int) (bit >>> 6);
+            long mascara = 1L << bit;
+
+            if ((bits.get(palavra) & mascara) == 0
+                    && (bits.getAndAccumulate(palavra, mascara, (a, b) -> a | b) & mascara) == 0) {
+                alterou = true;
+            }
+        }
+
+        if (alterou) {
+            elementos.increment();
+        }
+
+        return alterou;
+    }
+
+    public boolean possivelmenteContem(CharSequence valor) {
+        long h1 = hash(valor);
+        long h2 = misturar(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+
+        for (int i = 0; i < numeroHashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, tamanhoEmBits);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Taxa de falso positivo esperada para a quantidade de valores já
+     * adicionados: (1 - e^(-k*n/m))^k.
+     */
+    public double taxaFalsoPositivoEstimada() {
+        double preenchimento = 1 - Math.exp(-(double) numeroHashes * elementos.sum() / tamanhoEmBits);
+
+        return Math.pow(preenchimento, numeroHashes);
+    }
+
+    public long memoriaEmBytes() {
+        return bits.length() * 8L;
+    }
+
+    // Aproximado: um valor novo que colide em todos os bits não é contado
+    public long elementos() {
+        return elementos.sum();
+    }
+
+    // FNV-1a de 64 bits seguido do finalizador do MurmurHash3
+    private static long hash(CharSequence valor) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < valor.length(); i++) {
+            h ^= valor.charAt(i);
+            h *= 0x100000001b3L;
+        }
+
+        return misturar(h);
+    }
+
+    private static long misturar(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+
+        return h;
+    }
+}
@@ -0,0 +1,103 @@
+package teste.tgid_bruno.infra.indice;
+
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import teste.tgid_bruno.domain.repositories.ClienteRepository;
+import teste.tgid_bruno.domain.repositories.EmpresaRepository;
+
+/**
+ * Índice em memória dos CPFs e CNPJs cadastrados, usado para evitar a consulta
+ * ao banco quando o documento certamente ainda não existe.
+ *
+ * <p>
+ * É carregado na subida a partir do banco e recebe cada documento novo antes
+ * da gravação, então nunca dá falso negativo para cadastros feitos por esta
+ * instância. A constraint de unicidade do banco continua sendo a garantia
+ * final.
+ */
+@Slf4j
+@Component
+public class DocumentosCadastrados {
+
+    private final ClienteRepository clienteRepository;
+    private final EmpresaRepository empresaRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final BloomFilter cpfs;
+    private final BloomFilter cnpjs;
+
+    public DocumentosCadastrados(
+            ClienteRepository clienteRepository,
+            EmpresaRepository empresaRepository,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${tgid.documentos.indice.capacidade:1000000}") long capacidade,
+            @Value("${tgid.documentos.indice.taxa-falso-positivo:0.01}") double taxaFalsoPositivo) {
+        this.clienteRepository = clienteRepository;
+        this.empresaRepository = empresaRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+
+        this.cpfs = new BloomFilter(capacidade, taxaFalsoPositivo);
+        this.cnpjs = new BloomFilter(capacidade, taxaFalsoPositivo);
+
+        registrarMetricas(meterRegistry, "cpf", cpfs);
+        registrarMetricas(meterRegistry, "cnpj", cnpjs);
+    }
+
+    @PostConstruct
+    public void carregar() {
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<String> todos = clienteRepository.streamCpfs()) {
+                todos.forEach(cpfs::adicionar);
+            }
+            try (Stream<String> todos = empresaRepository.streamCnpjs()) {
+                todos.forEach(cnpjs::adicionar);
+            }
+        });
+
+        log.info("Índice de documentos carregado: {} CPFs e {} CNPJs em {} KB",
+                cpfs.elementos(), cnpjs.elementos(), (cpfs.memoriaEmBytes() + cnpjs.memoriaEmBytes()) / 1024);
+    }
+
+    public boolean cpfPossivelmenteCadastrado(String cpf) {
+        return cpf != null && cpfs.possivelmenteContem(cpf);
+    }
+
+    public boolean cnpjPossivelmenteCadastrado(String cnpj) {
+        return cnpj != null && cnpjs.possivelmenteContem(cnpj);
+    }
+
+    public void registrarCpf(String cpf) {
+        cpfs.adicionar(cpf);
+    }
+
+    public void registrarCnpj(String cnpj) {
+        cnpjs.adicionar(cnpj);
+    }
+
+    private static void registrarMetricas(MeterRegistry meterRegistry, String tipo, BloomFilter filtro) {
+        Gauge.builder("documentos.indice.falso.positivo", filtro, BloomFilter::taxaFalsoPositivoEstimada)
+                .description("Taxa de falso positivo estimada do índice de documentos")
+                .tag("tipo", tipo)
+                .register(meterRegistry);
+        Gauge.builder("documentos.indice.memoria", filtro, BloomFilter::memoriaEmBytes)
+                .description("Memória ocupada pelo índice de documentos")
+                .baseUnit("bytes")
+                .tag("tipo", tipo)
+                .register(meterRegistry);
+        Gauge.builder("documentos.indice.elementos", filtro, BloomFilter::elementos)
+                .description("Documentos distintos adicionados ao índice")
+                .tag("tipo", tipo)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,23 @@
+package teste.tgid_bruno.infra.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("tgid.ChamadaRepositorio")
+@Label("Chamada de repositório")
+@Category({ "tgid", "Banco" })
+@Description("Método de um repositório Spring Data, incluindo o SQL que ele executa")
+public class ChamadaRepositorioEvent extends Event {
+
+    @Label("Repositório")
+    String repositorio;
+
+    @Label("Método")
+    String metodo;
+
+    @Label("Resultado")
+    String resultado;
+}
@@ -0,0 +1,44 @@
+package teste.tgid_bruno.infra.jfr;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * Envolve as chamadas a um repositório em um {@link ChamadaRepositorioEvent},
+ * com início e fim reais da chamada. Adicionado ao proxy de cada repositório
+ * (ver MetricasConfig).
+ */
+public class EventosRepositorioJfr implements MethodInterceptor {
+
+    private final String repositorio;
+
+    public EventosRepositorioJfr(Class<?> repositorio) {
+        this.repositorio = repositorio.getSimpleName();
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        ChamadaRepositorioEvent evento = new ChamadaRepositorioEvent();
+
+        if (!evento.isEnabled()) {
+            return invocation.proceed();
+        }
+
+        evento.begin();
+        try {
+            Object resultado = invocation.proceed();
+            evento.resultado = "sucesso";
+            return resultado;
+        } catch (Throwable e) {
+            evento.resultado = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            evento.end();
+            if (evento.shouldCommit()) {
+                evento.repositorio = repositorio;
+                evento.metodo = invocation.getMethod().getName();
+                evento.commit();
+            }
+        }
+    }
+}
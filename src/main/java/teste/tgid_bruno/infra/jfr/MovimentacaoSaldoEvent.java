@@ -0,0 +1,69 @@
+package teste.tgid_bruno.infra.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento JFR de um depósito ou saque, do início ao fim de
+ * {@code EmpresaService.credit/debit}. Com o JFR desligado (ou o evento
+ * desabilitado no perfil) o custo é só a criação do objeto, que o JIT costuma
+ * eliminar.
+ */
+@Name("tgid.MovimentacaoSaldo")
+@Label("Movimentação de saldo")
+@Category({ "tgid", "Saldo" })
+@Description("Depósito ou saque em uma empresa")
+@StackTrace(false)
+public class MovimentacaoSaldoEvent extends Event {
+
+    public static final String DEPOSITO = "deposito";
+    public static final String SAQUE = "saque";
+
+    @Label("Operação")
+    String operacao;
+
+    @Label("Empresa")
+    String empresaId;
+
+    @Label("Valor (centavos)")
+    long valor;
+
+    @Label("Taxa (centavos)")
+    long taxa;
+
+    @Label("Saldo final (centavos)")
+    long saldo;
+
+    @Label("Resultado")
+    String resultado = "erro";
+
+    public static MovimentacaoSaldoEvent iniciar(String operacao, String empresaId, long valor) {
+        MovimentacaoSaldoEvent evento = new MovimentacaoSaldoEvent();
+        evento.operacao = operacao;
+        evento.empresaId = empresaId;
+        evento.valor = valor;
+        evento.begin();
+        return evento;
+    }
+
+    public void sucesso(long taxa, long saldo) {
+        this.taxa = taxa;
+        this.saldo = saldo;
+        this.resultado = "sucesso";
+    }
+
+    public void rejeitado(String motivo) {
+        this.resultado = motivo;
+    }
+
+    public void encerrar() {
+        end();
+        if (shouldCommit()) {
+            commit();
+        }
+    }
+}
@@ -0,0 +1,449 @@
+package teste.tgid_bruno.infra.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Journal append-only das operações de saldo, gravado em segmentos mapeados em
+ * memória com registros binários de tamanho fixo.
+ *
+ * <p>
+ * Quem registra uma operação só retorna depois que o registro foi para o
+ * disco. Uma thread dedicada faz o fsync em grupo: todas as operações
+ * escritas desde o último fsync são confirmadas pela mesma chamada.
+ *
+ * <p>
+ * A cada troca de segmento, com tudo o que foi escrito já em disco, um
+ * checkpoint guarda o saldo acumulado de cada empresa e a última sequência
+ * coberta; os segmentos anteriores vão para o subdiretório {@code arquivo},
+ * onde ficam como trilha de auditoria pelo tempo de retenção configurado. Na
+ * abertura o journal parte do checkpoint e reprocessa só o segmento atual.
+ */
+@Slf4j
+@Component
+public class TransacaoJournal {
+
+    public static final int TAMANHO_REGISTRO = 64;
+
+    public static final int CREDITO = 1;
+    public static final int DEBITO = 2;
+
+    private static final String CHECKPOINT = "checkpoint.dat";
+    private static final String ARQUIVO = "arquivo";
+
+    private final boolean enabled;
+    private final Path diretorio;
+    private final int tamanhoSegmento;
+    private final long intervaloGrupoNanos;
+    private final Duration retencao;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition escrito = lock.newCondition();
+    private final Condition gravado = lock.newCondition();
+
+    // Soma das operações até sequenciaEscrita, para o checkpoint
+    private final Map<UUID, Long> saldos = new HashMap<>();
+    private Map<UUID, Long> saldosRecuperados = Map.of();
+
+    private FileChannel canal;
+    private MappedByteBuffer buffer;
+    private int segmento;
+    private long sequenciaEscrita;
+    private long sequenciaGravada;
+    private volatile boolean aberto;
+
+    public TransacaoJournal(
+            @Value("${tgid.journal.enabled:true}") boolean enabled,
+            @Value("${tgid.journal.dir:data/journal}") String diretorio,
+            @Value("${tgid.journal.segment-size:67108864}") int tamanhoSegmento,
+            @Value("${tgid.journal.group-commit-interval-micros:500}") long intervaloGrupoMicros,
+            @Value("${tgid.journal.retencao:0}") Duration retencao) {
+        this.enabled = enabled;
+        this.diretorio = Path.of(diretorio);
+        this.tamanhoSegmento = tamanhoSegmento - (tamanhoSegmento % TAMANHO_REGISTRO);
+        this.intervaloGrupoNanos = TimeUnit.MICROSECONDS.toNanos(intervaloGrupoMicros);
+        this.retencao = retencao;
+    }
+
+    @PostConstruct
+    public void abrir() throws IOException {
+        if (!enabled) {
+            return;
+        }
+
+        Files.createDirectories(diretorio.resolve(ARQUIVO));
+
+        // Parte do checkpoint, reprocessa os segmentos seguintes a ele e continua a
+        // escrita no fim do último
+        int primeiro = 0;
+        long sequenciaCheckpoint = 0;
+
+        Path checkpoint = diretorio.resolve(CHECKPOINT);
+        if (Files.exists(checkpoint)) {
+            ByteBuffer dados = lerCheckpoint(checkpoint);
+            sequenciaCheckpoint = dados.getLong();
+            primeiro = dados.getInt();
+
+            for (int i = dados.getInt(); i > 0; i--) {
+                saldos.put(new UUID(dados.getLong(), dados.getLong()), dados.getLong());
+            }
+        }
+
+        int ultimo = primeiro;
+        while (Files.exists(arquivo(ultimo + 1))) {
+            ultimo++;
+        }
+
+        for (int i = primeiro; i <= ultimo; i++) {
+            mapear(i);
+            reprocessar(sequenciaCheckpoint);
+
+            if (i < ultimo) {
+                canal.close();
+            }
+        }
+
+        // Sobras de uma queda entre a gravação do checkpoint e o arquivamento
+        arquivarSegmentosAnteriores(primeiro);
+
+        sequenciaEscrita = Math.max(sequenciaEscrita, sequenciaCheckpoint);
+        sequenciaGravada = sequenciaEscrita;
+        saldosRecuperados = Map.copyOf(saldos);
+        aberto = true;
+
+        Thread flusher = new Thread(this::gravarEmGrupo, "journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+
+        log.info("Journal aberto em {} com {} registros de {} empresas", diretorio, sequenciaEscrita,
+                saldosRecuperados.size());
+    }
+
+    /**
+     * Operação a registrar. Valor, taxa e saldo em centavos.
+     */
+    public record Registro(int tipo, String empresaId, long valor, long taxa, long saldo) {
+    }
+
+    /**
+     * Acrescenta uma operação ao journal e espera o registro ser gravado em disco.
+     * Valor, taxa e saldo em centavos.
+     */
+    public void registrar(int tipo, String empresaId, long valor, long taxa, long saldo) {
+        registrarTodos(List.of(new Registro(tipo, empresaId, valor, taxa, saldo)));
+    }
+
+    /**
+     * Acrescenta as operações em sequência, sem outras intercaladas, e espera uma
+     * vez só: o fsync que grava a última grava todas. Para lotes, em vez de um
+     * {@link #registrar} (e uma espera pelo disco) por operação.
+     */
+    public void registrarTodos(List<Registro> registros) {
+        if (!enabled || registros.isEmpty()) {
+            return;
+        }
+
+        UUID[] ids = new UUID[registros.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = UUID.fromString(registros.get(i).empresaId());
+        }
+
+        lock.lock();
+        try {
+            if (!aberto) {
+                throw new IllegalStateException("Journal fechado");
+            }
+
+            for (int i = 0; i < ids.length; i++) {
+                if (!buffer.hasRemaining()) {
+                    proximoSegmento();
+                }
+
+                Registro registro = registros.get(i);
+                escrever(++sequenciaEscrita, ids[i], registro.tipo(), registro.valor(), registro.taxa(),
+                        registro.saldo());
+                saldos.merge(ids[i], efeito(registro.tipo(), registro.valor(), registro.taxa()), Long::sum);
+            }
+
+            long ultima = sequenciaEscrita;
+            escrito.signal();
+
+            while (sequenciaGravada < ultima && aberto) {
+                gravado.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Saldos, em centavos, reconstruídos na abertura a partir do checkpoint e da
+     * soma das operações seguintes a ele.
+     */
+    public Map<UUID, Long> saldosRecuperados() {
+        return saldosRecuperados;
+    }
+
+    /**
+     * Deixa de acumular o saldo das empresas informadas (por exemplo, ids que não
+     * existem no banco); o próximo checkpoint já sai sem elas.
+     */
+    public void descartar(Collection<UUID> ids) {
+        lock.lock();
+        try {
+            saldos.keySet().removeAll(ids);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void fechar() throws IOException {
+        if (!aberto) {
+            return;
+        }
+
+        lock.lock();
+        try {
+            aberto = false;
+            buffer.force();
+            sequenciaGravada = sequenciaEscrita;
+            escrito.signal();
+            gravado.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        canal.close();
+    }
+
+    private void gravarEmGrupo() {
+        while (true) {
+            lock.lock();
+            try {
+                while (aberto && sequenciaGravada == sequenciaEscrita) {
+                    escrito.awaitUninterruptibly();
+                }
+
+                if (!aberto) {
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            // Espera um pouco para juntar mais escritas no mesmo fsync
+            LockSupport.parkNanos(intervaloGrupoNanos);
+
+            long alvo;
+            MappedByteBuffer atual;
+
+            lock.lock();
+            try {
+                alvo = sequenciaEscrita;
+                atual = buffer;
+            } finally {
+                lock.unlock();
+            }
+
+            atual.force();
+
+            lock.lock();
+            try {
+                sequenciaGravada = Math.max(sequenciaGravada, alvo);
+                gravado.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void escrever(long sequencia, UUID id, int tipo, long valor, long taxa, long saldo) {
+        int inicio = buffer.position();
+
+        buffer.putLong(sequencia)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits())
+                .putLong(valor)
+                .putLong(taxa)
+                .putLong(saldo)
+                .putLong(System.currentTimeMillis())
+                .putInt(tipo)
+                .putInt(checksum(inicio));
+    }
+
+    // Registros até a sequência do checkpoint já estão nos saldos
+    private void reprocessar(long sequenciaCheckpoint) {
+        while (buffer.hasRemaining()) {
+            int inicio = buffer.position();
+            long sequencia = buffer.getLong(inicio);
+
+            if (sequencia == 0 || buffer.getInt(inicio + 60) != checksum(inicio)) {
+                // Fim do que foi gravado (ou registro incompleto de uma queda)
+                buffer.position(inicio);
+                return;
+            }
+
+            if (sequencia > sequenciaCheckpoint) {
+                UUID id = new UUID(buffer.getLong(inicio + 8), buffer.getLong(inicio + 16));
+                long valor = buffer.getLong(inicio + 24);
+                long taxa = buffer.getLong(inicio + 32);
+                int tipo = buffer.getInt(inicio + 56);
+
+                saldos.merge(id, efeito(tipo, valor, taxa), Long::sum);
+            }
+
+            sequenciaEscrita = sequencia;
+            buffer.position(inicio + TAMANHO_REGISTRO);
+        }
+    }
+
+    private void proximoSegmento() {
+        try {
+            buffer.force();
+            sequenciaGravada = sequenciaEscrita;
+            gravado.signalAll();
+            canal.close();
+
+            mapear(segmento + 1);
+            gravarCheckpoint();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Chamado com o lock e tudo até sequenciaEscrita já em disco: o checkpoint
+    // cobre os segmentos anteriores ao atual, que saem do caminho da abertura
+    private void gravarCheckpoint() throws IOException {
+        ByteBuffer dados = ByteBuffer.allocate(16 + saldos.size() * 24 + 4);
+        dados.putLong(sequenciaEscrita).putInt(segmento).putInt(saldos.size());
+        saldos.forEach((id, saldo) -> dados.putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits())
+                .putLong(saldo));
+
+        CRC32C crc = new CRC32C();
+        crc.update(dados.array(), 0, dados.position());
+        dados.putInt((int) crc.getValue()).flip();
+
+        // Grava ao lado e troca por rename: um checkpoint pela metade nunca
+        // substitui o anterior
+        Path temporario = diretorio.resolve(CHECKPOINT + ".tmp");
+        try (FileChannel arquivo = FileChannel.open(temporario, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (dados.hasRemaining()) {
+                arquivo.write(dados);
+            }
+            arquivo.force(true);
+        }
+
+        Files.move(temporario, diretorio.resolve(CHECKPOINT), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+        forcarDiretorio();
+
+        arquivarSegmentosAnteriores(segmento);
+    }
+
+    private static ByteBuffer lerCheckpoint(Path checkpoint) throws IOException {
+        ByteBuffer dados = ByteBuffer.wrap(Files.readAllBytes(checkpoint));
+        int conteudo = dados.limit() - 4;
+
+        CRC32C crc = new CRC32C();
+        if (conteudo >= 16) {
+            crc.update(dados.array(), 0, conteudo);
+        }
+
+        if (conteudo < 16 || dados.getInt(conteudo) != (int) crc.getValue()) {
+            throw new IOException("Checkpoint do journal corrompido: " + checkpoint);
+        }
+
+        return dados;
+    }
+
+    // O rename só é durável com o fsync do diretório; sem ele, uma queda logo
+    // depois do arquivamento poderia deixar o checkpoint anterior sem os segmentos
+    private void forcarDiretorio() {
+        try (FileChannel dir = FileChannel.open(diretorio, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            // sistemas que não abrem diretório como canal: fica o rename
+        }
+    }
+
+    // Os anteriores já foram arquivados por checkpoints passados: para no
+    // primeiro que não existe
+    private void arquivarSegmentosAnteriores(int atual) throws IOException {
+        for (int i = atual - 1; i >= 0 && Files.exists(arquivo(i)); i--) {
+            Files.move(arquivo(i), diretorio.resolve(ARQUIVO).resolve(arquivo(i).getFileName()),
+                    StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        apagarArquivadosVencidos();
+    }
+
+    // Retenção zero guarda os segmentos arquivados para sempre
+    private void apagarArquivadosVencidos() throws IOException {
+        if (retencao.isZero() || retencao.isNegative()) {
+            return;
+        }
+
+        FileTime limite = FileTime.from(Instant.now().minus(retencao));
+        try (Stream<Path> arquivados = Files.list(diretorio.resolve(ARQUIVO))) {
+            for (Path arquivado : (Iterable<Path>) arquivados::iterator) {
+                if (Files.getLastModifiedTime(arquivado).compareTo(limite) < 0) {
+                    Files.deleteIfExists(arquivado);
+                }
+            }
+        }
+    }
+
+    private static long efeito(int tipo, long valor, long taxa) {
+        return tipo == CREDITO ? valor - taxa : -valor;
+    }
+
+    private void mapear(int numero) throws IOException {
+        canal = FileChannel.open(arquivo(numero), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        buffer = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamanhoSegmento);
+        segmento = numero;
+    }
+
+    private int checksum(int inicio) {
+        CRC32C crc = new CRC32C();
+        ByteBuffer registro = buffer.slice(inicio, TAMANHO_REGISTRO - 4);
+        crc.update(registro);
+
+        return (int) crc.getValue();
+    }
+
+    private Path arquivo(int numero) {
+        return diretorio.resolve(String.format("journal-%06d.log", numero));
+    }
+}
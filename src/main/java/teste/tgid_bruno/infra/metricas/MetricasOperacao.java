@@ -0,0 +1,97 @@
+package teste.tgid_bruno.infra.metricas;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Tempo de cada etapa das operações de saldo e cadastro e contadores de
+ * rejeições. Os medidores são criados uma vez por combinação de tags, então
+ * medir uma etapa custa duas leituras do relógio e um registro no histograma.
+ *
+ * <p>
+ * Os histogramas (buckets para p50/p99/p99.9) são ligados por configuração,
+ * em {@code management.metrics.distribution.*} com o prefixo {@code tgid}.
+ */
+@Component
+public class MetricasOperacao {
+
+    public static final String DEPOSITO = "deposito";
+    public static final String SAQUE = "saque";
+    public static final String NOVO_CLIENTE = "novo_cliente";
+    public static final String LOTE = "lote";
+
+    public static final String VALIDACAO = "validacao";
+    public static final String BUSCA = "busca";
+    public static final String ALTERACAO = "alteracao";
+    public static final String PERSISTENCIA = "persistencia";
+
+    private final MeterRegistry registry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> contadores = new ConcurrentHashMap<>();
+
+    public MetricasOperacao(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public <T> T medir(String operacao, String etapa, Supplier<T> acao) {
+        long inicio = System.nanoTime();
+        try {
+            return acao.get();
+        } finally {
+            timer(operacao, etapa).record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Versão sem boxing para as etapas que devolvem saldo em centavos
+    public long medir(String operacao, String etapa, LongSupplier acao) {
+        long inicio = System.nanoTime();
+        try {
+            return acao.getAsLong();
+        } finally {
+            timer(operacao, etapa).record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void medir(String operacao, String etapa, Runnable acao) {
+        long inicio = System.nanoTime();
+        try {
+            acao.run();
+        } finally {
+            timer(operacao, etapa).record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Requisição recusada antes de alterar qualquer dado (CPF inválido, empresa inexistente...)
+    public void falhaValidacao(String operacao, String motivo) {
+        contador("tgid.validacao.falhas", operacao, motivo).increment();
+    }
+
+    // Operação de saldo recusada pela regra de negócio (SaldoException)
+    public void rejeicao(String operacao, String motivo) {
+        contador("tgid.saldo.rejeicoes", operacao, motivo).increment();
+    }
+
+    private Timer timer(String operacao, String etapa) {
+        return timers.computeIfAbsent(operacao + '/' + etapa, chave -> Timer.builder("tgid.operacao")
+                .description("Tempo de cada etapa das operações")
+                .tag("operacao", operacao)
+                .tag("etapa", etapa)
+                .register(registry));
+    }
+
+    private Counter contador(String nome, String operacao, String motivo) {
+        return contadores.computeIfAbsent(nome + '/' + operacao + '/' + motivo, chave -> Counter.builder(nome)
+                .tag("operacao", operacao)
+                .tag("motivo", motivo)
+                .register(registry));
+    }
+}
@@ -0,0 +1,64 @@
+package teste.tgid_bruno.infra.metricas;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Soma o tempo gasto nos repositórios durante cada requisição e registra o
+ * total em {@code tgid.http.banco}, por rota. As chamadas são recebidas como
+ * listener dos repositórios do Spring Data (ver MetricasConfig); só conta o
+ * que roda na thread da requisição.
+ */
+@Component
+public class TempoBancoPorRequisicao extends OncePerRequestFilter implements RepositoryMethodInvocationListener {
+
+    private static final ThreadLocal<long[]> ACUMULADO = new ThreadLocal<>();
+
+    private final MeterRegistry registry;
+
+    public TempoBancoPorRequisicao(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long[] acumulado = new long[1];
+        ACUMULADO.set(acumulado);
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ACUMULADO.remove();
+
+            Object rota = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            Timer.builder("tgid.http.banco")
+                    .description("Tempo em chamadas aos repositórios por requisição")
+                    .tag("method", request.getMethod())
+                    .tag("uri", rota != null ? rota.toString() : "UNKNOWN")
+                    .register(registry)
+                    .record(acumulado[0], TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void afterInvocation(RepositoryMethodInvocation invocation) {
+        long[] acumulado = ACUMULADO.get();
+
+        if (acumulado != null) {
+            acumulado[0] += invocation.getDuration(TimeUnit.NANOSECONDS);
+        }
+    }
+}
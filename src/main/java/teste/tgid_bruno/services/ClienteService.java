@@ -1,5 +1,6 @@
 package teste.tgid_bruno.services;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import lombok.RequiredArgsConstructor;
@@ -7,7 +8,14 @@ import teste.tgid_bruno.domain.entities.Cliente;
 import teste.tgid_bruno.domain.entities.Empresa;
 import teste.tgid_bruno.domain.repositories.ClienteRepository;
 import teste.tgid_bruno.dtos.ClienteRequestDto;
-
+import teste.tgid_bruno.dtos.ClienteResumoDto;
+import teste.tgid_bruno.dtos.PaginaClientesDto;
+import teste.tgid_bruno.infra.auditoria.AuditoriaLog;
+import teste.tgid_bruno.infra.concorrencia.SingleFlight;
+import teste.tgid_bruno.infra.identificador.UuidV7;
+import teste.tgid_bruno.infra.indice.DocumentosCadastrados;
+
+import java.util.List;
 import java.util.Optional;
 
 @Service
@@ -15,58 +23,74 @@ import java.util.Optional;
 public class ClienteService {
 
     private final ClienteRepository clienteRepository;
+    private final DocumentoValidator documentoValidator;
+    private final DocumentosCadastrados documentosCadastrados;
+    private final AuditoriaLog auditoriaLog;
+    private final SingleFlight<String, Optional<Cliente>> cargasPorCpf;
 
     public boolean validateCpf(String cpf) {
+        return documentoValidator.isCpfValido(cpf);
+    }
 
-        // Remove caracteres não numéricos
-        cpf = cpf.replaceAll("\\D", "");
+    public Cliente newCliente(ClienteRequestDto data, Empresa empresa) {
 
-        // Verifica se o cpf tem 11 dígitos
-        if (cpf.length() != 11) {
-            return false;
-        }
+        Cliente cliente = new Cliente(data.cpf(), data.nome(), empresa);
 
-        // Verifica se todos os dígitos são iguais
-        if (cpf.matches("(\\d)\\1{10}")) {
-            return false;
-        }
+        // Entra no índice antes de gravar, para que um cadastro concorrente do
+        // mesmo CPF não pule a consulta ao banco
+        documentosCadastrados.registrarCpf(data.cpf());
 
-        // Calcula o primeiro dígito verificador
-        int sum = 0;
-        for (int i = 0; i < 9; i++) {
-            sum += (cpf.charAt(i) - '0') * (10 - i);
-        }
-        int firstDigit = 11 - (sum % 11);
-        if (firstDigit >= 10) {
-            firstDigit = 0;
-        }
+        Cliente salvo = clienteRepository.save(cliente);
+        auditoriaLog.registrar(AuditoriaLog.NOVO_CLIENTE, salvo.getId(), empresa.getId(), 0, 0, 0);
+
+        return salvo;
+    }
 
-        // Calcula o segundo dígito verificador
-        sum = 0;
-        for (int i = 0; i < 10; i++) {
-            sum += (cpf.charAt(i) - '0') * (11 - i);
+    public Optional<Cliente> findByCpf(String cpf) {
+        if (!documentosCadastrados.cpfPossivelmenteCadastrado(cpf)) {
+            return Optional.empty();
         }
-        int secondDigit = 11 - (sum % 11);
-        if (secondDigit >= 10) {
-            secondDigit = 0;
+
+        return cargasPorCpf.executar(cpf, () -> clienteRepository.findByCpf(cpf));
+    }
+
+    public Optional<Cliente> findById(String id) {
+        if (!UuidV7.valido(id)) {
+            return Optional.empty();
         }
 
-        // Verifica se os dígitos calculados são iguais aos dígitos do cpf
-        return (firstDigit == (cpf.charAt(9) - '0')) && (secondDigit == (cpf.charAt(10) - '0'));
+        return clienteRepository.findById(id);
     }
 
-    public Cliente newCliente(ClienteRequestDto data, Empresa empresa) {
+    // Revisão atual para o ETag, lida sem carregar o cliente; vazio se ele não existe
+    public Optional<String> revisao(String id) {
+        if (!UuidV7.valido(id)) {
+            return Optional.empty();
+        }
 
-        Cliente cliente = new Cliente(data.cpf(), data.nome(), empresa);
+        return clienteRepository.findVersionById(id).map(Long::toHexString);
+    }
 
-        return clienteRepository.save(cliente);
+    public String revisao(Cliente cliente) {
+        return Long.toHexString(cliente.getVersion());
     }
 
-    public Optional<Cliente> findByCpf(String cpf) {
-        return clienteRepository.findByCpf(cpf);
+    // Busca um item a mais só para saber se existe próxima página
+    public PaginaClientesDto listarPorEmpresa(String empresaId, String depois, int limite) {
+        List<ClienteResumoDto> clientes = depois == null
+                ? clienteRepository.findPrimeiraPagina(empresaId, Limit.of(limite + 1))
+                : clienteRepository.findPaginaApos(empresaId, depois, Limit.of(limite + 1));
+
+        if (clientes.size() <= limite) {
+            return new PaginaClientesDto(clientes, null);
+        }
+
+        List<ClienteResumoDto> pagina = clientes.subList(0, limite);
+        return new PaginaClientesDto(pagina, pagina.get(limite - 1).id());
     }
 
-    public Optional<Cliente> findById(String id) {
-        return clienteRepository.findById(id);
+    // Todos os clientes da empresa de uma vez (expand=clientes), sem carregar entidades
+    public List<ClienteResumoDto> listarTodosPorEmpresa(String empresaId) {
+        return clienteRepository.findResumosPorEmpresa(empresaId);
     }
 }
@@ -0,0 +1,187 @@
+package teste.tgid_bruno.services;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import teste.tgid_bruno.domain.repositories.ClienteRepository;
+import teste.tgid_bruno.domain.repositories.EmpresaRepository;
+import teste.tgid_bruno.dtos.ValidacaoDocumentoDto;
+
+/**
+ * Validação em lote de CPFs e CNPJs recebidos como NDJSON ou CSV.
+ *
+ * <p>
+ * A entrada é lida em blocos de {@code tgid.documentos.tamanho-lote} linhas:
+ * cada bloco é validado em paralelo, consultado no banco com uma query
+ * {@code IN} por tipo de documento e escrito na saída antes de o próximo ser
+ * lido, então a memória usada não depende do tamanho do arquivo.
+ */
+@Service
+public class DocumentoService {
+
+    public enum Formato {
+        NDJSON, CSV
+    }
+
+    public static final String CPF = "CPF";
+    public static final String CNPJ = "CNPJ";
+
+    private final DocumentoValidator documentoValidator;
+    private final ClienteRepository clienteRepository;
+    private final EmpresaRepository empresaRepository;
+    private final ObjectMapper objectMapper;
+    private final int tamanhoLote;
+
+    public DocumentoService(DocumentoValidator documentoValidator, ClienteRepository clienteRepository,
+            EmpresaRepository empresaRepository, ObjectMapper objectMapper,
+            @Value("${tgid.documentos.tamanho-lote:1000}") int tamanhoLote) {
+        this.documentoValidator = documentoValidator;
+        this.clienteRepository = clienteRepository;
+        this.empresaRepository = empresaRepository;
+        this.objectMapper = objectMapper;
+        this.tamanhoLote = tamanhoLote;
+    }
+
+    public void validarLote(InputStream entrada, Formato formato, OutputStream saida) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+
+        List<Linha> lote = new ArrayList<>(tamanhoLote);
+        long numero = 0;
+        String texto;
+
+        while ((texto = reader.readLine()) != null) {
+            numero++;
+
+            if (texto.isBlank()) {
+                continue;
+            }
+
+            lote.add(new Linha(numero, texto));
+
+            if (lote.size() == tamanhoLote) {
+                processar(lote, formato, saida);
+                lote.clear();
+            }
+        }
+
+        if (!lote.isEmpty()) {
+            processar(lote, formato, saida);
+        }
+    }
+
+    private void processar(List<Linha> lote, Formato formato, OutputStream saida) throws IOException {
+        ValidacaoDocumentoDto[] resultados = new ValidacaoDocumentoDto[lote.size()];
+
+        // Validação é só CPU: divide o bloco entre os núcleos disponíveis
+        IntStream.range(0, resultados.length).parallel()
+                .forEach(i -> resultados[i] = avaliar(lote.get(i), formato));
+
+        Set<String> cpfs = new HashSet<>();
+        Set<String> cnpjs = new HashSet<>();
+
+        for (ValidacaoDocumentoDto resultado : resultados) {
+            if (resultado.valido()) {
+                (CPF.equals(resultado.tipo()) ? cpfs : cnpjs).add(resultado.documento());
+            }
+        }
+
+        Set<String> cadastrados = new HashSet<>();
+        if (!cpfs.isEmpty()) {
+            cadastrados.addAll(clienteRepository.findCpfsCadastrados(cpfs));
+        }
+        if (!cnpjs.isEmpty()) {
+            cadastrados.addAll(empresaRepository.findCnpjsCadastrados(cnpjs));
+        }
+
+        for (ValidacaoDocumentoDto resultado : resultados) {
+            if (resultado.valido()) {
+                resultado = new ValidacaoDocumentoDto(resultado.linha(), resultado.documento(), resultado.tipo(),
+                        true, cadastrados.contains(resultado.documento()), null);
+            }
+
+            saida.write(objectMapper.writeValueAsBytes(resultado));
+            saida.write('\n');
+        }
+
+        saida.flush();
+    }
+
+    private ValidacaoDocumentoDto avaliar(Linha linha, Formato formato) {
+        String documento;
+
+        try {
+            documento = formato == Formato.NDJSON ? documentoJson(linha.texto()) : documentoCsv(linha.texto());
+        } catch (JsonProcessingException e) {
+            return new ValidacaoDocumentoDto(linha.numero(), null, null, false, null, "JSON inválido");
+        }
+
+        if (documento == null || documento.isBlank()) {
+            return new ValidacaoDocumentoDto(linha.numero(), documento, null, false, null,
+                    "Informe o documento");
+        }
+
+        int digitos = 0;
+        for (int i = 0; i < documento.length(); i++) {
+            char c = documento.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digitos++;
+            }
+        }
+
+        if (digitos == 11) {
+            return new ValidacaoDocumentoDto(linha.numero(), documento, CPF,
+                    documentoValidator.isCpfValido(documento), null, null);
+        }
+
+        if (digitos == 14) {
+            return new ValidacaoDocumentoDto(linha.numero(), documento, CNPJ,
+                    documentoValidator.isCnpjValido(documento), null, null);
+        }
+
+        return new ValidacaoDocumentoDto(linha.numero(), documento, null, false, null, null);
+    }
+
+    private String documentoJson(String texto) throws JsonProcessingException {
+        JsonNode node = objectMapper.readTree(texto);
+
+        if (node.isTextual()) {
+            return node.asText();
+        }
+
+        return node.path("documento").asText(null);
+    }
+
+    private String documentoCsv(String texto) {
+        int fim = texto.indexOf(',');
+        if (fim < 0) {
+            fim = texto.indexOf(';');
+        }
+
+        String campo = (fim < 0 ? texto : texto.substring(0, fim)).trim();
+
+        if (campo.length() >= 2 && campo.startsWith("\"") && campo.endsWith("\"")) {
+            campo = campo.substring(1, campo.length() - 1);
+        }
+
+        return campo;
+    }
+
+    private record Linha(long numero, String texto) {
+    }
+}
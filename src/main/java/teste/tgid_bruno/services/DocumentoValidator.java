@@ -0,0 +1,122 @@
+package teste.tgid_bruno.services;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Validação de CPF e CNPJ numa única passada pelos caracteres da entrada, sem
+ * regex e sem criar Strings intermediárias. Caracteres que não são dígitos são
+ * ignorados, como máscaras ({@code 123.456.789-09}).
+ */
+@Component
+public class DocumentoValidator {
+
+    public boolean isCpfValido(CharSequence cpf) {
+        if (cpf == null) {
+            return false;
+        }
+
+        int digitos = 0;
+        int primeiro = 0;
+        boolean todosIguais = true;
+        int soma1 = 0;
+        int soma2 = 0;
+        int dv1 = 0;
+        int dv2 = 0;
+
+        for (int i = 0, n = cpf.length(); i < n; i++) {
+            int d = cpf.charAt(i) - '0';
+
+            if (d < 0 || d > 9) {
+                continue;
+            }
+
+            if (digitos == 11) {
+                return false;
+            }
+
+            if (digitos == 0) {
+                primeiro = d;
+            } else if (d != primeiro) {
+                todosIguais = false;
+            }
+
+            // Pesos de 10 a 2 para o primeiro dígito verificador e de 11 a 2 para o segundo
+            if (digitos < 9) {
+                soma1 += d * (10 - digitos);
+            } else if (digitos == 9) {
+                dv1 = d;
+            } else {
+                dv2 = d;
+            }
+
+            if (digitos < 10) {
+                soma2 += d * (11 - digitos);
+            }
+
+            digitos++;
+        }
+
+        if (digitos != 11 || todosIguais) {
+            return false;
+        }
+
+        return dv1 == digitoCpf(soma1) && dv2 == digitoCpf(soma2);
+    }
+
+    public boolean isCnpjValido(CharSequence cnpj) {
+        if (cnpj == null) {
+            return false;
+        }
+
+        int digitos = 0;
+        int soma1 = 0;
+        int soma2 = 0;
+        int dv1 = 0;
+        int dv2 = 0;
+
+        for (int i = 0, n = cnpj.length(); i < n; i++) {
+            int d = cnpj.charAt(i) - '0';
+
+            if (d < 0 || d > 9) {
+                continue;
+            }
+
+            if (digitos == 14) {
+                return false;
+            }
+
+            // Pesos de 2 a 9, repetidos, contados da direita para a esquerda
+            if (digitos < 12) {
+                soma1 += d * (2 + (11 - digitos) % 8);
+            } else if (digitos == 12) {
+                dv1 = d;
+            } else {
+                dv2 = d;
+            }
+
+            if (digitos < 13) {
+                soma2 += d * (2 + (12 - digitos) % 8);
+            }
+
+            digitos++;
+        }
+
+        if (digitos != 14) {
+            return false;
+        }
+
+        return dv1 == digitoCnpj(soma1) && dv2 == digitoCnpj(soma2);
+    }
+
+    private static int digitoCpf(int soma) {
+        int digito = 11 - (soma % 11);
+
+        return digito >= 10 ? 0 : digito;
+    }
+
+    private static int digitoCnpj(int soma) {
+        int resto = soma % 11;
+
+        return resto < 2 ? 0 : 11 - resto;
+    }
+}
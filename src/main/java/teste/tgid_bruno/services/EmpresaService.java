@@ -1,126 +1,446 @@
 package teste.tgid_bruno.services;
 
+import static teste.tgid_bruno.infra.metricas.MetricasOperacao.ALTERACAO;
+import static teste.tgid_bruno.infra.metricas.MetricasOperacao.DEPOSITO;
+import static teste.tgid_bruno.infra.metricas.MetricasOperacao.LOTE;
+import static teste.tgid_bruno.infra.metricas.MetricasOperacao.PERSISTENCIA;
+import static teste.tgid_bruno.infra.metricas.MetricasOperacao.SAQUE;
+
 import lombok.RequiredArgsConstructor;
 
-import org.antlr.v4.runtime.InputMismatchException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import teste.tgid_bruno.domain.entities.Empresa;
+import teste.tgid_bruno.domain.entities.Movimentacao;
 import teste.tgid_bruno.domain.repositories.EmpresaRepository;
 import teste.tgid_bruno.dtos.EmpresaRequestDto;
+import teste.tgid_bruno.dtos.OperacaoLoteDto;
+import teste.tgid_bruno.dtos.ResultadoOperacaoDto;
+import teste.tgid_bruno.dtos.TipoMovimentacao;
+import teste.tgid_bruno.dtos.TipoOperacao;
+import teste.tgid_bruno.infra.auditoria.AuditoriaLog;
+import teste.tgid_bruno.infra.config.CacheConfig;
+import teste.tgid_bruno.infra.dinheiro.Dinheiro;
+import teste.tgid_bruno.infra.concorrencia.SingleFlight;
+import teste.tgid_bruno.infra.identificador.UuidV7;
+import teste.tgid_bruno.infra.indice.DocumentosCadastrados;
 import teste.tgid_bruno.exceptions.SaldoException;
+import teste.tgid_bruno.infra.jfr.MovimentacaoSaldoEvent;
+import teste.tgid_bruno.infra.journal.TransacaoJournal;
+import teste.tgid_bruno.infra.metricas.MetricasOperacao;
+import teste.tgid_bruno.services.liquidacao.ModoLiquidacao;
+import teste.tgid_bruno.services.saldo.SaldoEngine;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
 
 @RequiredArgsConstructor
 @Service
 public class EmpresaService {
 
+    // Em pontos-base: 5%
+    private static final int TAXA_SERVICO_PADRAO = 500;
+
     private final EmpresaRepository empresaRepository;
+    private final SaldoEngine saldoEngine;
+    private final TransacaoJournal transacaoJournal;
+    private final AuditoriaLog auditoriaLog;
+    private final DocumentoValidator documentoValidator;
+    private final CacheManager cacheManager;
+    private final DocumentosCadastrados documentosCadastrados;
+    private final MetricasOperacao metricas;
+    private final MovimentacaoService movimentacaoService;
+    private final SingleFlight<String, Optional<Empresa>> cargasPorId;
+    private final TransactionTemplate transactionTemplate;
 
+    @Value("${tgid.taxa.liquidacao:imediata}")
+    private ModoLiquidacao modoLiquidacao = ModoLiquidacao.IMEDIATA;
+
+    @Cacheable(cacheNames = CacheConfig.EMPRESAS_POR_CNPJ, unless = "#result == null")
+    @Transactional(readOnly = true)
     public Optional<Empresa> findByCnpj(String cnpj) {
+        if (!documentosCadastrados.cnpjPossivelmenteCadastrado(cnpj)) {
+            return Optional.empty();
+        }
+
         return empresaRepository.findByCnpj(cnpj);
     }
 
     public boolean validateCnpj(String cnpj) {
-        // Remove caracteres não numéricos
-        cnpj = cnpj.replaceAll("[^\\d]", "");
+        return documentoValidator.isCnpjValido(cnpj);
+    }
 
-        // Verifica se o CNPJ tem 14 dígitos
-        if (cnpj.length() != 14) {
-            return false;
+    @Caching(put = {
+            @CachePut(cacheNames = CacheConfig.EMPRESAS, key = "#result.id", unless = "#result == null"),
+            @CachePut(cacheNames = CacheConfig.EMPRESAS_POR_CNPJ, key = "#result.cnpj", unless = "#result == null")
+    })
+    public Empresa newEmpresa(EmpresaRequestDto data) {
+        var possibleEmpresa = findByCnpj(data.cnpj());
+
+        if (possibleEmpresa.isPresent()) {
+            return null;
         }
 
-        // Calcula os dígitos verificadores
-        char dig13, dig14;
-        int sm, i, r, num, peso;
+        Empresa novaEmpresa = new Empresa(data.cnpj(), data.nome());
+        novaEmpresa.setSaldo(0);
+        novaEmpresa.setTaxaServico(TAXA_SERVICO_PADRAO);
+
+        documentosCadastrados.registrarCnpj(novaEmpresa.getCnpj());
 
+        Empresa salva = empresaRepository.save(novaEmpresa);
+        auditoriaLog.registrar(AuditoriaLog.NOVA_EMPRESA, salva.getId(), salva.getId(), 0, 0, 0);
+
+        return salva;
+    }
+
+    // Sem transação própria: quem espera a consulta de outra requisição para o
+    // mesmo id não segura uma conexão enquanto isso. O cache guarda a empresa como
+    // veio do banco (só por cima de uma versão mais antiga, ver guardarNoCache); o
+    // saldo do engine é aplicado em toda leitura, inclusive nas que acertam o cache
+    public Optional<Empresa> findById(String id) {
+        // Texto que não é UUID não existe no banco e nem chega a ser convertido
+        if (!UuidV7.valido(id)) {
+            return Optional.empty();
+        }
+
+        Cache porId = cacheManager.getCache(CacheConfig.EMPRESAS);
+        Empresa emCache = porId.get(id, Empresa.class);
+        if (emCache != null) {
+            return Optional.of(comSaldoAtual(emCache));
+        }
+
+        Optional<Empresa> carregada = cargasPorId.executar(id, () -> empresaRepository.findById(id));
+        carregada.ifPresent(this::guardarNoCache);
+
+        return carregada.map(this::comSaldoAtual);
+    }
+
+    /**
+     * Revisão atual para o ETag, lida sem carregar a empresa; vazio se ela não
+     * existe. É a versão gravada e, quando o engine mantém o saldo em memória (à
+     * frente da versão até o próximo flush), também esse saldo.
+     */
+    public Optional<String> revisao(String id) {
+        if (!UuidV7.valido(id)) {
+            return Optional.empty();
+        }
+
+        return empresaRepository.findVersionById(id)
+                .map(version -> revisao(version, saldoEngine.saldoAtual(id)));
+    }
+
+    // Revisão da empresa devolvida por findById, com o saldo que ela já traz
+    public String revisao(Empresa empresa) {
+        OptionalLong emMemoria = saldoEngine.saldoAtual(empresa.getId()).isPresent()
+                ? OptionalLong.of(empresa.getSaldo())
+                : OptionalLong.empty();
+
+        return revisao(empresa.getVersion(), emMemoria);
+    }
+
+    private static String revisao(long version, OptionalLong saldoEmMemoria) {
+        return saldoEmMemoria.isPresent()
+                ? Long.toHexString(version) + "-" + Long.toHexString(saldoEmMemoria.getAsLong())
+                : Long.toHexString(version);
+    }
+
+    // Só confere a existência, sem carregar a empresa e a lista de clientes
+    public boolean existsById(String id) {
+        return UuidV7.valido(id) && empresaRepository.existsById(id);
+    }
+
+    // A instância recebida pode ser a que está no cache, por isso o saldo novo vai
+    // em uma cópia e nunca é escrito sobre a empresa compartilhada. A cópia, com a
+    // versão gravada, atualiza o cache (ver atualizarCache)
+    @CacheEvict(cacheNames = CacheConfig.EMPRESAS_POR_CNPJ, key = "#empresa.cnpj")
+    public Empresa credit(Empresa empresa, long valor) {
+        // Aplica a taxa de administração, quando valor for adicionado; na liquidação
+        // diferida ela só é registrada e o depósito entra bruto
+        long taxa = Dinheiro.taxa(valor, empresa.getTaxaServico());
+        boolean diferida = modoLiquidacao == ModoLiquidacao.DIFERIDA;
+        long taxaDescontada = diferida ? 0 : taxa;
+        long valorLiquido = valor - taxaDescontada;
+
+        MovimentacaoSaldoEvent evento = MovimentacaoSaldoEvent.iniciar(MovimentacaoSaldoEvent.DEPOSITO,
+                empresa.getId(), valor);
         try {
-            // Cálculo do primeiro dígito verificador
-            sm = 0;
-            peso = 2;
-            for (i = 11; i >= 0; i--) {
-                num = (int) (cnpj.charAt(i) - 48);
-                sm = sm + (num * peso);
-                peso = peso + 1;
-                if (peso == 10) {
-                    peso = 2;
-                }
-            }
+            SaldoEngine.Alteracao alteracao = alterarSaldo(DEPOSITO, () -> saldoEngine.credit(empresa, valorLiquido),
+                    (saldo, atomica) -> movimentacaoService.registrar(empresa.getId(), TipoMovimentacao.DEPOSITO,
+                            valor, taxa, diferida, saldo, atomica));
+            long finalValue = alteracao.saldo();
 
-            r = sm % 11;
-            if ((r == 0) || (r == 1)) {
-                dig13 = '0';
-            } else {
-                dig13 = (char) ((11 - r) + 48);
-            }
+            metricas.medir(DEPOSITO, PERSISTENCIA, () -> transacaoJournal.registrar(TransacaoJournal.CREDITO,
+                    empresa.getId(), valor, taxaDescontada, finalValue));
+            auditoriaLog.registrar(AuditoriaLog.CREDITO, empresa.getId(), empresa.getId(), valor, taxaDescontada,
+                    finalValue);
 
-            // Cálculo do segundo dígito verificador
-            sm = 0;
-            peso = 2;
-            for (i = 12; i >= 0; i--) {
-                num = (int) (cnpj.charAt(i) - 48);
-                sm = sm + (num * peso);
-                peso = peso + 1;
-                if (peso == 10) {
-                    peso = 2;
-                }
-            }
+            evento.sucesso(taxaDescontada, finalValue);
+            return atualizarCache(empresa, alteracao);
+        } finally {
+            evento.encerrar();
+        }
+    }
+
+    @CacheEvict(cacheNames = CacheConfig.EMPRESAS_POR_CNPJ, key = "#empresa.cnpj")
+    public Empresa debit(Empresa empresa, long valor) {
+
+        MovimentacaoSaldoEvent evento = MovimentacaoSaldoEvent.iniciar(MovimentacaoSaldoEvent.SAQUE,
+                empresa.getId(), valor);
+        try {
+            SaldoEngine.Alteracao alteracao = alterarSaldo(SAQUE, () -> saldoEngine.debit(empresa, valor),
+                    (saldo, atomica) -> movimentacaoService.registrar(empresa.getId(), TipoMovimentacao.SAQUE, valor,
+                            0, false, saldo, atomica));
+            long finalValue = alteracao.saldo();
+
+            metricas.medir(SAQUE, PERSISTENCIA, () -> transacaoJournal.registrar(TransacaoJournal.DEBITO,
+                    empresa.getId(), valor, 0, finalValue));
+            auditoriaLog.registrar(AuditoriaLog.DEBITO, empresa.getId(), empresa.getId(), valor, 0, finalValue);
+
+            evento.sucesso(0, finalValue);
+            return atualizarCache(empresa, alteracao);
+        } catch (SaldoException e) {
+            metricas.rejeicao(SAQUE, "saldo_insuficiente");
+            evento.rejeitado("saldo_insuficiente");
+            throw e;
+        } finally {
+            evento.encerrar();
+        }
+    }
+
+    public List<ResultadoOperacaoDto> aplicarLote(List<OperacaoLoteDto> operacoes) {
+        List<String> ids = operacoes.stream().map(OperacaoLoteDto::id_empresa).filter(UuidV7::valido).distinct()
+                .toList();
+        boolean diferida = modoLiquidacao == ModoLiquidacao.DIFERIDA;
 
-            r = sm % 11;
-            if ((r == 0) || (r == 1)) {
-                dig14 = '0';
-            } else {
-                dig14 = (char) ((11 - r) + 48);
+        // Com engine transacional as empresas são lidas uma vez só, já bloqueadas, na
+        // transação dos lançamentos e das movimentações; a engine usa essas mesmas
+        // entidades em vez de ler as linhas de novo
+        LoteAplicado lote = saldoEngine.transacional()
+                ? transactionTemplate.execute(
+                        status -> lancar(operacoes, empresaRepository.lockAllById(ids), diferida, true))
+                : lancar(operacoes, empresaRepository.findAllById(ids), diferida, false);
+
+        ResultadoOperacaoDto[] resultados = new ResultadoOperacaoDto[operacoes.size()];
+        List<TransacaoJournal.Registro> registros = new ArrayList<>(lote.lancamentos().size());
+
+        for (int j = 0; j < lote.lancamentos().size(); j++) {
+            int i = lote.indices().get(j);
+            OperacaoLoteDto operacao = operacoes.get(i);
+            long saldo = lote.saldos()[j];
+
+            if (saldo == SaldoEngine.SEM_SALDO) {
+                metricas.rejeicao(LOTE, "saldo_insuficiente");
+                resultados[i] = falha(i, operacao, "Saldo insuficiente para saque! verifique o valor e tente novamente.");
+                continue;
             }
 
-            // Verifica se os dígitos calculados são iguais aos dígitos informados
-            if ((dig13 == cnpj.charAt(12)) && (dig14 == cnpj.charAt(13))) {
-                return true;
-            } else {
-                return false;
+            registros.add(new TransacaoJournal.Registro(
+                    lote.lancamentos().get(j).credito() ? TransacaoJournal.CREDITO : TransacaoJournal.DEBITO,
+                    operacao.id_empresa(), operacao.value(), diferida ? 0 : lote.taxas()[j], saldo));
+            resultados[i] = new ResultadoOperacaoDto(i, operacao.id_empresa(), operacao.tipo(), operacao.value(),
+                    true, saldo, null);
+        }
+
+        // Uma espera pelo disco para o lote inteiro
+        transacaoJournal.registrarTodos(registros);
+        for (TransacaoJournal.Registro registro : registros) {
+            auditoriaLog.registrar(registro.tipo() == TransacaoJournal.CREDITO ? AuditoriaLog.CREDITO
+                    : AuditoriaLog.DEBITO, registro.empresaId(), registro.empresaId(), registro.valor(),
+                    registro.taxa(), registro.saldo());
+        }
+
+        for (int i = 0; i < resultados.length; i++) {
+            if (resultados[i] == null) {
+                resultados[i] = falha(i, operacoes.get(i), "Empresa não encontrada, verifique o ID e tente novamente!");
             }
-        } catch (InputMismatchException erro) {
-            return false;
         }
+
+        // Com engine transacional as entidades saem do commit com o saldo e a versão
+        // gravados; nas demais o banco só é atualizado depois e as entradas saem
+        if (saldoEngine.transacional()) {
+            atualizarCache(lote.empresas());
+        } else {
+            removerDoCache(lote.empresas());
+        }
+
+        return Arrays.asList(resultados);
     }
 
-    public Empresa newEmpresa(EmpresaRequestDto data) {
-        var possibleEmpresa = findByCnpj(data.cnpj());
+    private record LoteAplicado(Collection<Empresa> empresas, List<SaldoEngine.Lancamento> lancamentos,
+            List<Integer> indices, long[] taxas, long[] saldos) {
+    }
 
-        if (possibleEmpresa.isPresent()) {
-            return null;
+    // Monta os lançamentos das operações cujas empresas existem, aplica na engine e
+    // grava as movimentações; com atomica, dentro da transação de quem chama
+    private LoteAplicado lancar(List<OperacaoLoteDto> operacoes, List<Empresa> encontradas, boolean diferida,
+            boolean atomica) {
+        Map<String, Empresa> empresas = new HashMap<>();
+        for (Empresa empresa : encontradas) {
+            empresas.put(empresa.getId(), empresa);
         }
 
-        Empresa novaEmpresa = new Empresa(data.cnpj(), data.nome());
-        novaEmpresa.setSaldo(0.0);
-        novaEmpresa.setTaxaServico(0.05f);
+        List<SaldoEngine.Lancamento> lancamentos = new ArrayList<>();
+        List<Integer> indices = new ArrayList<>();
+        long[] taxas = new long[operacoes.size()];
+
+        for (int i = 0; i < operacoes.size(); i++) {
+            OperacaoLoteDto operacao = operacoes.get(i);
+            Empresa empresa = empresas.get(operacao.id_empresa());
+
+            if (empresa == null) {
+                continue;
+            }
 
-        return empresaRepository.save(novaEmpresa);
+            boolean credito = operacao.tipo() == TipoOperacao.DEPOSITO;
+            // Aplica a taxa de administração, quando valor for adicionado
+            long taxa = credito ? Dinheiro.taxa(operacao.value(), empresa.getTaxaServico()) : 0;
+
+            lancamentos.add(new SaldoEngine.Lancamento(empresa, credito,
+                    diferida ? operacao.value() : operacao.value() - taxa));
+            indices.add(i);
+            taxas[lancamentos.size() - 1] = taxa;
+        }
+
+        long[] saldos = new long[0];
+        if (!lancamentos.isEmpty()) {
+            saldos = saldoEngine.aplicarLote(lancamentos);
+            registrarMovimentacoesDoLote(saldos, lancamentos, operacoes, indices, taxas, diferida, atomica);
+        }
+
+        return new LoteAplicado(empresas.values(), lancamentos, indices, taxas, saldos);
     }
 
-    public Optional<Empresa> findById(String id) {
-        return empresaRepository.findById(id);
+    /**
+     * Aplica a alteração de saldo e grava a movimentação. Com engine transacional
+     * (jpa) as duas gravações são uma transação só: se o INSERT falhar, o saldo
+     * volta. Nas demais o saldo já está aplicado quando a movimentação é gravada,
+     * e ela fica marcada como não atômica.
+     */
+    private SaldoEngine.Alteracao alterarSaldo(String operacao, Supplier<SaldoEngine.Alteracao> alteracao,
+            RegistroMovimentacao movimentacao) {
+        if (!saldoEngine.transacional()) {
+            SaldoEngine.Alteracao feita = metricas.medir(operacao, ALTERACAO, alteracao);
+            metricas.medir(operacao, PERSISTENCIA, () -> movimentacao.registrar(feita.saldo(), false));
+            return feita;
+        }
+
+        Supplier<SaldoEngine.Alteracao> comMovimentacao = () -> transactionTemplate.execute(status -> {
+            SaldoEngine.Alteracao feita = alteracao.get();
+            movimentacao.registrar(feita.saldo(), true);
+            return feita;
+        });
+
+        return metricas.medir(operacao, ALTERACAO, comMovimentacao);
+    }
+
+    @FunctionalInterface
+    private interface RegistroMovimentacao {
+
+        void registrar(long saldo, boolean atomica);
+    }
+
+    private void registrarMovimentacoesDoLote(long[] saldos, List<SaldoEngine.Lancamento> lancamentos,
+            List<OperacaoLoteDto> operacoes, List<Integer> indices, long[] taxas, boolean diferida,
+            boolean atomica) {
+        List<Movimentacao> movimentacoes = new ArrayList<>(lancamentos.size());
+        Instant agora = Instant.now();
+
+        for (int j = 0; j < saldos.length; j++) {
+            if (saldos[j] == SaldoEngine.SEM_SALDO) {
+                continue;
+            }
+
+            OperacaoLoteDto operacao = operacoes.get(indices.get(j));
+            movimentacoes.add(new Movimentacao(operacao.id_empresa(), TipoMovimentacao.de(operacao.tipo()),
+                    operacao.value(), taxas[j], lancamentos.get(j).credito() && diferida, saldos[j], agora,
+                    atomica));
+        }
+
+        if (!movimentacoes.isEmpty()) {
+            movimentacaoService.registrarTodas(movimentacoes);
+        }
+    }
+
+    /**
+     * Para saldos alterados fora de credit/debit com engine transacional: as
+     * empresas, como saíram da transação que gravou, entram no cache pela versão.
+     */
+    public void atualizarCache(Collection<Empresa> empresas) {
+        Cache porCnpj = cacheManager.getCache(CacheConfig.EMPRESAS_POR_CNPJ);
+        for (Empresa empresa : empresas) {
+            guardarNoCache(empresa);
+            porCnpj.evict(empresa.getCnpj());
+        }
     }
 
-    public Empresa credit(Empresa empresa, Double valor) {
-        // Aplica a taxa de administração, quando valor for adicionado
-        Double finalValue = empresa.getSaldo() + (valor - (valor * empresa.getTaxaServico()));
+    // Cópia com o saldo e a versão gravados por credit/debit. Sem versão (engine
+    // que grava no banco depois) a entrada sai e a próxima leitura busca a empresa
+    private Empresa atualizarCache(Empresa empresa, SaldoEngine.Alteracao alteracao) {
+        Empresa alterada = empresa.withSaldo(alteracao.saldo());
+
+        if (alteracao.version() == null) {
+            cacheManager.getCache(CacheConfig.EMPRESAS).evict(empresa.getId());
+        } else {
+            alterada.setVersion(alteracao.version());
+            guardarNoCache(alterada);
+        }
 
-        empresa.setSaldo(finalValue);
+        return alterada;
+    }
 
-        return empresaRepository.save(empresa);
+    // Só substitui a entrada por uma versão mais nova: uma leitura que buscou a
+    // linha antes de uma alteração e termina depois dela não volta o cache para o
+    // saldo anterior
+    private void guardarNoCache(Empresa empresa) {
+        entradasPorId().merge(empresa.getId(), empresa, (atual, nova) -> ((Empresa) atual)
+                .getVersion() >= ((Empresa) nova).getVersion() ? atual : nova);
     }
 
-    public Empresa debit(Empresa empresa, Double valor) {
+    @SuppressWarnings("unchecked")
+    private ConcurrentMap<Object, Object> entradasPorId() {
+        Object nativo = cacheManager.getCache(CacheConfig.EMPRESAS).getNativeCache();
+
+        return nativo instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine
+                ? (ConcurrentMap<Object, Object>) caffeine.asMap()
+                : (ConcurrentMap<Object, Object>) nativo;
+    }
 
-        if (valor > empresa.getSaldo()) {
-            throw new SaldoException();
+    // Para saldos alterados fora de credit/debit
+    public void removerDoCache(Collection<Empresa> empresas) {
+        Cache porId = cacheManager.getCache(CacheConfig.EMPRESAS);
+        Cache porCnpj = cacheManager.getCache(CacheConfig.EMPRESAS_POR_CNPJ);
+        for (Empresa empresa : empresas) {
+            porId.evict(empresa.getId());
+            porCnpj.evict(empresa.getCnpj());
         }
+    }
 
-        Double finalValue = empresa.getSaldo() - valor;
+    private ResultadoOperacaoDto falha(int indice, OperacaoLoteDto operacao, String erro) {
+        return new ResultadoOperacaoDto(indice, operacao.id_empresa(), operacao.tipo(), operacao.value(), false,
+                null, erro);
+    }
 
-        empresa.setSaldo(finalValue);
+    // Engines em memória podem estar à frente do saldo gravado no banco
+    private Empresa comSaldoAtual(Empresa empresa) {
+        OptionalLong saldo = saldoEngine.saldoAtual(empresa.getId());
 
-        return empresaRepository.save(empresa);
+        return saldo.isPresent() ? empresa.withSaldo(saldo.getAsLong()) : empresa;
     }
 }
@@ -0,0 +1,252 @@
+package teste.tgid_bruno.services;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.validation.ValidationException;
+import lombok.extern.slf4j.Slf4j;
+import teste.tgid_bruno.domain.entities.RespostaIdempotente;
+import teste.tgid_bruno.domain.repositories.RespostaIdempotenteRepository;
+import teste.tgid_bruno.exceptions.ChaveIdempotenciaException;
+import teste.tgid_bruno.exceptions.ConflitoSaldoException;
+import teste.tgid_bruno.exceptions.RequisicaoEmAndamentoException;
+import teste.tgid_bruno.exceptions.SaldoException;
+
+/**
+ * Deduplica requisições pelo header {@code Idempotency-Key}: a primeira
+ * execução bem-sucedida de uma chave fica guardada e as repetições recebem a
+ * mesma resposta sem executar a operação de novo.
+ *
+ * <p>
+ * Antes de executar, a chave é reservada no banco com um INSERT que falha se
+ * ela já existe; só quem reserva executa, em qualquer instância. A reserva
+ * recebe a resposta ao final. Só respostas 2xx são guardadas. A reserva só é
+ * apagada, liberando a repetição, quando se sabe que nada foi aplicado: uma
+ * resposta de erro ou uma exceção lançada antes de alterar o saldo (saldo
+ * insuficiente, conflito, empresa inexistente, validação). Qualquer outra
+ * falha (journal fechado, erro de IO depois do commit) ou uma queda no meio da
+ * operação deixa a chave reservada até vencer, porque a operação pode ter sido
+ * aplicada.
+ *
+ * <p>
+ * As respostas concluídas ficam também em memória já serializadas, num cache
+ * limitado pelo tamanho em bytes; quando saem dela (ou vêm de outra instância)
+ * são lidas do banco. As duas cópias vencem após o {@code ttl}.
+ */
+@Slf4j
+@Service
+public class IdempotenciaService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String HEADER_REPETIDA = "Idempotent-Replayed";
+
+    private static final int TAMANHO_MAXIMO_CHAVE = 255;
+
+    private final RespostaIdempotenteRepository respostaIdempotenteRepository;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Cache<String, Registro> registros;
+
+    // corpo nulo marca uma requisição ainda em execução
+    private record Registro(byte[] impressao, int status, byte[] corpo) {
+
+        boolean emAndamento() {
+            return corpo == null;
+        }
+    }
+
+    public IdempotenciaService(RespostaIdempotenteRepository respostaIdempotenteRepository, ObjectMapper objectMapper,
+            @Value("${tgid.idempotencia.ttl:24h}") Duration ttl,
+            @Value("${tgid.idempotencia.memoria-maxima:67108864}") long memoriaMaxima) {
+        this.respostaIdempotenteRepository = respostaIdempotenteRepository;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.registros = Caffeine.newBuilder()
+                .maximumWeight(memoriaMaxima)
+                .weigher((String chave, Registro registro) -> 96 + 2 * chave.length() + registro.corpo().length)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * Executa a ação uma única vez por chave. Sem chave, apenas executa.
+     *
+     * @param operacao   nome da operação, para a mesma chave não valer em outra rota
+     * @param requisicao corpo da requisição; repetir a chave com outro corpo é erro
+     * @throws ChaveIdempotenciaException      chave inválida ou já usada com outra requisição
+     * @throws RequisicaoEmAndamentoException  a primeira requisição com a chave ainda não terminou
+     */
+    public ResponseEntity<?> executar(String chave, String operacao, Object requisicao,
+            Supplier<ResponseEntity<?>> acao) {
+        if (chave == null) {
+            return acao.get();
+        }
+
+        if (chave.isBlank() || chave.length() > TAMANHO_MAXIMO_CHAVE) {
+            throw new ChaveIdempotenciaException();
+        }
+
+        byte[] impressao = impressao(operacao, requisicao);
+
+        // Segunda tentativa só quando a reserva falhou por uma linha vencida que a
+        // limpeza periódica ainda não removeu
+        for (int tentativa = 0;; tentativa++) {
+            Registro existente = buscar(chave);
+            if (existente != null) {
+                return repetir(existente, impressao);
+            }
+
+            if (reservar(chave, impressao)) {
+                break;
+            }
+
+            if (tentativa > 0) {
+                // A linha que impediu a reserva sumiu entre o INSERT e a busca
+                throw new RequisicaoEmAndamentoException();
+            }
+
+            respostaIdempotenteRepository.deleteVencida(chave, Instant.now().minus(ttl));
+        }
+
+        ResponseEntity<?> resposta;
+        try {
+            resposta = acao.get();
+        } catch (RuntimeException e) {
+            if (antesDaAlteracao(e)) {
+                liberar(chave);
+            } else {
+                log.warn("Idempotency-Key {} fica reservada até vencer: a operação falhou e pode ter sido aplicada",
+                        chave);
+            }
+            throw e;
+        }
+
+        if (resposta.getStatusCode().is2xxSuccessful()) {
+            guardar(chave, new Registro(impressao, resposta.getStatusCode().value(), serializar(resposta.getBody())));
+        } else {
+            liberar(chave);
+        }
+
+        return resposta;
+    }
+
+    @Scheduled(fixedDelayString = "${tgid.idempotencia.limpeza-intervalo:600000}")
+    public void removerVencidas() {
+        int removidas = respostaIdempotenteRepository.deleteVencidas(Instant.now().minus(ttl));
+
+        if (removidas > 0) {
+            log.debug("{} respostas idempotentes vencidas removidas", removidas);
+        }
+    }
+
+    private Registro buscar(String chave) {
+        Registro registro = registros.getIfPresent(chave);
+        if (registro != null) {
+            return registro;
+        }
+
+        return respostaIdempotenteRepository.findById(chave)
+                .filter(resposta -> resposta.getCriadoEm().isAfter(Instant.now().minus(ttl)))
+                .map(resposta -> {
+                    Registro lido = new Registro(resposta.getImpressao(), resposta.getStatus(), resposta.getCorpo());
+                    // Reservas em andamento não vão para a memória: a resposta ainda vai mudar
+                    if (!lido.emAndamento()) {
+                        registros.asMap().putIfAbsent(chave, lido);
+                    }
+                    return lido;
+                })
+                .orElse(null);
+    }
+
+    // false quando a chave já tem linha no banco, reservada ou concluída
+    private boolean reservar(String chave, byte[] impressao) {
+        try {
+            respostaIdempotenteRepository.saveAndFlush(new RespostaIdempotente(chave, impressao, 0, null,
+                    Instant.now()));
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    private void guardar(String chave, Registro registro) {
+        // A operação já foi aplicada: mesmo que o banco falhe, a memória evita
+        // que uma repetição nesta instância aplique de novo
+        registros.put(chave, registro);
+
+        try {
+            respostaIdempotenteRepository.concluir(chave, registro.status(), registro.corpo());
+        } catch (RuntimeException e) {
+            log.error("Falha ao gravar a resposta da Idempotency-Key {}; nas outras instâncias ela segue reservada "
+                    + "até vencer", chave, e);
+        }
+    }
+
+    // Falhas que acontecem antes de qualquer alteração: o saldo não mudou (ou a
+    // transação que o mudaria foi desfeita)
+    private static boolean antesDaAlteracao(RuntimeException e) {
+        return e instanceof SaldoException || e instanceof ConflitoSaldoException
+                || e instanceof EntityNotFoundException || e instanceof ValidationException;
+    }
+
+    private void liberar(String chave) {
+        try {
+            respostaIdempotenteRepository.deleteReserva(chave);
+        } catch (RuntimeException e) {
+            log.error("Falha ao liberar a Idempotency-Key {}; ela fica reservada até vencer", chave, e);
+        }
+    }
+
+    private ResponseEntity<?> repetir(Registro registro, byte[] impressao) {
+        if (!MessageDigest.isEqual(registro.impressao(), impressao)) {
+            throw new ChaveIdempotenciaException();
+        }
+
+        if (registro.emAndamento()) {
+            throw new RequisicaoEmAndamentoException();
+        }
+
+        return ResponseEntity.status(registro.status())
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HEADER_REPETIDA, "true")
+                .body(registro.corpo());
+    }
+
+    // A operação entra no hash para a mesma chave não valer em outra rota
+    private byte[] impressao(String operacao, Object requisicao) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            sha256.update(operacao.getBytes(StandardCharsets.UTF_8));
+            sha256.update((byte) 0);
+
+            return sha256.digest(serializar(requisicao));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private byte[] serializar(Object valor) {
+        try {
+            return objectMapper.writeValueAsBytes(valor);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
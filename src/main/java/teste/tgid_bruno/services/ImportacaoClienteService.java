@@ -0,0 +1,283 @@
+package teste.tgid_bruno.services;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import teste.tgid_bruno.domain.entities.Cliente;
+import teste.tgid_bruno.domain.entities.Empresa;
+import teste.tgid_bruno.domain.repositories.ClienteRepository;
+import teste.tgid_bruno.dtos.ImportacaoClienteDto;
+import teste.tgid_bruno.infra.auditoria.AuditoriaLog;
+import teste.tgid_bruno.infra.indice.DocumentosCadastrados;
+import teste.tgid_bruno.services.DocumentoService.Formato;
+
+/**
+ * Importação de clientes de uma empresa a partir de NDJSON
+ * ({@code {"cpf": "...", "nome": "..."}}) ou CSV ({@code cpf,nome}).
+ *
+ * <p>
+ * A entrada é lida em blocos de {@code tgid.clientes.importacao.tamanho-lote}
+ * linhas. Cada bloco é validado em paralelo, tem os CPFs repetidos no próprio
+ * bloco descartados, é conferido no banco com uma única query {@code IN} e
+ * gravado numa transação própria, com os INSERTs agrupados pelo batching JDBC
+ * do Hibernate. Como cada bloco é confirmado antes de o próximo ser lido, a
+ * consulta ao banco também encontra CPFs repetidos de blocos anteriores, e
+ * nada do arquivo fica em memória além do bloco atual.
+ */
+@Slf4j
+@Service
+public class ImportacaoClienteService {
+
+    private final DocumentoValidator documentoValidator;
+    private final DocumentosCadastrados documentosCadastrados;
+    private final ClienteRepository clienteRepository;
+    private final AuditoriaLog auditoriaLog;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int tamanhoLote;
+
+    public ImportacaoClienteService(DocumentoValidator documentoValidator,
+            DocumentosCadastrados documentosCadastrados, ClienteRepository clienteRepository,
+            AuditoriaLog auditoriaLog, EntityManager entityManager, TransactionTemplate transactionTemplate, ObjectMapper objectMapper,
+            @Value("${tgid.clientes.importacao.tamanho-lote:1000}") int tamanhoLote) {
+        this.documentoValidator = documentoValidator;
+        this.documentosCadastrados = documentosCadastrados;
+        this.clienteRepository = clienteRepository;
+        this.auditoriaLog = auditoriaLog;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.tamanhoLote = tamanhoLote;
+    }
+
+    /**
+     * Importa os clientes para a empresa (que já deve existir), escrevendo uma
+     * linha de resultado (NDJSON) por linha não vazia da entrada, na mesma ordem.
+     */
+    public void importar(Empresa empresa, InputStream entrada, Formato formato, OutputStream saida)
+            throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+
+        List<Linha> lote = new ArrayList<>(tamanhoLote);
+        long numero = 0;
+        String texto;
+
+        while ((texto = reader.readLine()) != null) {
+            numero++;
+
+            if (texto.isBlank() || (numero == 1 && formato == Formato.CSV && cabecalho(texto))) {
+                continue;
+            }
+
+            lote.add(new Linha(numero, texto));
+
+            if (lote.size() == tamanhoLote) {
+                processar(empresa, lote, formato, saida);
+                lote.clear();
+            }
+        }
+
+        if (!lote.isEmpty()) {
+            processar(empresa, lote, formato, saida);
+        }
+    }
+
+    private void processar(Empresa empresa, List<Linha> lote, Formato formato, OutputStream saida)
+            throws IOException {
+        ImportacaoClienteDto[] resultados = new ImportacaoClienteDto[lote.size()];
+        Cliente[] clientes = new Cliente[lote.size()];
+
+        // Leitura e validação são só CPU: divide o bloco entre os núcleos disponíveis
+        IntStream.range(0, resultados.length).parallel()
+                .forEach(i -> resultados[i] = avaliar(lote.get(i), formato, clientes, i));
+
+        Set<String> noBloco = new HashSet<>();
+        Set<String> possivelmenteCadastrados = new HashSet<>();
+        for (int i = 0; i < clientes.length; i++) {
+            if (clientes[i] == null) {
+                continue;
+            }
+
+            if (!noBloco.add(clientes[i].getCpf())) {
+                resultados[i] = falha(lote.get(i), clientes[i].getCpf(), "CPF repetido no arquivo");
+                clientes[i] = null;
+            } else if (documentosCadastrados.cpfPossivelmenteCadastrado(clientes[i].getCpf())) {
+                possivelmenteCadastrados.add(clientes[i].getCpf());
+            }
+        }
+
+        // Só os CPFs que o índice não descarta precisam ir ao banco
+        Set<String> cadastrados = possivelmenteCadastrados.isEmpty()
+                ? Set.of()
+                : new HashSet<>(clienteRepository.findCpfsCadastrados(possivelmenteCadastrados));
+
+        List<Cliente> novos = new ArrayList<>();
+        for (int i = 0; i < clientes.length; i++) {
+            if (clientes[i] == null) {
+                continue;
+            }
+
+            if (cadastrados.contains(clientes[i].getCpf())) {
+                resultados[i] = falha(lote.get(i), clientes[i].getCpf(), "CPF já cadastrado");
+                clientes[i] = null;
+            } else {
+                documentosCadastrados.registrarCpf(clientes[i].getCpf());
+                novos.add(clientes[i]);
+            }
+        }
+
+        if (!novos.isEmpty()) {
+            gravar(empresa, novos);
+        }
+
+        for (int i = 0; i < clientes.length; i++) {
+            if (clientes[i] != null) {
+                // Só os que o banco confirmou; os recusados voltam sem id
+                if (clientes[i].getId() != null) {
+                    auditoriaLog.registrar(AuditoriaLog.NOVO_CLIENTE, clientes[i].getId(), empresa.getId(), 0, 0, 0);
+                }
+
+                resultados[i] = clientes[i].getId() != null
+                        ? new ImportacaoClienteDto(lote.get(i).numero(), clientes[i].getCpf(), true,
+                                clientes[i].getId(), null)
+                        : falha(lote.get(i), clientes[i].getCpf(), "CPF já cadastrado");
+            }
+
+            saida.write(objectMapper.writeValueAsBytes(resultados[i]));
+            saida.write('\n');
+        }
+
+        saida.flush();
+    }
+
+    private void gravar(Empresa empresa, List<Cliente> novos) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Empresa referencia = entityManager.getReference(Empresa.class, empresa.getId());
+                novos.forEach(cliente -> cliente.setEmpresa(referencia));
+
+                clienteRepository.saveAll(novos);
+
+                // Envia os INSERTs e solta as entidades: o contexto de persistência
+                // não cresce com o tamanho do arquivo
+                entityManager.flush();
+                entityManager.clear();
+            });
+        } catch (DataIntegrityViolationException | ConstraintViolationException e) {
+            // O flush direto no EntityManager não passa pela tradução de exceções do
+            // Spring: a violação de unicidade chega como exceção do Hibernate.
+            // Outro cadastro gravou algum destes CPFs depois da consulta: grava um a
+            // um para identificar quais linhas falharam
+            log.debug("Bloco de {} clientes rejeitado pelo banco, gravando individualmente", novos.size());
+            novos.forEach(cliente -> gravarIndividual(empresa, cliente));
+        }
+    }
+
+    // A tentativa em bloco deixou id e versão nas entidades, e o save trataria o
+    // cliente como existente (merge de uma cópia, sem o id no original): grava um
+    // cliente novo e passa o id gravado para o do bloco
+    private void gravarIndividual(Empresa empresa, Cliente cliente) {
+        cliente.setId(null);
+        cliente.setVersion(null);
+
+        try {
+            Cliente salvo = transactionTemplate.execute(status -> {
+                Cliente novo = clienteRepository.save(new Cliente(cliente.getCpf(), cliente.getNome(),
+                        entityManager.getReference(Empresa.class, empresa.getId())));
+                entityManager.flush();
+                entityManager.clear();
+                return novo;
+            });
+
+            cliente.setId(salvo.getId());
+            cliente.setVersion(salvo.getVersion());
+        } catch (DataIntegrityViolationException | ConstraintViolationException e) {
+            // recusado: fica sem id
+        }
+    }
+
+    private ImportacaoClienteDto avaliar(Linha linha, Formato formato, Cliente[] clientes, int indice) {
+        String cpf;
+        String nome;
+
+        try {
+            if (formato == Formato.NDJSON) {
+                JsonNode node = objectMapper.readTree(linha.texto());
+                cpf = node.path("cpf").asText(null);
+                nome = node.path("nome").asText(null);
+            } else {
+                String[] campos = camposCsv(linha.texto());
+                cpf = campos[0];
+                nome = campos.length > 1 ? campos[1] : null;
+            }
+        } catch (JsonProcessingException e) {
+            return falha(linha, null, "JSON inválido");
+        }
+
+        if (!documentoValidator.isCpfValido(cpf)) {
+            return falha(linha, cpf, "Informe um CPF válido!");
+        }
+
+        if (nome == null || nome.isBlank()) {
+            return falha(linha, cpf, "Informe o nome do cliente");
+        }
+
+        clientes[indice] = new Cliente(cpf, nome.trim(), null);
+
+        return null;
+    }
+
+    private String[] camposCsv(String texto) {
+        char separador = texto.indexOf(';') >= 0 && texto.indexOf(',') < 0 ? ';' : ',';
+        int fim = texto.indexOf(separador);
+
+        if (fim < 0) {
+            return new String[] { semAspas(texto) };
+        }
+
+        return new String[] { semAspas(texto.substring(0, fim)), semAspas(texto.substring(fim + 1)) };
+    }
+
+    private String semAspas(String campo) {
+        campo = campo.trim();
+
+        if (campo.length() >= 2 && campo.startsWith("\"") && campo.endsWith("\"")) {
+            campo = campo.substring(1, campo.length() - 1);
+        }
+
+        return campo;
+    }
+
+    private boolean cabecalho(String texto) {
+        return semAspas(camposCsv(texto)[0]).equalsIgnoreCase("cpf");
+    }
+
+    private ImportacaoClienteDto falha(Linha linha, String cpf, String erro) {
+        return new ImportacaoClienteDto(linha.numero(), cpf, false, null, erro);
+    }
+
+    private record Linha(long numero, String texto) {
+    }
+}
@@ -0,0 +1,107 @@
+package teste.tgid_bruno.services;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.RequiredArgsConstructor;
+import teste.tgid_bruno.domain.entities.Movimentacao;
+import teste.tgid_bruno.domain.repositories.MovimentacaoRepository;
+import teste.tgid_bruno.dtos.MovimentacaoDto;
+import teste.tgid_bruno.dtos.TipoMovimentacao;
+import teste.tgid_bruno.infra.dinheiro.Dinheiro;
+import teste.tgid_bruno.services.DocumentoService.Formato;
+
+/**
+ * Histórico de depósitos e saques das empresas e exportação do extrato.
+ *
+ * <p>
+ * O extrato é escrito na saída à medida que as linhas chegam do cursor do
+ * banco, sem montar a lista do período, então a memória usada não depende da
+ * quantidade de movimentações.
+ */
+@Service
+@RequiredArgsConstructor
+public class MovimentacaoService {
+
+    private final MovimentacaoRepository movimentacaoRepository;
+    private final ObjectMapper objectMapper;
+
+    // atomica: gravada na mesma transação que alterou o saldo (ver Movimentacao)
+    public void registrar(String empresaId, TipoMovimentacao tipo, long valor, long taxa, boolean taxaDiferida,
+            long saldo, boolean atomica) {
+        movimentacaoRepository.save(
+                new Movimentacao(empresaId, tipo, valor, taxa, taxaDiferida, saldo, Instant.now(), atomica));
+    }
+
+    // Movimentações de um lote: uma transação, INSERTs agrupados pelo batching JDBC
+    public void registrarTodas(List<Movimentacao> movimentacoes) {
+        movimentacaoRepository.saveAll(movimentacoes);
+    }
+
+    /**
+     * Escreve as movimentações da empresa no intervalo {@code [de, ate)}, em
+     * ordem cronológica, como NDJSON ou CSV (com cabeçalho).
+     */
+    @Transactional(readOnly = true)
+    public void exportarExtrato(String empresaId, Instant de, Instant ate, Formato formato, OutputStream saida)
+            throws IOException {
+        try (Stream<MovimentacaoDto> movimentacoes = movimentacaoRepository.streamExtrato(empresaId, de, ate)) {
+            Iterator<MovimentacaoDto> cursor = movimentacoes.iterator();
+
+            if (formato == Formato.CSV) {
+                escreverCsv(cursor, saida);
+            } else {
+                escreverNdjson(cursor, saida);
+            }
+        }
+    }
+
+    private void escreverNdjson(Iterator<MovimentacaoDto> cursor, OutputStream saida) throws IOException {
+        while (cursor.hasNext()) {
+            saida.write(objectMapper.writeValueAsBytes(cursor.next()));
+            saida.write('\n');
+        }
+
+        saida.flush();
+    }
+
+    private void escreverCsv(Iterator<MovimentacaoDto> cursor, OutputStream saida) throws IOException {
+        // Não fecha o writer: a saída pertence a quem chamou
+        Writer writer = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+        writer.write("id,tipo,valor,taxa,taxa_diferida,saldo,data_hora\n");
+
+        while (cursor.hasNext()) {
+            MovimentacaoDto movimentacao = cursor.next();
+
+            writer.write(movimentacao.id());
+            writer.write(',');
+            writer.write(movimentacao.tipo().name());
+            writer.write(',');
+            writer.write(Dinheiro.reais(movimentacao.valor()));
+            writer.write(',');
+            writer.write(Dinheiro.reais(movimentacao.taxa()));
+            writer.write(',');
+            writer.write(Boolean.toString(movimentacao.taxaDiferida()));
+            writer.write(',');
+            writer.write(Dinheiro.reais(movimentacao.saldo()));
+            writer.write(',');
+            writer.write(movimentacao.dataHora().toString());
+            writer.write('\n');
+        }
+
+        writer.flush();
+    }
+}
@@ -0,0 +1,211 @@
+package teste.tgid_bruno.services.conciliacao;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+import teste.tgid_bruno.domain.repositories.EmpresaRepository;
+import teste.tgid_bruno.domain.repositories.EmpresaRepository.IntervaloIds;
+import teste.tgid_bruno.domain.repositories.MovimentacaoRepository;
+import teste.tgid_bruno.domain.repositories.MovimentacaoRepository.SaldoConciliado;
+import teste.tgid_bruno.dtos.DivergenciaSaldoDto;
+import teste.tgid_bruno.dtos.RelatorioConciliacaoDto;
+import teste.tgid_bruno.exceptions.ConciliacaoEmAndamentoException;
+import teste.tgid_bruno.infra.dinheiro.Dinheiro;
+import teste.tgid_bruno.infra.identificador.FaixasId;
+import teste.tgid_bruno.services.saldo.SaldoEngine;
+
+/**
+ * Conciliação sob demanda do saldo das empresas com o histórico de
+ * movimentações.
+ *
+ * <p>
+ * As empresas são divididas em faixas de id, processadas num fork/join: a
+ * tarefa divide a lista de faixas ao meio até sobrar uma, que lê em streaming,
+ * numa transação só de leitura, uma linha por empresa com o saldo e a soma das
+ * suas movimentações (a agregação fica no banco). As movimentações nunca passam
+ * pela memória; o relatório guarda só as primeiras divergências.
+ *
+ * <p>
+ * O saldo comparado é o que a API responde: o da {@link SaldoEngine} quando ela
+ * mantém saldo em memória, o do banco nas demais. Operações em andamento
+ * durante a conciliação podem aparecer como divergências transitórias.
+ */
+@Slf4j
+@Service
+public class ConciliacaoSaldoService {
+
+    private final EmpresaRepository empresaRepository;
+    private final MovimentacaoRepository movimentacaoRepository;
+    private final SaldoEngine saldoEngine;
+    private final TransactionTemplate leitura;
+    private final int particoes;
+    private final int paralelismo;
+    private final int limiteDivergencias;
+
+    private final AtomicBoolean emAndamento = new AtomicBoolean();
+
+    public ConciliacaoSaldoService(EmpresaRepository empresaRepository, MovimentacaoRepository movimentacaoRepository,
+            SaldoEngine saldoEngine, PlatformTransactionManager transactionManager,
+            @Value("${tgid.conciliacao.particoes:64}") int particoes,
+            @Value("${tgid.conciliacao.paralelismo:4}") int paralelismo,
+            @Value("${tgid.conciliacao.limite-divergencias:1000}") int limiteDivergencias) {
+        this.empresaRepository = empresaRepository;
+        this.movimentacaoRepository = movimentacaoRepository;
+        this.saldoEngine = saldoEngine;
+        this.leitura = new TransactionTemplate(transactionManager);
+        this.leitura.setReadOnly(true);
+        this.particoes = particoes;
+        this.paralelismo = paralelismo;
+        this.limiteDivergencias = limiteDivergencias;
+    }
+
+    /**
+     * Recalcula o saldo esperado de todas as empresas e compara com o saldo atual.
+     *
+     * @throws ConciliacaoEmAndamentoException se outra conciliação ainda não
+     *                                         terminou
+     */
+    public RelatorioConciliacaoDto conciliar() {
+        if (!emAndamento.compareAndSet(false, true)) {
+            throw new ConciliacaoEmAndamentoException();
+        }
+
+        try {
+            Instant inicio = Instant.now();
+            long nanos = System.nanoTime();
+
+            List<String> limites = planejar();
+            Parcial total = new Parcial();
+
+            if (limites.size() > 1) {
+                // Um pool por execução: as leituras bloqueiam no JDBC e não devem ocupar o
+                // pool comum
+                try (ForkJoinPool pool = new ForkJoinPool(paralelismo)) {
+                    total = pool.invoke(new ConciliacaoTarefa(limites, 0, limites.size() - 1));
+                }
+            }
+
+            long duracaoMs = (System.nanoTime() - nanos) / 1_000_000;
+
+            log.info("Conciliação de saldos: {} empresas e {} movimentações em {} ms ({} movimentações/s), "
+                    + "{} divergentes (R$ {})", total.empresas, total.movimentacoes, duracaoMs,
+                    total.movimentacoes * 1000 / Math.max(1, duracaoMs), total.divergentes,
+                    Dinheiro.reais(total.diferencaTotal));
+
+            return new RelatorioConciliacaoDto(inicio, duracaoMs, Math.max(0, limites.size() - 1), total.empresas,
+                    total.movimentacoes, total.divergentes, total.diferencaTotal, total.divergencias,
+                    total.divergentes > total.divergencias.size());
+        } finally {
+            emAndamento.set(false);
+        }
+    }
+
+    private List<String> planejar() {
+        IntervaloIds intervalo = empresaRepository.findIntervaloIds();
+
+        if (intervalo == null || intervalo.getPrimeiro() == null) {
+            return List.of();
+        }
+
+        return FaixasId.limites(UUID.fromString(intervalo.getPrimeiro()), UUID.fromString(intervalo.getUltimo()),
+                particoes);
+    }
+
+    // Faixas [limites[de], limites[ate]); cada folha concilia uma faixa
+    private class ConciliacaoTarefa extends RecursiveTask<Parcial> {
+
+        private final List<String> limites;
+        private final int de;
+        private final int ate;
+
+        ConciliacaoTarefa(List<String> limites, int de, int ate) {
+            this.limites = limites;
+            this.de = de;
+            this.ate = ate;
+        }
+
+        @Override
+        protected Parcial compute() {
+            if (ate - de == 1) {
+                return conciliarFaixa(limites.get(de), limites.get(ate));
+            }
+
+            int meio = (de + ate) >>> 1;
+            ConciliacaoTarefa esquerda = new ConciliacaoTarefa(limites, de, meio);
+            esquerda.fork();
+            Parcial direita = new ConciliacaoTarefa(limites, meio, ate).compute();
+
+            // Esquerda primeiro: as divergências ficam em ordem de id
+            return esquerda.join().somar(direita, limiteDivergencias);
+        }
+    }
+
+    private Parcial conciliarFaixa(String inicio, String fim) {
+        return leitura.execute(status -> {
+            Parcial parcial = new Parcial();
+
+            try (Stream<SaldoConciliado> saldos = movimentacaoRepository.streamConciliacao(inicio, fim)) {
+                saldos.forEach(linha -> parcial.registrar(linha, saldoAtual(linha), limiteDivergencias));
+            }
+
+            return parcial;
+        });
+    }
+
+    private long saldoAtual(SaldoConciliado linha) {
+        return saldoEngine.saldoAtual(linha.getEmpresaId()).orElse(linha.getSaldo());
+    }
+
+    private static class Parcial {
+
+        long empresas;
+        long movimentacoes;
+        long divergentes;
+        long diferencaTotal;
+        List<DivergenciaSaldoDto> divergencias = new ArrayList<>();
+
+        void registrar(SaldoConciliado linha, long saldo, int limite) {
+            empresas++;
+            movimentacoes += linha.getMovimentacoes();
+
+            long diferenca = saldo - linha.getSaldoEsperado();
+            if (diferenca == 0) {
+                return;
+            }
+
+            divergentes++;
+            diferencaTotal += diferenca;
+            if (divergencias.size() < limite) {
+                divergencias.add(new DivergenciaSaldoDto(linha.getEmpresaId(), saldo, linha.getSaldoEsperado(),
+                        diferenca, linha.getMovimentacoes()));
+            }
+        }
+
+        Parcial somar(Parcial outra, int limite) {
+            empresas += outra.empresas;
+            movimentacoes += outra.movimentacoes;
+            divergentes += outra.divergentes;
+            diferencaTotal += outra.diferencaTotal;
+
+            for (DivergenciaSaldoDto divergencia : outra.divergencias) {
+                if (divergencias.size() >= limite) {
+                    break;
+                }
+                divergencias.add(divergencia);
+            }
+            return this;
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package teste.tgid_bruno.services.liquidacao;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+import teste.tgid_bruno.domain.entities.Empresa;
+import teste.tgid_bruno.domain.entities.LiquidacaoParticao;
+import teste.tgid_bruno.domain.entities.Movimentacao;
+import teste.tgid_bruno.domain.repositories.EmpresaRepository;
+import teste.tgid_bruno.domain.repositories.EmpresaRepository.IntervaloIds;
+import teste.tgid_bruno.domain.repositories.LiquidacaoParticaoRepository;
+import teste.tgid_bruno.domain.repositories.MovimentacaoRepository;
+import teste.tgid_bruno.domain.repositories.MovimentacaoRepository.TaxaPendente;
+import teste.tgid_bruno.dtos.TipoMovimentacao;
+import teste.tgid_bruno.infra.dinheiro.Dinheiro;
+import teste.tgid_bruno.infra.identificador.FaixasId;
+import teste.tgid_bruno.infra.journal.TransacaoJournal;
+import teste.tgid_bruno.services.EmpresaService;
+import teste.tgid_bruno.services.MovimentacaoService;
+import teste.tgid_bruno.services.saldo.SaldoEngine;
+
+/**
+ * Lote noturno da liquidação diferida: cobra de cada empresa a soma das taxas
+ * dos seus depósitos de um dia (UTC).
+ *
+ * <p>
+ * As empresas são divididas em faixas de id (partições) processadas em
+ * paralelo. Cada partição anda em blocos pela chave primária: soma as taxas do
+ * bloco numa consulta, debita pelo {@link SaldoEngine#aplicarLote} e grava as
+ * movimentações de taxa e o checkpoint da partição na mesma transação. Uma
+ * execução interrompida retoma cada partição depois do último bloco
+ * confirmado, e nenhuma taxa é cobrada duas vezes.
+ *
+ * <p>
+ * Por isso o lote só sobe com engine transacional (jpa): nas demais o débito é
+ * confirmado fora da transação do bloco, e um bloco desfeito depois dele seria
+ * cobrado de novo na retomada.
+ *
+ * <p>
+ * Uma taxa que o saldo não cobre não é cobrada em parte: fica contada como em
+ * aberto no checkpoint e no log da partição.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "tgid.taxa.liquidacao", havingValue = "diferida")
+public class LiquidacaoTaxasService {
+
+    private final EmpresaRepository empresaRepository;
+    private final MovimentacaoRepository movimentacaoRepository;
+    private final LiquidacaoParticaoRepository liquidacaoParticaoRepository;
+    private final SaldoEngine saldoEngine;
+    private final MovimentacaoService movimentacaoService;
+    private final EmpresaService empresaService;
+    private final TransacaoJournal transacaoJournal;
+    private final TransactionTemplate transactionTemplate;
+    private final int particoes;
+    private final int threads;
+    private final int tamanhoBloco;
+
+    public LiquidacaoTaxasService(EmpresaRepository empresaRepository, MovimentacaoRepository movimentacaoRepository,
+            LiquidacaoParticaoRepository liquidacaoParticaoRepository, SaldoEngine saldoEngine,
+            MovimentacaoService movimentacaoService, EmpresaService empresaService,
+            TransacaoJournal transacaoJournal, TransactionTemplate transactionTemplate,
+            @Value("${tgid.taxa.lote.particoes:64}") int particoes,
+            @Value("${tgid.taxa.lote.threads:4}") int threads,
+            @Value("${tgid.taxa.lote.tamanho-bloco:1000}") int tamanhoBloco) {
+        if (!saldoEngine.transacional()) {
+            throw new IllegalStateException("A liquidação diferida (tgid.taxa.liquidacao=diferida) exige a engine "
+                    + "de saldo jpa (tgid.saldo.engine=jpa): com as demais uma retomada cobraria taxas de novo");
+        }
+
+        this.empresaRepository = empresaRepository;
+        this.movimentacaoRepository = movimentacaoRepository;
+        this.liquidacaoParticaoRepository = liquidacaoParticaoRepository;
+        this.saldoEngine = saldoEngine;
+        this.movimentacaoService = movimentacaoService;
+        this.empresaService = empresaService;
+        this.transacaoJournal = transacaoJournal;
+        this.transactionTemplate = transactionTemplate;
+        this.particoes = particoes;
+        this.threads = threads;
+        this.tamanhoBloco = tamanhoBloco;
+    }
+
+    @Scheduled(cron = "${tgid.taxa.lote.cron:0 30 0 * * *}", zone = "UTC")
+    public void liquidarDiaAnterior() {
+        liquidar(LocalDate.now(ZoneOffset.UTC).minusDays(1));
+    }
+
+    /**
+     * Liquida as taxas do dia, continuando as partições de uma execução anterior
+     * que não terminaram.
+     *
+     * @return o checkpoint de cada partição; alguma não concluída indica falha, e
+     *         uma nova chamada continua dela
+     */
+    public List<LiquidacaoParticao> liquidar(LocalDate dia) {
+        Instant de = dia.atStartOfDay(ZoneOffset.UTC).toInstant();
+        Instant ate = dia.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+
+        List<LiquidacaoParticao> pendentes = planejar(dia).stream().filter(p -> !p.isConcluida()).toList();
+
+        if (!pendentes.isEmpty()) {
+            // Mais partições que threads: faixas com mais empresas não seguram o lote,
+            // as threads livres pegam as próximas
+            try (ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, pendentes.size()),
+                    Thread.ofPlatform().name("liquidacao-taxas-", 1).factory())) {
+                for (LiquidacaoParticao particao : pendentes) {
+                    executor.execute(() -> processar(particao, de, ate));
+                }
+            }
+        }
+
+        List<LiquidacaoParticao> resultado = liquidacaoParticaoRepository.findByDiaOrderByParticao(dia);
+        long concluidas = resultado.stream().filter(LiquidacaoParticao::isConcluida).count();
+
+        log.info("Liquidação de taxas de {}: {} de {} partições concluídas, R$ {} cobrados, R$ {} em aberto", dia,
+                concluidas, resultado.size(),
+                Dinheiro.reais(resultado.stream().mapToLong(LiquidacaoParticao::getValorCobrado).sum()),
+                Dinheiro.reais(resultado.stream().mapToLong(LiquidacaoParticao::getValorEmAberto).sum()));
+
+        return resultado;
+    }
+
+    private List<LiquidacaoParticao> planejar(LocalDate dia) {
+        List<LiquidacaoParticao> existentes = liquidacaoParticaoRepository.findByDiaOrderByParticao(dia);
+
+        if (!existentes.isEmpty()) {
+            return existentes;
+        }
+
+        IntervaloIds intervalo = empresaRepository.findIntervaloIds();
+
+        if (intervalo == null || intervalo.getPrimeiro() == null) {
+            return List.of();
+        }
+
+        List<String> limites = FaixasId.limites(UUID.fromString(intervalo.getPrimeiro()),
+                UUID.fromString(intervalo.getUltimo()), particoes);
+
+        List<LiquidacaoParticao> novas = new ArrayList<>();
+        for (int i = 0; i < limites.size() - 1; i++) {
+            novas.add(new LiquidacaoParticao(dia, i, limites.get(i), limites.get(i + 1)));
+        }
+
+        return liquidacaoParticaoRepository.saveAll(novas);
+    }
+
+    private void processar(LiquidacaoParticao particao, Instant de, Instant ate) {
+        LiquidacaoParticao checkpoint = particao;
+
+        try {
+            while (!checkpoint.isConcluida()) {
+                checkpoint = liquidarBloco(checkpoint, de, ate);
+            }
+        } catch (RuntimeException e) {
+            log.error("Liquidação de {} interrompida na partição {} depois do id {}; a próxima execução continua dali",
+                    checkpoint.getDia(), checkpoint.getParticao(), checkpoint.getUltimoId(), e);
+            return;
+        }
+
+        log.info("Liquidação de {}, partição {}: {} empresas em {} ms ({} empresas/s); {} cobradas (R$ {}), "
+                + "{} sem saldo (R$ {} em aberto)", checkpoint.getDia(), checkpoint.getParticao(),
+                checkpoint.getEmpresas(), checkpoint.getDuracaoMs(),
+                checkpoint.getEmpresas() * 1000 / Math.max(1, checkpoint.getDuracaoMs()), checkpoint.getCobradas(),
+                Dinheiro.reais(checkpoint.getValorCobrado()), checkpoint.getSemSaldo(),
+                Dinheiro.reais(checkpoint.getValorEmAberto()));
+    }
+
+    private record Bloco(LiquidacaoParticao checkpoint, List<Movimentacao> cobrancas, List<Empresa> empresas) {
+    }
+
+    private LiquidacaoParticao liquidarBloco(LiquidacaoParticao checkpoint, Instant de, Instant ate) {
+        long inicio = System.nanoTime();
+
+        Bloco bloco = transactionTemplate.execute(status -> {
+            List<String> ids = checkpoint.getUltimoId() == null
+                    ? empresaRepository.findIdsFaixa(checkpoint.getInicio(), checkpoint.getFim(), Limit.of(tamanhoBloco))
+                    : empresaRepository.findIdsFaixaApos(checkpoint.getUltimoId(), checkpoint.getFim(),
+                            Limit.of(tamanhoBloco));
+
+            List<Movimentacao> cobrancas = new ArrayList<>();
+            List<Empresa> empresas = List.of();
+
+            if (ids.isEmpty()) {
+                checkpoint.setConcluida(true);
+            } else {
+                Map<String, Long> taxas = new HashMap<>();
+                for (TaxaPendente pendente : movimentacaoRepository.somarTaxasDiferidas(ids, de, ate)) {
+                    if (pendente.getTaxa() > 0) {
+                        taxas.put(pendente.getEmpresaId(), pendente.getTaxa());
+                    }
+                }
+
+                if (!taxas.isEmpty()) {
+                    empresas = empresaRepository.findAllById(taxas.keySet());
+                    cobrar(empresas, taxas, checkpoint, cobrancas);
+                }
+
+                checkpoint.setEmpresas(checkpoint.getEmpresas() + ids.size());
+                checkpoint.setUltimoId(ids.getLast());
+            }
+
+            checkpoint.setDuracaoMs(checkpoint.getDuracaoMs() + (System.nanoTime() - inicio) / 1_000_000);
+            return new Bloco(liquidacaoParticaoRepository.save(checkpoint), cobrancas, empresas);
+        });
+
+        // Depois do commit: o journal e o cache só recebem cobranças confirmadas. O
+        // bloco inteiro vai ao journal de uma vez, com uma única espera pelo fsync
+        if (!bloco.cobrancas().isEmpty()) {
+            List<TransacaoJournal.Registro> registros = new ArrayList<>(bloco.cobrancas().size());
+            for (Movimentacao cobranca : bloco.cobrancas()) {
+                registros.add(new TransacaoJournal.Registro(TransacaoJournal.DEBITO, cobranca.getEmpresaId(),
+                        cobranca.getValor(), 0, cobranca.getSaldo()));
+            }
+            transacaoJournal.registrarTodos(registros);
+        }
+        empresaService.atualizarCache(bloco.empresas());
+
+        return bloco.checkpoint();
+    }
+
+    private void cobrar(List<Empresa> empresas, Map<String, Long> taxas, LiquidacaoParticao checkpoint,
+            List<Movimentacao> cobrancas) {
+        List<SaldoEngine.Lancamento> lancamentos = new ArrayList<>(empresas.size());
+        for (Empresa empresa : empresas) {
+            lancamentos.add(new SaldoEngine.Lancamento(empresa, false, taxas.get(empresa.getId())));
+        }
+
+        long[] saldos = saldoEngine.aplicarLote(lancamentos);
+        Instant agora = Instant.now();
+
+        for (int i = 0; i < saldos.length; i++) {
+            String empresaId = lancamentos.get(i).empresa().getId();
+            long taxa = lancamentos.get(i).valor();
+
+            if (saldos[i] == SaldoEngine.SEM_SALDO) {
+                checkpoint.setSemSaldo(checkpoint.getSemSaldo() + 1);
+                checkpoint.setValorEmAberto(checkpoint.getValorEmAberto() + taxa);
+                continue;
+            }
+
+            cobrancas.add(new Movimentacao(empresaId, TipoMovimentacao.TAXA, taxa, 0, false, saldos[i], agora));
+            checkpoint.setCobradas(checkpoint.getCobradas() + 1);
+            checkpoint.setValorCobrado(checkpoint.getValorCobrado() + taxa);
+        }
+
+        movimentacaoService.registrarTodas(cobrancas);
+    }
+}
@@ -0,0 +1,15 @@
+package teste.tgid_bruno.services.liquidacao;
+
+/**
+ * Quando a taxa de serviço dos depósitos é cobrada, pela propriedade
+ * {@code tgid.taxa.liquidacao}.
+ */
+public enum ModoLiquidacao {
+
+    // Descontada de cada depósito, antes do crédito
+    IMEDIATA,
+
+    // Depósito creditado bruto; as taxas do dia são cobradas pelo lote noturno
+    // (LiquidacaoTaxasService)
+    DIFERIDA
+}
@@ -0,0 +1,129 @@
+package teste.tgid_bruno.services.saldo;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.LockModeType;
+import lombok.RequiredArgsConstructor;
+import teste.tgid_bruno.domain.entities.Empresa;
+import teste.tgid_bruno.domain.repositories.EmpresaRepository;
+import teste.tgid_bruno.domain.repositories.EmpresaRepository.SaldoEmpresa;
+import teste.tgid_bruno.domain.repositories.EmpresaRepository.SaldoVersionado;
+import teste.tgid_bruno.exceptions.SaldoException;
+
+/**
+ * Engine padrão: cada operação vira um UPDATE atômico no banco.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "tgid.saldo.engine", havingValue = "jpa", matchIfMissing = true)
+public class JpaSaldoEngine implements SaldoEngine {
+
+    private final EmpresaRepository empresaRepository;
+    private final EntityManager entityManager;
+
+    // Os UPDATEs usam a transação aberta por quem chama, quando há uma
+    @Override
+    public boolean transacional() {
+        return true;
+    }
+
+    @Override
+    public Alteracao credit(Empresa empresa, long valor) {
+        // A soma é feita no banco, evitando perder atualizações concorrentes
+        return empresaRepository.creditSaldo(empresa.getId(), valor)
+                .map(JpaSaldoEngine::alteracao)
+                .orElseThrow(EntityNotFoundException::new);
+    }
+
+    @Override
+    public Alteracao debit(Empresa empresa, long valor) {
+        // O banco só subtrai quando o saldo atual cobre o valor do saque
+        return empresaRepository.debitSaldo(empresa.getId(), valor)
+                .map(JpaSaldoEngine::alteracao)
+                .orElseThrow(SaldoException::new);
+    }
+
+    private static Alteracao alteracao(SaldoVersionado gravado) {
+        return new Alteracao(gravado.getSaldo(), gravado.getVersion());
+    }
+
+    /**
+     * Aplica todos os lançamentos em memória sobre as empresas bloqueadas e grava
+     * um UPDATE por empresa, enviados juntos pelo batching JDBC do Hibernate no
+     * commit. Empresas que quem chama já carregou com
+     * {@link EmpresaRepository#lockAllById} na transação são usadas como estão;
+     * as demais são bloqueadas aqui, com uma única query.
+     */
+    @Override
+    @Transactional
+    public long[] aplicarLote(List<Lancamento> lancamentos) {
+        Map<String, Empresa> empresas = new HashMap<>();
+        for (Lancamento lancamento : lancamentos) {
+            empresas.put(lancamento.empresa().getId(), lancamento.empresa());
+        }
+
+        if (!empresas.values().stream().allMatch(this::bloqueada)) {
+            empresas = bloquear(empresas.keySet());
+        }
+
+        long[] resultado = new long[lancamentos.size()];
+
+        for (int i = 0; i < resultado.length; i++) {
+            Lancamento lancamento = lancamentos.get(i);
+            Empresa empresa = empresas.get(lancamento.empresa().getId());
+
+            if (empresa == null) {
+                throw new EntityNotFoundException();
+            }
+
+            long atual = empresa.getSaldo();
+            if (!lancamento.credito() && lancamento.valor() > atual) {
+                resultado[i] = SEM_SALDO;
+                continue;
+            }
+
+            long novo = lancamento.credito() ? atual + lancamento.valor() : atual - lancamento.valor();
+            empresa.setSaldo(novo);
+            resultado[i] = novo;
+        }
+
+        return resultado;
+    }
+
+    private boolean bloqueada(Empresa empresa) {
+        return entityManager.contains(empresa)
+                && entityManager.getLockMode(empresa) == LockModeType.PESSIMISTIC_WRITE;
+    }
+
+    private Map<String, Empresa> bloquear(Collection<String> ids) {
+        TreeSet<String> ordenados = new TreeSet<>(ids);
+
+        Map<String, Long> versoes = new HashMap<>();
+        for (SaldoEmpresa saldo : empresaRepository.lockSaldos(ordenados)) {
+            versoes.put(saldo.getId(), saldo.getVersion());
+        }
+
+        Map<String, Empresa> empresas = new HashMap<>();
+        for (Empresa empresa : empresaRepository.findAllById(ordenados)) {
+            // Dentro de uma transação maior a entidade pode ter sido carregada antes
+            // do lock; o UPDATE confere a versão, então ela precisa ser a lida sob o lock
+            if (!Objects.equals(empresa.getVersion(), versoes.get(empresa.getId()))) {
+                entityManager.refresh(empresa);
+            }
+            empresas.put(empresa.getId(), empresa);
+        }
+
+        return empresas;
+    }
+}
@@ -0,0 +1,191 @@
+package teste.tgid_bruno.services.saldo;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import teste.tgid_bruno.domain.entities.Empresa;
+import teste.tgid_bruno.domain.repositories.EmpresaRepository;
+import teste.tgid_bruno.exceptions.SaldoException;
+import teste.tgid_bruno.infra.journal.TransacaoJournal;
+
+/**
+ * Mantém o saldo de cada empresa em memória e aplica as
+ * operações com CAS numa célula própria por empresa. Os saldos alterados são
+ * gravados no banco em lotes, de forma periódica (write-behind).
+ *
+ * <p>
+ * O banco só é lido na primeira operação de cada empresa; a partir daí a
+ * memória é a fonte da verdade, então este modo supõe uma única instância da
+ * aplicação escrevendo nos saldos. Toda operação confirmada já está no
+ * {@link TransacaoJournal}; na inicialização os saldos reconstruídos a partir
+ * dele substituem os do banco e voltam a ser gravados no próximo flush. Como o
+ * journal soma as operações desde o cadastro, ele precisa ter a mesma vida do
+ * banco: empresas do journal que não existem no banco (o H2 em memória é
+ * recriado a cada inicialização) são ignoradas e descartadas dele.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "tgid.saldo.engine", havingValue = "ledger")
+public class LedgerSaldoEngine implements SaldoEngine {
+
+    private final EmpresaRepository empresaRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransacaoJournal transacaoJournal;
+    private final int flushBatchSize;
+
+    private static final int IDS_POR_CONSULTA = 1000;
+
+    private final Map<String, AtomicLong> saldos = new ConcurrentHashMap<>();
+    private final Set<String> pendentes = ConcurrentHashMap.newKeySet();
+
+    public LedgerSaldoEngine(EmpresaRepository empresaRepository, TransactionTemplate transactionTemplate,
+            TransacaoJournal transacaoJournal,
+            @Value("${tgid.saldo.ledger.flush-batch-size:500}") int flushBatchSize) {
+        this.empresaRepository = empresaRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.transacaoJournal = transacaoJournal;
+        this.flushBatchSize = flushBatchSize;
+    }
+
+    @PostConstruct
+    public void recuperar() {
+        Map<UUID, Long> recuperados = transacaoJournal.saldosRecuperados();
+        Set<String> existentes = idsExistentes(recuperados.keySet());
+        List<UUID> desconhecidas = new ArrayList<>();
+
+        recuperados.forEach((id, centavos) -> {
+            if (!existentes.contains(id.toString())) {
+                desconhecidas.add(id);
+                return;
+            }
+
+            saldos.put(id.toString(), new AtomicLong(centavos));
+            pendentes.add(id.toString());
+        });
+
+        if (!desconhecidas.isEmpty()) {
+            log.warn("Journal com saldo de {} empresas que não existem no banco; ignoradas", desconhecidas.size());
+            transacaoJournal.descartar(desconhecidas);
+        }
+
+        if (!saldos.isEmpty()) {
+            log.info("Ledger recuperou o saldo de {} empresas a partir do journal", saldos.size());
+        }
+    }
+
+    @Override
+    public Alteracao credit(Empresa empresa, long valor) {
+        long novoSaldo = celula(empresa).addAndGet(valor);
+
+        pendentes.add(empresa.getId());
+
+        return new Alteracao(novoSaldo, null);
+    }
+
+    @Override
+    public Alteracao debit(Empresa empresa, long valor) {
+        AtomicLong celula = celula(empresa);
+
+        long atual;
+        do {
+            atual = celula.get();
+
+            if (valor > atual) {
+                throw new SaldoException();
+            }
+        } while (!celula.compareAndSet(atual, atual - valor));
+
+        pendentes.add(empresa.getId());
+
+        return new Alteracao(atual - valor, null);
+    }
+
+    @Override
+    public OptionalLong saldoAtual(String empresaId) {
+        AtomicLong celula = saldos.get(empresaId);
+
+        return celula == null ? OptionalLong.empty() : OptionalLong.of(celula.get());
+    }
+
+    @Scheduled(fixedDelayString = "${tgid.saldo.ledger.flush-interval:200}")
+    public void flush() {
+        if (pendentes.isEmpty()) {
+            return;
+        }
+
+        List<String> lote = new ArrayList<>(flushBatchSize);
+
+        for (String id : pendentes) {
+            // Remove antes de ler: uma operação concorrente marca a empresa de novo
+            pendentes.remove(id);
+            lote.add(id);
+
+            if (lote.size() == flushBatchSize) {
+                gravar(lote);
+                lote = new ArrayList<>(flushBatchSize);
+            }
+        }
+
+        if (!lote.isEmpty()) {
+            gravar(lote);
+        }
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        flush();
+    }
+
+    private void gravar(List<String> ids) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (String id : ids) {
+                    empresaRepository.updateSaldo(id, saldos.get(id).get());
+                }
+            });
+        } catch (RuntimeException e) {
+            log.error("Falha ao gravar {} saldos, nova tentativa no próximo flush", ids.size(), e);
+            pendentes.addAll(ids);
+        }
+    }
+
+    private Set<String> idsExistentes(Set<UUID> ids) {
+        Set<String> existentes = new HashSet<>();
+        List<String> consulta = new ArrayList<>(IDS_POR_CONSULTA);
+
+        for (UUID id : ids) {
+            consulta.add(id.toString());
+
+            if (consulta.size() == IDS_POR_CONSULTA) {
+                existentes.addAll(empresaRepository.findIdsExistentes(consulta));
+                consulta.clear();
+            }
+        }
+
+        if (!consulta.isEmpty()) {
+            existentes.addAll(empresaRepository.findIdsExistentes(consulta));
+        }
+
+        return existentes;
+    }
+
+    private AtomicLong celula(Empresa empresa) {
+        return saldos.computeIfAbsent(empresa.getId(), id -> new AtomicLong(empresa.getSaldo()));
+    }
+}
@@ -0,0 +1,246 @@
+package teste.tgid_bruno.services.saldo;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import teste.tgid_bruno.domain.entities.Empresa;
+import teste.tgid_bruno.domain.repositories.EmpresaRepository;
+import teste.tgid_bruno.exceptions.SaldoException;
+
+/**
+ * Serializa as operações de cada empresa numa fila própria (mailbox). As
+ * empresas são distribuídas por id entre um número fixo de workers, e cada
+ * worker é o único que escreve no saldo das suas empresas.
+ *
+ * <p>
+ * O worker retira da fila tudo o que acumulou, aplica as operações na ordem de
+ * chegada e grava um único update por empresa, numa transação por rodada.
+ * Quem envia a operação recebe um {@link CompletableFuture} concluído só depois
+ * do commit, então uma empresa muito disputada absorve rajadas sem contenção
+ * de lock no banco.
+ *
+ * <p>
+ * Depois do encerramento nenhuma operação fica sem resposta: as novas são
+ * recusadas e as que sobrarem nas filas quando os workers terminarem falham.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "tgid.saldo.engine", havingValue = "mailbox")
+public class MailboxSaldoEngine implements SaldoEngine {
+
+    private final EmpresaRepository empresaRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int tamanhoLote;
+
+    private final List<BlockingQueue<Comando>> filas;
+    private final List<Thread> workers;
+    private volatile boolean rodando;
+    private volatile boolean encerrada;
+
+    private record Comando(String empresaId, boolean credito, long valor, CompletableFuture<Long> resultado) {
+    }
+
+    public MailboxSaldoEngine(EmpresaRepository empresaRepository, TransactionTemplate transactionTemplate,
+            @Value("${tgid.saldo.mailbox.workers:4}") int quantidadeWorkers,
+            @Value("${tgid.saldo.mailbox.capacidade:10000}") int capacidade,
+            @Value("${tgid.saldo.mailbox.tamanho-lote:500}") int tamanhoLote) {
+        this.empresaRepository = empresaRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.tamanhoLote = tamanhoLote;
+
+        this.filas = new ArrayList<>(quantidadeWorkers);
+        this.workers = new ArrayList<>(quantidadeWorkers);
+        for (int i = 0; i < quantidadeWorkers; i++) {
+            BlockingQueue<Comando> fila = new LinkedBlockingQueue<>(capacidade);
+            filas.add(fila);
+            workers.add(new Thread(() -> consumir(fila), "saldo-mailbox-" + i));
+        }
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        rodando = true;
+        workers.forEach(Thread::start);
+    }
+
+    @PreDestroy
+    public void encerrar() throws InterruptedException {
+        encerrada = true;
+
+        // Os workers esvaziam as filas antes de terminar
+        rodando = false;
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        // Enviadas enquanto os workers saíam: ninguém mais vai aplicá-las
+        List<Comando> restantes = new ArrayList<>();
+        for (BlockingQueue<Comando> fila : filas) {
+            fila.drainTo(restantes);
+        }
+        restantes.forEach(MailboxSaldoEngine::recusar);
+    }
+
+    @Override
+    public Alteracao credit(Empresa empresa, long valor) {
+        return new Alteracao(aguardar(enviar(empresa.getId(), true, valor)), null);
+    }
+
+    @Override
+    public Alteracao debit(Empresa empresa, long valor) {
+        return new Alteracao(aguardar(enviar(empresa.getId(), false, valor)), null);
+    }
+
+    @Override
+    public long[] aplicarLote(List<Lancamento> lancamentos) {
+        // Envia tudo antes de esperar, para o lote ser agrupado pelos workers
+        List<CompletableFuture<Long>> resultados = new ArrayList<>(lancamentos.size());
+        for (Lancamento lancamento : lancamentos) {
+            resultados.add(enviar(lancamento.empresa().getId(), lancamento.credito(), lancamento.valor()));
+        }
+
+        long[] saldos = new long[lancamentos.size()];
+        for (int i = 0; i < saldos.length; i++) {
+            try {
+                saldos[i] = aguardar(resultados.get(i));
+            } catch (SaldoException e) {
+                saldos[i] = SEM_SALDO;
+            }
+        }
+
+        return saldos;
+    }
+
+    /**
+     * Coloca a operação na mailbox da empresa. A fila é limitada: quando está
+     * cheia, quem envia espera por espaço, até o encerramento.
+     *
+     * @return o saldo resultante, concluído depois da gravação no banco; com a
+     *         engine encerrada, concluído com {@link IllegalStateException}
+     */
+    public CompletableFuture<Long> enviar(String empresaId, boolean credito, long valor) {
+        Comando comando = new Comando(empresaId, credito, valor, new CompletableFuture<>());
+        BlockingQueue<Comando> fila = filas.get(Math.floorMod(empresaId.hashCode(), filas.size()));
+
+        boolean enfileirado = false;
+        try {
+            while (!enfileirado && !encerrada) {
+                enfileirado = fila.offer(comando, 100, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            comando.resultado().completeExceptionally(e);
+            return comando.resultado();
+        }
+
+        // Entrou na fila junto com o encerramento: se nem um worker nem encerrar()
+        // retirou o comando, ele sai daqui mesmo
+        if (!enfileirado || (encerrada && fila.remove(comando))) {
+            recusar(comando);
+        }
+
+        return comando.resultado();
+    }
+
+    private void consumir(BlockingQueue<Comando> fila) {
+        List<Comando> lote = new ArrayList<>(tamanhoLote);
+
+        while (rodando || !fila.isEmpty()) {
+            try {
+                Comando primeiro = fila.poll(100, TimeUnit.MILLISECONDS);
+                if (primeiro == null) {
+                    continue;
+                }
+
+                lote.add(primeiro);
+                fila.drainTo(lote, tamanhoLote - 1);
+                aplicar(lote);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    private void aplicar(List<Comando> lote) {
+        long[] saldosFinais = new long[lote.size()];
+        RuntimeException[] falhas = new RuntimeException[lote.size()];
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Map<String, Long> saldos = new HashMap<>();
+                for (var saldo : empresaRepository.lockSaldos(
+                        new TreeSet<>(lote.stream().map(Comando::empresaId).toList()))) {
+                    saldos.put(saldo.getId(), saldo.getSaldo());
+                }
+
+                Map<String, Long> alterados = new LinkedHashMap<>();
+                for (int i = 0; i < lote.size(); i++) {
+                    Comando comando = lote.get(i);
+                    Long saldo = saldos.get(comando.empresaId());
+
+                    if (saldo == null) {
+                        falhas[i] = comando.credito() ? new EntityNotFoundException() : new SaldoException();
+                    } else if (!comando.credito() && saldo < comando.valor()) {
+                        falhas[i] = new SaldoException();
+                    } else {
+                        saldo = comando.credito() ? saldo + comando.valor() : saldo - comando.valor();
+                        saldos.put(comando.empresaId(), saldo);
+                        alterados.put(comando.empresaId(), saldo);
+                        saldosFinais[i] = saldo;
+                    }
+                }
+
+                // Várias operações seguidas na mesma empresa viram um único update
+                alterados.forEach(empresaRepository::updateSaldo);
+            });
+        } catch (RuntimeException e) {
+            log.error("Falha ao gravar {} operações de saldo", lote.size(), e);
+            lote.forEach(comando -> comando.resultado().completeExceptionally(e));
+            return;
+        }
+
+        for (int i = 0; i < lote.size(); i++) {
+            if (falhas[i] != null) {
+                lote.get(i).resultado().completeExceptionally(falhas[i]);
+            } else {
+                lote.get(i).resultado().complete(saldosFinais[i]);
+            }
+        }
+    }
+
+    private static void recusar(Comando comando) {
+        comando.resultado().completeExceptionally(new IllegalStateException("Engine de saldo encerrada"));
+    }
+
+    private static long aguardar(CompletableFuture<Long> resultado) {
+        try {
+            return resultado.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+}
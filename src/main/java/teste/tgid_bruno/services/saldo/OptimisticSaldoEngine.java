@@ -0,0 +1,104 @@
+package teste.tgid_bruno.services.saldo;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import teste.tgid_bruno.domain.entities.Empresa;
+import teste.tgid_bruno.domain.repositories.EmpresaRepository;
+import teste.tgid_bruno.domain.repositories.EmpresaRepository.SaldoVersionado;
+import teste.tgid_bruno.exceptions.ConflitoSaldoException;
+import teste.tgid_bruno.exceptions.SaldoException;
+
+/**
+ * Concorrência otimista: lê saldo e versão, calcula o novo saldo e só grava se
+ * a versão não mudou. Em caso de conflito a operação é refeita, até
+ * {@code max-tentativas} vezes, com espera aleatória crescente entre as
+ * tentativas (backoff exponencial com jitter).
+ *
+ * <p>
+ * Conflitos, novas tentativas e operações que esgotaram as tentativas são
+ * contados por empresa ({@code saldo.otimista.*}), para comparar o custo deste
+ * modo com o UPDATE atômico do {@link JpaSaldoEngine}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "tgid.saldo.engine", havingValue = "optimistic")
+public class OptimisticSaldoEngine implements SaldoEngine {
+
+    private final EmpresaRepository empresaRepository;
+    private final MeterRegistry meterRegistry;
+    private final int maxTentativas;
+    private final long backoffInicialMillis;
+    private final long backoffMaximoMillis;
+
+    public OptimisticSaldoEngine(EmpresaRepository empresaRepository, MeterRegistry meterRegistry,
+            @Value("${tgid.saldo.optimistic.max-tentativas:5}") int maxTentativas,
+            @Value("${tgid.saldo.optimistic.backoff-inicial:5}") long backoffInicialMillis,
+            @Value("${tgid.saldo.optimistic.backoff-maximo:100}") long backoffMaximoMillis) {
+        this.empresaRepository = empresaRepository;
+        this.meterRegistry = meterRegistry;
+        this.maxTentativas = maxTentativas;
+        this.backoffInicialMillis = backoffInicialMillis;
+        this.backoffMaximoMillis = backoffMaximoMillis;
+    }
+
+    @Override
+    public Alteracao credit(Empresa empresa, long valor) {
+        return aplicar(empresa.getId(), true, valor);
+    }
+
+    @Override
+    public Alteracao debit(Empresa empresa, long valor) {
+        return aplicar(empresa.getId(), false, valor);
+    }
+
+    private Alteracao aplicar(String empresaId, boolean credito, long valor) {
+        for (int tentativa = 1;; tentativa++) {
+            SaldoVersionado atual = empresaRepository.findSaldoVersionado(empresaId)
+                    .orElseThrow(credito ? EntityNotFoundException::new : SaldoException::new);
+
+            if (!credito && valor > atual.getSaldo()) {
+                throw new SaldoException();
+            }
+
+            long novo = credito ? atual.getSaldo() + valor : atual.getSaldo() - valor;
+
+            if (empresaRepository.updateSaldoSeVersao(empresaId, novo, atual.getVersion()) == 1) {
+                return new Alteracao(novo, atual.getVersion() + 1);
+            }
+
+            meterRegistry.counter("saldo.otimista.conflitos", "empresa", empresaId).increment();
+
+            if (tentativa == maxTentativas) {
+                meterRegistry.counter("saldo.otimista.esgotadas", "empresa", empresaId).increment();
+                log.warn("Operação de saldo na empresa {} desistiu após {} conflitos", empresaId, tentativa);
+                throw new ConflitoSaldoException();
+            }
+
+            meterRegistry.counter("saldo.otimista.retentativas", "empresa", empresaId).increment();
+            esperar(tentativa);
+        }
+    }
+
+    // Full jitter: espera um tempo aleatório entre zero e o teto da tentativa,
+    // para que as operações que colidiram não voltem todas ao mesmo tempo
+    private void esperar(int tentativa) {
+        long teto = Math.min(backoffMaximoMillis, backoffInicialMillis << Math.min(tentativa - 1, 20));
+        if (teto <= 0) {
+            return;
+        }
+
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(teto + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflitoSaldoException();
+        }
+    }
+}
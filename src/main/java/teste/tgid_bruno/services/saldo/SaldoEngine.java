@@ -0,0 +1,89 @@
+package teste.tgid_bruno.services.saldo;
+
+import java.util.List;
+import java.util.OptionalLong;
+
+import teste.tgid_bruno.domain.entities.Empresa;
+import teste.tgid_bruno.exceptions.SaldoException;
+
+/**
+ * Estratégia que aplica créditos e débitos no saldo de uma empresa.
+ * A implementação ativa é escolhida pela propriedade {@code tgid.saldo.engine}.
+ * Valores e saldos em centavos (ver {@code Dinheiro}).
+ */
+public interface SaldoEngine {
+
+    /**
+     * Posição de {@link #aplicarLote} cujo débito foi recusado por falta de saldo.
+     * Nenhum saldo real chega a ele, já que saldos nunca ficam negativos.
+     */
+    long SEM_SALDO = Long.MIN_VALUE;
+
+    /**
+     * Item de um lote: crédito (valor já sem a taxa) ou débito em uma empresa.
+     */
+    record Lancamento(Empresa empresa, boolean credito, long valor) {
+    }
+
+    /**
+     * Resultado de um crédito ou débito: o saldo e a versão que a alteração gravou
+     * na empresa. Sem versão ({@code null}) nas engines que só gravam no banco
+     * depois, em lote.
+     */
+    record Alteracao(long saldo, Long version) {
+    }
+
+    /**
+     * Soma o valor (já sem a taxa de serviço) ao saldo da empresa.
+     *
+     * @return o saldo resultante e a versão gravada
+     */
+    Alteracao credit(Empresa empresa, long valor);
+
+    /**
+     * Subtrai o valor do saldo da empresa.
+     *
+     * @return o saldo resultante e a versão gravada
+     * @throws SaldoException quando o saldo não cobre o valor
+     */
+    Alteracao debit(Empresa empresa, long valor);
+
+    /**
+     * Aplica os lançamentos na ordem recebida. Um débito sem saldo não interrompe
+     * o lote: a posição correspondente do resultado fica {@link #SEM_SALDO}.
+     *
+     * @return o saldo resultante após cada lançamento
+     */
+    default long[] aplicarLote(List<Lancamento> lancamentos) {
+        long[] saldos = new long[lancamentos.size()];
+
+        for (int i = 0; i < saldos.length; i++) {
+            Lancamento lancamento = lancamentos.get(i);
+            try {
+                saldos[i] = lancamento.credito()
+                        ? credit(lancamento.empresa(), lancamento.valor()).saldo()
+                        : debit(lancamento.empresa(), lancamento.valor()).saldo();
+            } catch (SaldoException e) {
+                saldos[i] = SEM_SALDO;
+            }
+        }
+
+        return saldos;
+    }
+
+    /**
+     * Se a alteração de saldo participa da transação de quem chama, e portanto é
+     * desfeita junto com ela. Só então outras gravações (movimentações) podem ser
+     * atômicas com o saldo.
+     */
+    default boolean transacional() {
+        return false;
+    }
+
+    /**
+     * Saldo mais recente conhecido pela engine, quando ele pode estar à frente do banco.
+     */
+    default OptionalLong saldoAtual(String empresaId) {
+        return OptionalLong.empty();
+    }
+}
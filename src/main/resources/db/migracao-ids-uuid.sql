@@ -0,0 +1,17 @@
+-- Converte os ids de Empresas e Clientes de texto (varchar, 36 caracteres) para
+-- o tipo UUID do banco (16 bytes). Rodar uma vez, com a aplicação parada, em
+-- bancos criados antes da troca; os ids existentes (UUID v4) são mantidos e os
+-- novos passam a ser gerados como UUID v7.
+
+-- Chave estrangeira: nova coluna já no tipo final; remover a coluna antiga
+-- remove também a FK que dependia dela
+ALTER TABLE clientes ADD COLUMN empresa_uuid UUID;
+UPDATE clientes SET empresa_uuid = CAST(empresa_id AS UUID);
+ALTER TABLE clientes DROP COLUMN empresa_id;
+
+-- Chaves primárias: o texto canônico é convertido direto para UUID
+ALTER TABLE empresas ALTER COLUMN id SET DATA TYPE UUID;
+ALTER TABLE clientes ALTER COLUMN id SET DATA TYPE UUID;
+
+ALTER TABLE clientes ALTER COLUMN empresa_uuid RENAME TO empresa_id;
+ALTER TABLE clientes ADD CONSTRAINT fk_clientes_empresa FOREIGN KEY (empresa_id) REFERENCES empresas (id);
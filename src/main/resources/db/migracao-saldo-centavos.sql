@@ -0,0 +1,18 @@
+-- Converte o saldo de reais em ponto flutuante (double) para centavos (bigint)
+-- e a taxa de serviço de fração (real, 0.05) para pontos-base (integer, 500).
+-- Rodar uma vez, com a aplicação parada, em bancos criados antes da troca. Os
+-- saldos são arredondados para o centavo mais próximo, o que também descarta
+-- o resíduo de ponto flutuante acumulado (9.49999999254942 -> 950). O journal
+-- já gravava centavos e não precisa ser convertido.
+
+ALTER TABLE empresas ADD COLUMN saldo_centavos BIGINT;
+UPDATE empresas SET saldo_centavos = CAST(ROUND(COALESCE(saldo, 0) * 100) AS BIGINT);
+ALTER TABLE empresas DROP COLUMN saldo;
+ALTER TABLE empresas ALTER COLUMN saldo_centavos RENAME TO saldo;
+ALTER TABLE empresas ALTER COLUMN saldo SET NOT NULL;
+
+ALTER TABLE empresas ADD COLUMN taxa_servico_pontos INTEGER;
+UPDATE empresas SET taxa_servico_pontos = CAST(ROUND(taxa_servico * 10000) AS INTEGER);
+ALTER TABLE empresas DROP COLUMN taxa_servico;
+ALTER TABLE empresas ALTER COLUMN taxa_servico_pontos RENAME TO taxa_servico;
+ALTER TABLE empresas ALTER COLUMN taxa_servico SET NOT NULL;
@@ -1,18 +1,27 @@
 package teste.tgid_bruno.controllers;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -22,22 +31,35 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 import teste.tgid_bruno.domain.entities.Cliente;
 import teste.tgid_bruno.domain.entities.Empresa;
 import teste.tgid_bruno.dtos.ClienteRequestDto;
 import teste.tgid_bruno.dtos.CreditRequestDto;
+import teste.tgid_bruno.dtos.LoteRequestDto;
+import teste.tgid_bruno.dtos.OperacaoLoteDto;
+import teste.tgid_bruno.dtos.ResultadoOperacaoDto;
+import teste.tgid_bruno.dtos.TipoOperacao;
+import teste.tgid_bruno.infra.metricas.MetricasOperacao;
 import teste.tgid_bruno.services.ClienteService;
 import teste.tgid_bruno.services.EmpresaService;
+import teste.tgid_bruno.services.IdempotenciaService;
+import teste.tgid_bruno.services.ImportacaoClienteService;
 
 @WebMvcTest(controllers = ClienteController.class)
+@Import({ MetricasOperacao.class, SimpleMeterRegistry.class })
 @ExtendWith(MockitoExtension.class)
 public class ClienteControllerTest {
 
@@ -53,6 +75,12 @@ public class ClienteControllerTest {
     @MockBean
     EmpresaService empresaService;
 
+    @MockBean
+    IdempotenciaService idempotenciaService;
+
+    @MockBean
+    ImportacaoClienteService importacaoClienteService;
+
     ClienteRequestDto clienteRequestDto;
     CreditRequestDto creditRequestDto;
     Cliente cliente;
@@ -69,10 +97,13 @@ public class ClienteControllerTest {
 
         empresa = new Empresa("123456789101112", "Nome Empresa");
         empresa.setId(empresaUUID);
-        empresa.setSaldo(0.0);
-        empresa.setTaxaServico(0.05f);
+        empresa.setSaldo(0);
+        empresa.setTaxaServico(500);
         empresa.getClientes().add(cliente);
 
+        // Sem Idempotency-Key a ação é só executada
+        when(idempotenciaService.executar(isNull(), anyString(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<ResponseEntity<?>>>getArgument(3).get());
     }
 
     @Test
@@ -86,6 +117,7 @@ public class ClienteControllerTest {
         cliente.setEmpresa(empresa);
 
         when(clienteService.findById(requestId)).thenReturn(Optional.of(cliente));
+        when(clienteService.revisao(cliente)).thenReturn("1");
 
         ResultActions response = mockMvc.perform(
                 get("/api/clientes/{id}", requestId)
@@ -93,11 +125,14 @@ public class ClienteControllerTest {
 
         response
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""))
+                .andExpect(header().string("Cache-Control", "max-age=300, private"))
                 .andExpect(jsonPath("$.id").value(clienteUUID))
                 .andExpect(jsonPath("$.cpf").value(cliente.getCpf()))
                 .andExpect(jsonPath("$.nome").value(cliente.getNome()));
 
         verify(clienteService, times(1)).findById(requestId);
+        verify(clienteService, times(1)).revisao(cliente);
 
         verifyNoMoreInteractions(clienteService);
 
@@ -119,6 +154,20 @@ public class ClienteControllerTest {
         verifyNoMoreInteractions(clienteService);
     }
 
+    @Test
+    @DisplayName("Should answer 304 without loading the cliente, when the ETag matches its version")
+    void ClienteController_getCliente_returnNotModified() throws Exception {
+        when(clienteService.revisao(clienteUUID)).thenReturn(Optional.of("1"));
+
+        mockMvc.perform(get("/api/clientes/{id}", clienteUUID).header("If-None-Match", "\"1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().stringValues("ETag", "\"1\""))
+                .andExpect(MockMvcResultMatchers.content().string(""));
+
+        verify(clienteService, times(1)).revisao(clienteUUID);
+        verifyNoMoreInteractions(clienteService);
+    }
+
     @Test
     @DisplayName("Should not execute request, when id is empty in path variable")
     void ClienteController_getCliente_shouldNotExecute() throws Exception {
@@ -300,10 +349,10 @@ public class ClienteControllerTest {
     @Test
     @DisplayName("Should credit a value in an empresa")
     void ClienteController_credit_returnEmpresa() throws JsonProcessingException, Exception {
-        creditRequestDto = new CreditRequestDto(empresaUUID, 100.0);
+        creditRequestDto = new CreditRequestDto(empresaUUID, 10_000);
 
-        double updatedBalance = empresa.getSaldo()
-                + (creditRequestDto.value() - (creditRequestDto.value() * empresa.getTaxaServico()));
+        // R$ 100,00 menos a taxa de 5%, em centavos
+        long updatedBalance = 9_500;
 
         Empresa empresaResponse = new Empresa(empresaUUID, empresa.getCnpj(), empresa.getNome(), updatedBalance,
                 empresa.getTaxaServico(), empresa.getClientes());
@@ -319,7 +368,7 @@ public class ClienteControllerTest {
 
         response
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.saldo").value(updatedBalance));
+                .andExpect(jsonPath("$.saldo").value(95.0));
 
         verify(empresaService, times(1)).findById(creditRequestDto.id_empresa());
         verify(empresaService, times(1)).credit(empresa, creditRequestDto.value());
@@ -328,12 +377,35 @@ public class ClienteControllerTest {
 
     }
 
+    @Test
+    @DisplayName("Should pass the Idempotency-Key to the idempotency store")
+    void ClienteController_credit_usesIdempotencyKey() throws JsonProcessingException, Exception {
+        creditRequestDto = new CreditRequestDto(empresaUUID, 10_000);
+
+        doReturn(ResponseEntity.ok().header(IdempotenciaService.HEADER_REPETIDA, "true").build())
+                .when(idempotenciaService).executar(eq("chave-1"), anyString(), any(), any());
+
+        ResultActions response = mockMvc.perform(
+                post("/api/clientes/deposito")
+                        .header(IdempotenciaService.HEADER, "chave-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(creditRequestDto)));
+
+        response
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(IdempotenciaService.HEADER_REPETIDA, "true"));
+
+        verify(idempotenciaService, times(1)).executar(eq("chave-1"),
+                eq("deposito"), eq(creditRequestDto), any());
+        verifyNoInteractions(empresaService);
+    }
+
     @Test
     @DisplayName("Should not credit a value in an empresa when id is invalid")
     void ClienteController_credit_returnBadRequestWhenIdIsInvalid() throws JsonProcessingException, Exception {
 
         String invalidId = "abc";
-        creditRequestDto = new CreditRequestDto(invalidId, 100.0);
+        creditRequestDto = new CreditRequestDto(invalidId, 10_000);
 
         String expectedBodyResponse = "Empresa não encontrada, verifique o ID e tente novamente!";
 
@@ -358,7 +430,7 @@ public class ClienteControllerTest {
     @DisplayName("Should not credit a value in an empresa when value is invalid")
     void ClienteController_credit_returnBadRequestWhenvalueIsInvalid() throws JsonProcessingException, Exception {
 
-        double invalidValue = -1;
+        long invalidValue = -100;
         creditRequestDto = new CreditRequestDto(empresaUUID, invalidValue);
 
         String expectedBodyResponse = "must be greater than 0";
@@ -379,9 +451,10 @@ public class ClienteControllerTest {
     @Test
     @DisplayName("Should debit a value in an empresa")
     void ClienteController_debit_returnEmpresa() throws JsonProcessingException, Exception {
-        creditRequestDto = new CreditRequestDto(empresaUUID, 100.0);
+        creditRequestDto = new CreditRequestDto(empresaUUID, 10_000);
 
-        double updatedBalance = empresa.getSaldo() - creditRequestDto.value();
+        empresa.setSaldo(25_000);
+        long updatedBalance = empresa.getSaldo() - creditRequestDto.value();
 
         Empresa empresaResponse = new Empresa(empresaUUID, empresa.getCnpj(), empresa.getNome(), updatedBalance,
                 empresa.getTaxaServico(), empresa.getClientes());
@@ -397,7 +470,7 @@ public class ClienteControllerTest {
 
         response
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.saldo").value(updatedBalance));
+                .andExpect(jsonPath("$.saldo").value(150.0));
 
         verify(empresaService, times(1)).findById(creditRequestDto.id_empresa());
         verify(empresaService, times(1)).debit(empresa, creditRequestDto.value());
@@ -411,7 +484,7 @@ public class ClienteControllerTest {
     void ClienteController_debit_returnBadRequestWhenIdIsInvalid() throws JsonProcessingException, Exception {
 
         String invalidId = "abc";
-        creditRequestDto = new CreditRequestDto(invalidId, 100.0);
+        creditRequestDto = new CreditRequestDto(invalidId, 10_000);
 
         String expectedBodyResponse = "Empresa não encontrada, verifique o ID e tente novamente!";
 
@@ -436,7 +509,7 @@ public class ClienteControllerTest {
     @DisplayName("Should not debit a value in an empresa when value is invalid")
     void ClienteController_debit_returnBadRequestWhenValueIsInvalid() throws JsonProcessingException, Exception {
 
-        double invalidValue = -1;
+        long invalidValue = -100;
 
         creditRequestDto = new CreditRequestDto(empresaUUID, invalidValue);
 
@@ -455,4 +528,73 @@ public class ClienteControllerTest {
 
     }
 
+    @Test
+    @DisplayName("Should apply a batch of deposits and withdrawals")
+    void ClienteController_batch_returnResults() throws Exception {
+        LoteRequestDto loteRequestDto = new LoteRequestDto(List.of(
+                new OperacaoLoteDto(empresaUUID, 10_000, TipoOperacao.DEPOSITO),
+                new OperacaoLoteDto(empresaUUID, 50_000, TipoOperacao.SAQUE)));
+
+        String saldoInsuficiente = "Saldo insuficiente para saque! verifique o valor e tente novamente.";
+
+        when(empresaService.aplicarLote(loteRequestDto.operacoes())).thenReturn(List.of(
+                new ResultadoOperacaoDto(0, empresaUUID, TipoOperacao.DEPOSITO, 10_000, true, 9_500L, null),
+                new ResultadoOperacaoDto(1, empresaUUID, TipoOperacao.SAQUE, 50_000, false, null, saldoInsuficiente)));
+
+        ResultActions response = mockMvc.perform(
+                post("/api/clientes/lote")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(loteRequestDto)));
+
+        response
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].sucesso").value(true))
+                .andExpect(jsonPath("$[0].saldo").value(95.0))
+                .andExpect(jsonPath("$[1].value").value(500.0))
+                .andExpect(jsonPath("$[1].sucesso").value(false))
+                .andExpect(jsonPath("$[1].erro").value(saldoInsuficiente));
+
+        verify(empresaService, times(1)).aplicarLote(loteRequestDto.operacoes());
+        verifyNoMoreInteractions(empresaService);
+    }
+
+    @Test
+    @DisplayName("Should not apply a batch when an item value is invalid")
+    void ClienteController_batch_returnBadRequestWhenValueIsInvalid() throws Exception {
+        LoteRequestDto loteRequestDto = new LoteRequestDto(List.of(
+                new OperacaoLoteDto(empresaUUID, 10_000, TipoOperacao.DEPOSITO),
+                new OperacaoLoteDto(empresaUUID, -100, TipoOperacao.SAQUE)));
+
+        ResultActions response = mockMvc.perform(
+                post("/api/clientes/lote")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(loteRequestDto)));
+
+        response
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$").value("must be greater than 0"));
+
+        verifyNoInteractions(empresaService);
+    }
+
+
+    @Test
+    @DisplayName("Should not import clientes when the empresa does not exist")
+    void ClienteController_importar_returnBadRequestWhenEmpresaIsInvalid() throws Exception {
+        when(empresaService.findById("abc")).thenReturn(Optional.empty());
+
+        MvcResult result = mockMvc.perform(
+                post("/api/clientes/importacao")
+                        .param("id_empresa", "abc")
+                        .contentType("text/csv")
+                        .content("52998224725,Cliente"))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.content().string("Informe um Id de empresa válido"));
+
+        verifyNoInteractions(importacaoClienteService);
+    }
 }
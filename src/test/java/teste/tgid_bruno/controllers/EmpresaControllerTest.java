@@ -8,21 +8,35 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 import teste.tgid_bruno.domain.entities.Cliente;
 import teste.tgid_bruno.domain.entities.Empresa;
+import teste.tgid_bruno.dtos.ClienteResumoDto;
 import teste.tgid_bruno.dtos.EmpresaRequestDto;
+import teste.tgid_bruno.dtos.PaginaClientesDto;
+import teste.tgid_bruno.infra.metricas.MetricasOperacao;
+import teste.tgid_bruno.services.ClienteService;
+import teste.tgid_bruno.services.DocumentoService.Formato;
 import teste.tgid_bruno.services.EmpresaService;
+import teste.tgid_bruno.services.MovimentacaoService;
 
 import static org.hamcrest.Matchers.allOf;
 import static org.hamcrest.Matchers.hasEntry;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
@@ -31,11 +45,15 @@ import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @WebMvcTest(controllers = EmpresaController.class)
+@Import({ MetricasOperacao.class, SimpleMeterRegistry.class })
 @ExtendWith(MockitoExtension.class)
 public class EmpresaControllerTest {
 
@@ -48,6 +66,12 @@ public class EmpresaControllerTest {
         @MockBean
         EmpresaService empresaService;
 
+        @MockBean
+        ClienteService clienteService;
+
+        @MockBean
+        MovimentacaoService movimentacaoService;
+
         private EmpresaRequestDto empresaRequestDto;
         private Empresa empresa;
         private Empresa empresaTestGet;
@@ -62,12 +86,12 @@ public class EmpresaControllerTest {
 
                 uuidGenerated = UUID.randomUUID().toString();
 
-                empresaTestGet = new Empresa(uuidGenerated, "123456789101112", "Empresa Teste", 0.0, 0.05f, clientes);
+                empresaTestGet = new Empresa(uuidGenerated, "123456789101112", "Empresa Teste", 0, 500, clientes);
 
                 empresa = new Empresa("12.345.678/0001-95", "Nome empresa");
                 empresa.setId(uuidGenerated);
-                empresa.setSaldo(0.0);
-                empresa.setTaxaServico(0.05f);
+                empresa.setSaldo(0);
+                empresa.setTaxaServico(500);
 
         }
 
@@ -75,11 +99,63 @@ public class EmpresaControllerTest {
         @DisplayName("Should return an empresa by id, when id exist")
         void EmpresaController_getEmpresa_returnEmpresa() throws Exception {
                 when(empresaService.findById(uuidGenerated)).thenReturn(Optional.of(empresaTestGet));
+                when(empresaService.revisao(empresaTestGet)).thenReturn("0");
 
                 ResultActions response = mockMvc.perform(
                                 get("/api/empresas/{id}", uuidGenerated)
                                                 .contentType(MediaType.APPLICATION_JSON));
 
+                response
+                                .andExpect(MockMvcResultMatchers.status().isOk())
+                                .andExpect(header().string("ETag", "\"0\""))
+                                .andExpect(header().string("Cache-Control", "no-cache, private"))
+                                .andExpect(MockMvcResultMatchers.jsonPath("$.id").value(uuidGenerated))
+                                .andExpect(jsonPath("$.clientes").doesNotExist());
+
+                verify(empresaService, times(1)).findById(uuidGenerated);
+                verify(empresaService, times(1)).revisao(empresaTestGet);
+                verifyNoMoreInteractions(empresaService);
+                verifyNoInteractions(clienteService);
+        }
+
+        @Test
+        @DisplayName("Should answer 304 from the stored version without loading the empresa, and 200 after it changes")
+        void EmpresaController_getEmpresa_returnNotModified() throws Exception {
+                when(empresaService.revisao(uuidGenerated)).thenReturn(Optional.of("0"));
+
+                mockMvc.perform(get("/api/empresas/{id}", uuidGenerated).header("If-None-Match", "\"0\""))
+                                .andExpect(status().isNotModified())
+                                .andExpect(header().stringValues("ETag", "\"0\""))
+                                .andExpect(header().string("Cache-Control", "no-cache, private"))
+                                .andExpect(content().string(""));
+
+                verify(empresaService, never()).findById(anyString());
+
+                Empresa alterada = empresaTestGet.withSaldo(9_500);
+                when(empresaService.revisao(uuidGenerated)).thenReturn(Optional.of("1"));
+                when(empresaService.findById(uuidGenerated)).thenReturn(Optional.of(alterada));
+                when(empresaService.revisao(alterada)).thenReturn("1");
+
+                mockMvc.perform(get("/api/empresas/{id}", uuidGenerated).header("If-None-Match", "\"0\""))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string("ETag", "\"1\""))
+                                .andExpect(jsonPath("$.saldo").value(95.0));
+        }
+
+        @Test
+        @DisplayName("Should return an empresa with its clientes, when expand=clientes")
+        void EmpresaController_getEmpresa_returnEmpresaWithClientes() throws Exception {
+                when(empresaService.findById(uuidGenerated)).thenReturn(Optional.of(empresaTestGet));
+                when(clienteService.listarTodosPorEmpresa(uuidGenerated)).thenReturn(clientes.stream()
+                                .map(cliente -> new ClienteResumoDto(cliente.getId(), cliente.getCpf(),
+                                                cliente.getNome()))
+                                .toList());
+
+                ResultActions response = mockMvc.perform(
+                                get("/api/empresas/{id}", uuidGenerated)
+                                                .param("expand", "clientes")
+                                                .contentType(MediaType.APPLICATION_JSON));
+
                 response
                                 .andExpect(MockMvcResultMatchers.status().isOk())
                                 .andExpect(MockMvcResultMatchers.jsonPath("$.id").value(uuidGenerated))
@@ -149,9 +225,8 @@ public class EmpresaControllerTest {
                                 .andExpect(jsonPath("$.cnpj").value(validCnpj))
                                 .andExpect(jsonPath("$.nome").value("Nome empresa"))
                                 .andExpect(jsonPath("$.saldo").value(0.0))
-                                .andExpect(jsonPath("$.taxaServico").value(0.05f))
-                                .andExpect(jsonPath("$.clientes").isArray())
-                                .andExpect(jsonPath("$.clientes.length()").value(empresa.getClientes().size()));
+                                .andExpect(jsonPath("$.taxaServico").value(0.05))
+                                .andExpect(jsonPath("$.clientes").doesNotExist());
 
                 verify(empresaService, times(1)).validateCnpj(validCnpj);
                 verify(empresaService, times(1)).newEmpresa(empresaRequestDto);
@@ -240,4 +315,128 @@ public class EmpresaControllerTest {
                 verifyNoInteractions(empresaService);
         }
 
-}
\ No newline at end of file
+
+        @Test
+        @DisplayName("Should return a page of clientes of the empresa")
+        void EmpresaController_getClientes_returnPage() throws Exception {
+                String depois = UUID.randomUUID().toString();
+                PaginaClientesDto pagina = new PaginaClientesDto(
+                                List.of(new ClienteResumoDto("c1", "12345678910", "Cliente 1")), "c1");
+
+                when(empresaService.existsById(uuidGenerated)).thenReturn(true);
+                when(clienteService.listarPorEmpresa(uuidGenerated, depois, 1)).thenReturn(pagina);
+
+                ResultActions response = mockMvc.perform(
+                                get("/api/empresas/{id}/clientes", uuidGenerated)
+                                                .param("depois", depois)
+                                                .param("limite", "1"));
+
+                response
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.clientes.length()").value(1))
+                                .andExpect(jsonPath("$.clientes[0].cpf").value("12345678910"))
+                                .andExpect(jsonPath("$.proximo").value("c1"));
+        }
+
+        @Test
+        @DisplayName("Should not list clientes, when empresa does not exist")
+        void EmpresaController_getClientes_returnNotFound() throws Exception {
+                when(empresaService.existsById(uuidGenerated)).thenReturn(false);
+
+                mockMvc.perform(get("/api/empresas/{id}/clientes", uuidGenerated))
+                                .andExpect(status().isNotFound());
+
+                verifyNoInteractions(clienteService);
+        }
+
+        @Test
+        @DisplayName("Should not list clientes, when limit or cursor are invalid")
+        void EmpresaController_getClientes_returnBadRequest() throws Exception {
+                mockMvc.perform(get("/api/empresas/{id}/clientes", uuidGenerated).param("limite", "501"))
+                                .andExpect(status().isBadRequest())
+                                .andExpect(content().string("O limite deve estar entre 1 e 500"));
+
+                mockMvc.perform(get("/api/empresas/{id}/clientes", uuidGenerated).param("depois", "abc"))
+                                .andExpect(status().isBadRequest());
+
+                verifyNoInteractions(empresaService, clienteService);
+        }
+
+        @Test
+        @DisplayName("Should not return an empresa, when expansion is not supported")
+        void EmpresaController_getEmpresa_returnBadRequestForUnknownExpansion() throws Exception {
+                mockMvc.perform(get("/api/empresas/{id}", uuidGenerated).param("expand", "movimentacoes"))
+                                .andExpect(status().isBadRequest())
+                                .andExpect(content().string("Expansões suportadas: clientes"));
+
+                verifyNoInteractions(empresaService, clienteService);
+        }
+
+        @Test
+        @DisplayName("Should stream the statement as CSV, when text/csv is accepted")
+        void EmpresaController_getExtrato_returnCsv() throws Exception {
+                Instant de = Instant.parse("2024-03-01T00:00:00Z");
+                Instant ate = Instant.parse("2024-04-01T00:00:00Z");
+
+                when(empresaService.existsById(uuidGenerated)).thenReturn(true);
+                doAnswer(invocation -> {
+                        invocation.getArgument(4, OutputStream.class)
+                                        .write("id,tipo,valor,taxa,saldo,data_hora\n".getBytes(StandardCharsets.UTF_8));
+                        return null;
+                }).when(movimentacaoService).exportarExtrato(eq(uuidGenerated), eq(de), eq(ate), eq(Formato.CSV), any());
+
+                MvcResult result = mockMvc.perform(
+                                get("/api/empresas/{id}/extrato", uuidGenerated)
+                                                .param("de", "2024-03-01")
+                                                .param("ate", "2024-03-31")
+                                                .accept("text/csv"))
+                                .andReturn();
+
+                mockMvc.perform(asyncDispatch(result))
+                                .andExpect(status().isOk())
+                                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                                .andExpect(content().string("id,tipo,valor,taxa,saldo,data_hora\n"));
+        }
+
+        @Test
+        @DisplayName("Should stream the statement as NDJSON, when no format is requested")
+        void EmpresaController_getExtrato_returnNdjson() throws Exception {
+                when(empresaService.existsById(uuidGenerated)).thenReturn(true);
+
+                MvcResult result = mockMvc.perform(
+                                get("/api/empresas/{id}/extrato", uuidGenerated)
+                                                .param("de", "2024-03-01")
+                                                .param("ate", "2024-03-01"))
+                                .andReturn();
+
+                mockMvc.perform(asyncDispatch(result))
+                                .andExpect(status().isOk())
+                                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON));
+
+                verify(movimentacaoService).exportarExtrato(eq(uuidGenerated), eq(Instant.parse("2024-03-01T00:00:00Z")),
+                                eq(Instant.parse("2024-03-02T00:00:00Z")), eq(Formato.NDJSON), any());
+        }
+
+        @Test
+        @DisplayName("Should not export the statement, when the period is invalid or the empresa does not exist")
+        void EmpresaController_getExtrato_returnBadRequestOrNotFound() throws Exception {
+                MvcResult result = mockMvc.perform(
+                                get("/api/empresas/{id}/extrato", uuidGenerated)
+                                                .param("de", "2024-03-02")
+                                                .param("ate", "2024-03-01"))
+                                .andReturn();
+
+                mockMvc.perform(asyncDispatch(result))
+                                .andExpect(status().isBadRequest())
+                                .andExpect(content().string("A data final deve ser igual ou posterior à data inicial"));
+
+                when(empresaService.existsById(uuidGenerated)).thenReturn(false);
+
+                mockMvc.perform(get("/api/empresas/{id}/extrato", uuidGenerated)
+                                .param("de", "2024-03-01")
+                                .param("ate", "2024-03-01"))
+                                .andExpect(status().isNotFound());
+
+                verifyNoInteractions(movimentacaoService);
+        }
+}
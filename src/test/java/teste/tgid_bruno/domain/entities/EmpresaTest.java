@@ -30,15 +30,15 @@ class EmpresaTest {
                 uuidGenerated,
                 "1234567891011",
                 "Teste Empresa",
-                100.00,
-                0.05f,
+                10_000,
+                500,
                 clientes);
 
         assertEquals(uuidGenerated, empresaTeste.getId());
         assertEquals("1234567891011", empresaTeste.getCnpj());
         assertEquals("Teste Empresa", empresaTeste.getNome());
-        assertEquals(100.00, empresaTeste.getSaldo());
-        assertEquals(0.05f, empresaTeste.getTaxaServico());
+        assertEquals(10_000, empresaTeste.getSaldo());
+        assertEquals(500, empresaTeste.getTaxaServico());
         assertEquals(2, empresaTeste.getClientes().size());
     }
 
@@ -0,0 +1,59 @@
+package teste.tgid_bruno.domain.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+
+import teste.tgid_bruno.domain.entities.Cliente;
+import teste.tgid_bruno.domain.entities.Empresa;
+import teste.tgid_bruno.dtos.ClienteResumoDto;
+
+@DataJpaTest
+class ClienteRepositoryTest {
+
+    @Autowired
+    ClienteRepository clienteRepository;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    Empresa empresa;
+    List<String> ids = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        empresa = entityManager.persist(new Empresa("12.345.678/0001-95", "Empresa"));
+        Empresa outra = entityManager.persist(new Empresa("11.222.333/0001-81", "Outra"));
+
+        for (int i = 0; i < 5; i++) {
+            ids.add(entityManager.persist(new Cliente(String.format("%011d", i), "Cliente " + i, empresa)).getId());
+            entityManager.persist(new Cliente(String.format("%011d", i + 100), "Cliente outra " + i, outra));
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("Should page the clientes of an empresa in registration order")
+    void shouldPageClientesByEmpresa() {
+        List<ClienteResumoDto> primeira = clienteRepository.findPrimeiraPagina(empresa.getId(), Limit.of(2));
+        List<ClienteResumoDto> segunda = clienteRepository.findPaginaApos(empresa.getId(), primeira.get(1).id(),
+                Limit.of(2));
+        List<ClienteResumoDto> ultima = clienteRepository.findPaginaApos(empresa.getId(), segunda.get(1).id(),
+                Limit.of(2));
+
+        assertEquals(ids.subList(0, 2), primeira.stream().map(ClienteResumoDto::id).toList());
+        assertEquals(ids.subList(2, 4), segunda.stream().map(ClienteResumoDto::id).toList());
+        assertEquals(ids.subList(4, 5), ultima.stream().map(ClienteResumoDto::id).toList());
+        assertEquals(new ClienteResumoDto(ids.get(0), "00000000000", "Cliente 0"), primeira.get(0));
+    }
+}
@@ -0,0 +1,108 @@
+package teste.tgid_bruno.domain.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+
+import teste.tgid_bruno.domain.entities.Empresa;
+import teste.tgid_bruno.domain.repositories.EmpresaRepository.SaldoVersionado;
+import teste.tgid_bruno.infra.identificador.UuidV7;
+
+@DataJpaTest
+class EmpresaRepositoryTest {
+
+    @Autowired
+    EmpresaRepository empresaRepository;
+
+    Empresa empresa;
+
+    @BeforeEach
+    void setUp() {
+        empresa = new Empresa("12.345.678/0001-95", "Empresa Teste");
+        empresa.setSaldo(10_000);
+        empresa.setTaxaServico(500);
+
+        empresa = empresaRepository.saveAndFlush(empresa);
+    }
+
+    @Test
+    @DisplayName("Should add value to saldo and return the new balance")
+    void shouldCreditSaldo() {
+        Optional<SaldoVersionado> saldo = empresaRepository.creditSaldo(empresa.getId(), 5_000);
+
+        assertEquals(15_000, saldo.get().getSaldo());
+        assertEquals(empresa.getVersion() + 1, saldo.get().getVersion());
+    }
+
+    @Test
+    @DisplayName("Should subtract value from saldo when balance is enough")
+    void shouldDebitSaldo() {
+        Optional<SaldoVersionado> saldo = empresaRepository.debitSaldo(empresa.getId(), 10_000);
+
+        assertEquals(0, saldo.get().getSaldo());
+    }
+
+    @Test
+    @DisplayName("Should not subtract value from saldo when balance is not enough")
+    void shouldNotDebitSaldoWhenBalanceIsNotEnough() {
+        Optional<SaldoVersionado> saldo = empresaRepository.debitSaldo(empresa.getId(), 10_001);
+
+        assertTrue(saldo.isEmpty());
+        assertEquals(15_000, empresaRepository.creditSaldo(empresa.getId(), 5_000).get().getSaldo());
+    }
+
+    @Test
+    @DisplayName("Should not return a balance when empresa does not exist")
+    void shouldNotCreditSaldoWhenEmpresaDoesNotExist() {
+        assertTrue(empresaRepository.creditSaldo(UuidV7.gerar().toString(), 5_000).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should bump the version on atomic balance updates")
+    void shouldBumpVersionOnAtomicUpdates() {
+        Long versao = empresaRepository.findSaldoVersionado(empresa.getId()).get().getVersion();
+
+        empresaRepository.creditSaldo(empresa.getId(), 5_000);
+        empresaRepository.debitSaldo(empresa.getId(), 1_000);
+
+        assertEquals(versao + 2, empresaRepository.findSaldoVersionado(empresa.getId()).get().getVersion());
+    }
+
+    @Test
+    @DisplayName("Should update saldo only when the version did not change")
+    void shouldUpdateSaldoOnlyWhenVersionMatches() {
+        Long versao = empresaRepository.findSaldoVersionado(empresa.getId()).get().getVersion();
+
+        assertEquals(1, empresaRepository.updateSaldoSeVersao(empresa.getId(), 12_000, versao));
+        assertEquals(0, empresaRepository.updateSaldoSeVersao(empresa.getId(), 13_000, versao));
+        assertEquals(12_000, empresaRepository.findSaldoVersionado(empresa.getId()).get().getSaldo());
+    }
+
+    @Test
+    @DisplayName("Should page the ids of an id range in key order")
+    void shouldPageIdsOfRange() {
+        Empresa segunda = empresaRepository.saveAndFlush(new Empresa("11.222.333/0001-81", "Segunda"));
+        Empresa terceira = empresaRepository.saveAndFlush(new Empresa("11.444.777/0001-61", "Terceira"));
+        String fim = "ffffffff-ffff-ffff-ffff-ffffffffffff";
+
+        EmpresaRepository.IntervaloIds intervalo = empresaRepository.findIntervaloIds();
+
+        assertEquals(empresa.getId(), intervalo.getPrimeiro());
+        assertEquals(terceira.getId(), intervalo.getUltimo());
+        assertEquals(List.of(empresa.getId(), segunda.getId()),
+                empresaRepository.findIdsFaixa("00000000-0000-0000-0000-000000000000", fim, Limit.of(2)));
+        assertEquals(List.of(terceira.getId()),
+                empresaRepository.findIdsFaixaApos(segunda.getId(), fim, Limit.of(2)));
+        assertEquals(List.of(empresa.getId()),
+                empresaRepository.findIdsFaixa(empresa.getId(), segunda.getId(), Limit.of(2)));
+    }
+}
@@ -0,0 +1,119 @@
+package teste.tgid_bruno.domain.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import teste.tgid_bruno.domain.entities.Empresa;
+import teste.tgid_bruno.domain.entities.Movimentacao;
+import teste.tgid_bruno.domain.repositories.MovimentacaoRepository.SaldoConciliado;
+import teste.tgid_bruno.domain.repositories.MovimentacaoRepository.TaxaPendente;
+import teste.tgid_bruno.dtos.MovimentacaoDto;
+import teste.tgid_bruno.dtos.TipoMovimentacao;
+import teste.tgid_bruno.infra.identificador.FaixasId;
+
+@DataJpaTest
+class MovimentacaoRepositoryTest {
+
+    @Autowired
+    MovimentacaoRepository movimentacaoRepository;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    String empresaId = UUID.randomUUID().toString();
+
+    @BeforeEach
+    void setUp() {
+        String outra = UUID.randomUUID().toString();
+
+        entityManager.persist(movimentacao(empresaId, TipoMovimentacao.DEPOSITO, 1000, "2024-03-02T10:00:00Z"));
+        entityManager.persist(movimentacao(empresaId, TipoMovimentacao.SAQUE, 200, "2024-03-01T00:00:00Z"));
+        entityManager.persist(movimentacao(empresaId, TipoMovimentacao.DEPOSITO, 300, "2024-03-03T00:00:00Z"));
+        entityManager.persist(movimentacao(empresaId, TipoMovimentacao.DEPOSITO, 400, "2024-02-29T23:59:59Z"));
+        entityManager.persist(movimentacao(outra, TipoMovimentacao.DEPOSITO, 500, "2024-03-02T00:00:00Z"));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("Should stream the movimentacoes of an empresa within the period in chronological order")
+    void shouldStreamExtratoInPeriod() {
+        List<MovimentacaoDto> extrato;
+        try (Stream<MovimentacaoDto> stream = movimentacaoRepository.streamExtrato(empresaId,
+                Instant.parse("2024-03-01T00:00:00Z"), Instant.parse("2024-03-03T00:00:00Z"))) {
+            extrato = stream.toList();
+        }
+
+        assertEquals(List.of(200L, 1000L), extrato.stream().map(MovimentacaoDto::valor).toList());
+        assertEquals(TipoMovimentacao.SAQUE, extrato.get(0).tipo());
+        assertEquals(Instant.parse("2024-03-02T10:00:00Z"), extrato.get(1).dataHora());
+    }
+
+    @Test
+    @DisplayName("Should sum the deferred fees of each empresa within the period")
+    void shouldSumDeferredFeesByEmpresa() {
+        String semTaxa = UUID.randomUUID().toString();
+
+        List<TaxaPendente> taxas = movimentacaoRepository.somarTaxasDiferidas(List.of(empresaId, semTaxa),
+                Instant.parse("2024-03-01T00:00:00Z"), Instant.parse("2024-03-04T00:00:00Z"));
+
+        // Depósitos de 10,00 e 3,00 no período; o saque não tem taxa diferida
+        assertEquals(1, taxas.size());
+        assertEquals(empresaId, taxas.get(0).getEmpresaId());
+        assertEquals(65, taxas.get(0).getTaxa());
+    }
+
+    @Test
+    @DisplayName("Should stream each empresa of the range with the balance its movimentacoes produce")
+    void shouldStreamExpectedBalancesByEmpresa() {
+        Empresa comMovimentacoes = entityManager.persist(empresa("12345678000190", 1030));
+        Empresa semMovimentacoes = entityManager.persist(empresa("98765432000110", 500));
+        String id = comMovimentacoes.getId();
+        Instant agora = Instant.parse("2024-03-05T00:00:00Z");
+
+        // 10,00 - 0,50 de taxa; 4,00 com taxa diferida; saque de 3,00; taxa cobrada de 0,20
+        entityManager.persist(new Movimentacao(id, TipoMovimentacao.DEPOSITO, 1000, 50, false, 950, agora));
+        entityManager.persist(new Movimentacao(id, TipoMovimentacao.DEPOSITO, 400, 20, true, 1350, agora));
+        entityManager.persist(new Movimentacao(id, TipoMovimentacao.SAQUE, 300, 0, false, 1050, agora));
+        entityManager.persist(new Movimentacao(id, TipoMovimentacao.TAXA, 20, 0, false, 1030, agora));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<SaldoConciliado> saldos;
+        try (Stream<SaldoConciliado> stream = movimentacaoRepository.streamConciliacao(FaixasId.ID_MINIMO,
+                FaixasId.ID_MAXIMO)) {
+            saldos = stream.toList();
+        }
+
+        assertEquals(2, saldos.size());
+        assertEquals(id, saldos.get(0).getEmpresaId());
+        assertEquals(1030, saldos.get(0).getSaldoEsperado());
+        assertEquals(4, saldos.get(0).getMovimentacoes());
+        assertEquals(semMovimentacoes.getId(), saldos.get(1).getEmpresaId());
+        assertEquals(500, saldos.get(1).getSaldo());
+        assertEquals(0, saldos.get(1).getSaldoEsperado());
+        assertEquals(0, saldos.get(1).getMovimentacoes());
+    }
+
+    private Empresa empresa(String cnpj, long saldo) {
+        Empresa empresa = new Empresa(cnpj, "Empresa " + cnpj);
+        empresa.setSaldo(saldo);
+        return empresa;
+    }
+
+    private Movimentacao movimentacao(String empresa, TipoMovimentacao tipo, long valor, String dataHora) {
+        return new Movimentacao(empresa, tipo, valor, valor / 20, tipo == TipoMovimentacao.DEPOSITO, valor,
+                Instant.parse(dataHora));
+    }
+}
@@ -0,0 +1,140 @@
+package teste.tgid_bruno.infra.auditoria;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AuditoriaLogTest {
+
+    @TempDir
+    Path dir;
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    AuditoriaLog criar(int capacidade, PoliticaSaturacao politica, long tamanhoSegmento) {
+        return new AuditoriaLog(true, dir.toString(), capacidade, 1, politica, 1_000_000, 50, tamanhoSegmento,
+                registry);
+    }
+
+    @Test
+    @DisplayName("Should write checksummed records numbered after the ones already in the file")
+    void shouldWriteNumberedRecords() throws IOException {
+        String empresa = UUID.randomUUID().toString();
+        String cliente = UUID.randomUUID().toString();
+
+        AuditoriaLog auditoria = criar(8, PoliticaSaturacao.ESPERAR, 4096);
+        auditoria.abrir();
+        auditoria.registrar(AuditoriaLog.NOVA_EMPRESA, empresa, empresa, 0, 0, 0);
+        auditoria.registrar(AuditoriaLog.NOVO_CLIENTE, cliente, empresa, 0, 0, 0);
+        auditoria.registrar(AuditoriaLog.CREDITO, empresa, empresa, 10_000, 500, 9_500);
+        auditoria.fechar();
+
+        AuditoriaLog reaberta = criar(8, PoliticaSaturacao.ESPERAR, 4096);
+        reaberta.abrir();
+        reaberta.registrar(AuditoriaLog.DEBITO, empresa, empresa, 4_500, 0, 5_000);
+        reaberta.fechar();
+
+        List<ByteBuffer> registros = ler();
+
+        assertEquals(4, registros.size());
+        for (int i = 0; i < registros.size(); i++) {
+            assertEquals(i + 1, registros.get(i).getLong(0));
+        }
+
+        ByteBuffer novoCliente = registros.get(1);
+        assertEquals(AuditoriaLog.NOVO_CLIENTE, novoCliente.getInt(72));
+        assertEquals(UUID.fromString(cliente), new UUID(novoCliente.getLong(16), novoCliente.getLong(24)));
+        assertEquals(UUID.fromString(empresa), new UUID(novoCliente.getLong(32), novoCliente.getLong(40)));
+
+        ByteBuffer debito = registros.get(3);
+        assertEquals(AuditoriaLog.DEBITO, debito.getInt(72));
+        assertEquals(4_500, debito.getLong(48));
+        assertEquals(5_000, debito.getLong(64));
+        assertEquals(4.0, registry.get("tgid.auditoria.eventos").tag("resultado", "gravado").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should drop and count events published while the buffer is full when the policy discards")
+    void shouldDropWhenFull() throws IOException {
+        String empresa = UUID.randomUUID().toString();
+
+        // Consumidor ainda parado: o buffer enche
+        AuditoriaLog auditoria = criar(4, PoliticaSaturacao.DESCARTAR, 4096);
+        for (int i = 0; i < 6; i++) {
+            auditoria.registrar(AuditoriaLog.CREDITO, empresa, empresa, i, 0, i);
+        }
+
+        assertEquals(2.0, registry.get("tgid.auditoria.eventos").tag("resultado", "descartado").counter().count());
+        assertEquals(4.0, registry.get("tgid.auditoria.pendentes").gauge().value());
+
+        auditoria.abrir();
+        auditoria.fechar();
+
+        assertEquals(List.of(0L, 1L, 2L, 3L), ler().stream().map(registro -> registro.getLong(48)).toList());
+        assertEquals(0.0, registry.get("tgid.auditoria.pendentes").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Should make producers wait for the consumer instead of dropping when the policy waits")
+    void shouldWaitForRoomAndRollSegments() throws IOException {
+        String empresa = UUID.randomUUID().toString();
+
+        AuditoriaLog auditoria = criar(2, PoliticaSaturacao.ESPERAR, 10 * RingBufferAuditoria.TAMANHO_REGISTRO);
+        auditoria.abrir();
+        for (int i = 0; i < 200; i++) {
+            auditoria.registrar(AuditoriaLog.CREDITO, empresa, empresa, i, 0, i);
+        }
+        auditoria.fechar();
+
+        List<ByteBuffer> registros = ler();
+
+        assertEquals(0.0, registry.get("tgid.auditoria.eventos").tag("resultado", "descartado").counter().count());
+        assertEquals(200, registros.size());
+        for (int i = 0; i < registros.size(); i++) {
+            assertEquals(i + 1, registros.get(i).getLong(0));
+            assertEquals(i, registros.get(i).getLong(48));
+        }
+
+        try (Stream<Path> arquivos = Files.list(dir)) {
+            assertEquals(20, arquivos.count());
+        }
+    }
+
+    // Registros de todos os segmentos, em ordem, conferindo o checksum de cada um
+    private List<ByteBuffer> ler() throws IOException {
+        List<Path> arquivos;
+        try (Stream<Path> lista = Files.list(dir)) {
+            arquivos = lista.sorted().toList();
+        }
+
+        List<ByteBuffer> registros = new ArrayList<>();
+        for (Path arquivo : arquivos) {
+            ByteBuffer conteudo = ByteBuffer.wrap(Files.readAllBytes(arquivo));
+
+            for (int i = 0; i < conteudo.limit(); i += RingBufferAuditoria.TAMANHO_REGISTRO) {
+                ByteBuffer registro = conteudo.slice(i, RingBufferAuditoria.TAMANHO_REGISTRO);
+
+                CRC32C crc = new CRC32C();
+                crc.update(registro.slice(0, 76));
+                assertEquals((int) crc.getValue(), registro.getInt(76));
+
+                registros.add(registro);
+            }
+        }
+        return registros;
+    }
+}
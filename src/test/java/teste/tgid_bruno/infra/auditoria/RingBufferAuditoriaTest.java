@@ -0,0 +1,105 @@
+package teste.tgid_bruno.infra.auditoria;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class RingBufferAuditoriaTest {
+
+    private static final UUID EMPRESA = UUID.randomUUID();
+
+    @Test
+    @DisplayName("Should deliver every event of concurrent producers exactly once and in each producer's order")
+    void shouldDeliverConcurrentEventsOnce() throws Exception {
+        RingBufferAuditoria ring = new RingBufferAuditoria(64);
+        int produtores = 8;
+        int eventos = 20_000;
+        AtomicInteger terminados = new AtomicInteger();
+
+        // valor = número do evento, taxa = produtor
+        long[] ultimoPorProdutor = new long[produtores];
+        Arrays.fill(ultimoPorProdutor, -1);
+        List<Long> recebidos = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int p = 0; p < produtores; p++) {
+                int produtor = p;
+                executor.execute(() -> {
+                    for (int i = 0; i < eventos; i++) {
+                        while (!ring.publicar(AuditoriaLog.CREDITO, 0, EMPRESA, EMPRESA, i, produtor, 0)) {
+                            Thread.yield();
+                        }
+                    }
+                    terminados.incrementAndGet();
+                });
+            }
+
+            while (terminados.get() < produtores || ring.pendentes() > 0) {
+                ring.consumir(16, trechos -> {
+                    for (ByteBuffer trecho : trechos) {
+                        for (int i = 0; i < trecho.limit(); i += RingBufferAuditoria.TAMANHO_REGISTRO) {
+                            long valor = trecho.getLong(i + 48);
+                            int produtor = (int) trecho.getLong(i + 56);
+
+                            assertEquals(ultimoPorProdutor[produtor] + 1, valor);
+                            ultimoPorProdutor[produtor] = valor;
+                            recebidos.add(valor);
+                        }
+                    }
+                });
+            }
+        }
+
+        assertEquals((long) produtores * eventos, recebidos.size());
+        for (long ultimo : ultimoPorProdutor) {
+            assertEquals(eventos - 1, ultimo);
+        }
+    }
+
+    @Test
+    @DisplayName("Should refuse events while full and keep them when the destination fails")
+    void shouldRefuseWhenFull() throws IOException {
+        RingBufferAuditoria ring = new RingBufferAuditoria(4);
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.publicar(AuditoriaLog.DEBITO, 0, EMPRESA, EMPRESA, i, 0, 0));
+        }
+        assertFalse(ring.publicar(AuditoriaLog.DEBITO, 0, EMPRESA, EMPRESA, 4, 0, 0));
+
+        assertThrows(IOException.class, () -> ring.consumir(2, trechos -> {
+            throw new IOException("disco cheio");
+        }));
+        assertEquals(4, ring.pendentes());
+
+        assertEquals(2, ring.consumir(2, trechos -> assertEquals(0, trechos[0].getLong(48))));
+        assertTrue(ring.publicar(AuditoriaLog.DEBITO, 0, EMPRESA, EMPRESA, 4, 0, 0));
+
+        // Lote que dá a volta no fim do buffer chega em dois trechos
+        assertEquals(3, ring.consumir(8, trechos -> {
+            assertEquals(2, trechos.length);
+            assertEquals(2, trechos[0].getLong(48));
+            assertEquals(4, trechos[1].getLong(48));
+        }));
+        assertEquals(0, ring.pendentes());
+    }
+
+    @Test
+    @DisplayName("Should require a power of two capacity")
+    void shouldRequirePowerOfTwoCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new RingBufferAuditoria(1000));
+    }
+}
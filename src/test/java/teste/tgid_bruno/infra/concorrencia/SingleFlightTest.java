@@ -0,0 +1,114 @@
+package teste.tgid_bruno.infra.concorrencia;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class SingleFlightTest {
+
+    private static final int THREADS = 200;
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    SingleFlight<String, Object> singleFlight = new SingleFlight<>("teste", registry);
+
+    @Test
+    @DisplayName("Should run one load for concurrent calls with the same key and share its result")
+    void shouldCoalesceConcurrentLoads() throws Exception {
+        Object resultado = new Object();
+        AtomicInteger cargas = new AtomicInteger();
+        CountDownLatch liberar = new CountDownLatch(1);
+
+        List<Future<Object>> chamadas = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < THREADS; i++) {
+                chamadas.add(executor.submit(() -> singleFlight.executar("empresa", () -> {
+                    cargas.incrementAndGet();
+                    aguardar(liberar);
+                    return resultado;
+                })));
+            }
+
+            // Todas as outras chamadas já estão esperando a carga em andamento
+            while (contagem("coalescida") < THREADS - 1) {
+                Thread.onSpinWait();
+            }
+            liberar.countDown();
+
+            for (Future<Object> chamada : chamadas) {
+                assertSame(resultado, chamada.get(5, TimeUnit.SECONDS));
+            }
+        }
+
+        assertEquals(1, cargas.get());
+        assertEquals(1.0, contagem("executada"));
+        assertEquals(THREADS - 1.0, contagem("coalescida"));
+    }
+
+    @Test
+    @DisplayName("Should give the load exception to every waiting call")
+    void shouldShareLoadException() throws Exception {
+        CountDownLatch liberar = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            Future<Object> primeira = executor.submit(() -> singleFlight.executar("empresa", () -> {
+                aguardar(liberar);
+                throw new IllegalStateException("banco indisponível");
+            }));
+            while (contagem("executada") < 1) {
+                Thread.onSpinWait();
+            }
+            Future<Object> segunda = executor.submit(() -> singleFlight.executar("empresa", Object::new));
+            while (contagem("coalescida") < 1) {
+                Thread.onSpinWait();
+            }
+            liberar.countDown();
+
+            for (Future<Object> chamada : List.of(primeira, segunda)) {
+                ExecutionException e = assertThrows(ExecutionException.class, () -> chamada.get(5, TimeUnit.SECONDS));
+                assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should run the load again once the previous one has finished")
+    void shouldNotCacheResults() {
+        AtomicInteger cargas = new AtomicInteger();
+
+        singleFlight.executar("empresa", cargas::incrementAndGet);
+        singleFlight.executar("empresa", cargas::incrementAndGet);
+        singleFlight.executar("outra", cargas::incrementAndGet);
+
+        assertEquals(3, cargas.get());
+        assertEquals(0.0, contagem("coalescida"));
+    }
+
+    private double contagem(String resultado) {
+        return registry.get("tgid.coalescencia.cargas").tag("resultado", resultado).counter().count();
+    }
+
+    private static void aguardar(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
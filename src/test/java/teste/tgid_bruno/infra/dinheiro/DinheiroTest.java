@@ -0,0 +1,54 @@
+package teste.tgid_bruno.infra.dinheiro;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+
+public class DinheiroTest {
+
+    record Valor(@Reais long valor, @TaxaPontosBase int taxa) {
+    }
+
+    ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("Should round fees to the nearest centavo, ties to even")
+    void shouldRoundFeesHalfEven() {
+        assertEquals(500, Dinheiro.taxa(10_000, 500));
+        // 0,05 * R$ 0,10 = 0,5 centavo -> 0; 0,05 * R$ 0,30 = 1,5 centavo -> 2
+        assertEquals(0, Dinheiro.taxa(10, 500));
+        assertEquals(2, Dinheiro.taxa(30, 500));
+        // 0,05 * R$ 0,29 = 1,45 centavo -> 1
+        assertEquals(1, Dinheiro.taxa(29, 500));
+        assertEquals(0, Dinheiro.taxa(10_000, 0));
+        assertThrows(ArithmeticException.class, () -> Dinheiro.taxa(Long.MAX_VALUE, 500));
+    }
+
+    @Test
+    @DisplayName("Should convert reais to centavos exactly, rejecting fractions of a centavo")
+    void shouldConvertReaisExactly() {
+        assertEquals(1_050, Dinheiro.centavos(new BigDecimal("10.5")));
+        assertEquals(1, Dinheiro.centavos(new BigDecimal("0.01")));
+        assertEquals("10.50", Dinheiro.reais(1_050));
+        assertEquals("-0.05", Dinheiro.reais(-5));
+        assertEquals("0.05", Dinheiro.fracao(500));
+        assertThrows(ArithmeticException.class, () -> Dinheiro.centavos(new BigDecimal("0.005")));
+    }
+
+    @Test
+    @DisplayName("Should read and write money as decimal reais in JSON")
+    void shouldMapReaisInJson() throws Exception {
+        assertEquals("{\"valor\":0.30,\"taxa\":0.05}", mapper.writeValueAsString(new Valor(30, 500)));
+        // Lido do texto do JSON, sem passar por double
+        assertEquals(30, mapper.readValue("{\"valor\":0.30}", Valor.class).valor());
+        assertEquals(0, mapper.readValue("{}", Valor.class).valor());
+        assertThrows(InvalidFormatException.class, () -> mapper.readValue("{\"valor\":1.001}", Valor.class));
+    }
+}
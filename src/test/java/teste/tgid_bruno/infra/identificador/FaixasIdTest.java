@@ -0,0 +1,34 @@
+package teste.tgid_bruno.infra.identificador;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class FaixasIdTest {
+
+    @Test
+    @DisplayName("Should split the id space into increasing ranges covering every id")
+    void shouldSplitIdsIntoRanges() {
+        UUID primeiro = UUID.fromString("01900000-0000-7000-8000-000000000000");
+        UUID ultimo = UUID.fromString("01a00000-0000-7000-8000-000000000000");
+
+        List<String> limites = FaixasId.limites(primeiro, ultimo, 4);
+
+        assertEquals(5, limites.size());
+        assertEquals(FaixasId.ID_MINIMO, limites.get(0));
+        assertEquals("01940000-0000-7000-0000-000000000000", limites.get(1));
+        assertEquals(FaixasId.ID_MAXIMO, limites.get(4));
+        for (int i = 1; i < limites.size(); i++) {
+            assertTrue(limites.get(i - 1).compareTo(limites.get(i)) < 0);
+        }
+
+        // Um único id não gera faixas vazias
+        assertEquals(List.of(FaixasId.ID_MINIMO, FaixasId.ID_MAXIMO),
+                FaixasId.limites(primeiro, primeiro, 4));
+    }
+}
@@ -0,0 +1,49 @@
+package teste.tgid_bruno.infra.identificador;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class UuidV7Test {
+
+    @Test
+    @DisplayName("Should generate version 7 ids carrying the current time")
+    void shouldGenerateVersion7Ids() {
+        long antes = System.currentTimeMillis();
+        UUID id = UuidV7.gerar();
+
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        assertTrue((id.getMostSignificantBits() >>> 16) >= antes);
+    }
+
+    @Test
+    @DisplayName("Should generate ids in increasing order, also within the same millisecond")
+    void shouldGenerateOrderedIds() {
+        String anterior = UuidV7.gerar().toString();
+
+        for (int i = 0; i < 100_000; i++) {
+            String atual = UuidV7.gerar().toString();
+            assertTrue(atual.compareTo(anterior) > 0);
+            anterior = atual;
+        }
+    }
+
+    @Test
+    @DisplayName("Should accept only canonical UUID text")
+    void shouldValidateUuidText() {
+        assertTrue(UuidV7.valido(UuidV7.gerar().toString()));
+        assertTrue(UuidV7.valido("7c9e6679-7425-40de-944b-e07fc1f90ae7"));
+
+        assertFalse(UuidV7.valido(null));
+        assertFalse(UuidV7.valido(""));
+        assertFalse(UuidV7.valido("abc"));
+        assertFalse(UuidV7.valido("1-1-1-1-1"));
+        assertFalse(UuidV7.valido("7c9e6679-7425-40de-944b-e07fc1f90ae7-"));
+    }
+}
@@ -0,0 +1,66 @@
+package teste.tgid_bruno.infra.indice;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class BloomFilterTest {
+
+    @Test
+    @DisplayName("Should never report an added value as absent")
+    void shouldNotHaveFalseNegatives() {
+        BloomFilter filtro = new BloomFilter(10_000, 0.01);
+
+        for (int i = 0; i < 10_000; i++) {
+            filtro.adicionar(String.format("%011d", i));
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filtro.possivelmenteContem(String.format("%011d", i)));
+        }
+        // valores que já colidiam por completo não alteram o filtro nem a contagem
+        assertTrue(filtro.elementos() > 9_900);
+    }
+
+    @Test
+    @DisplayName("Should keep the false positive rate close to the configured one")
+    void shouldKeepFalsePositiveRateNearConfigured() {
+        BloomFilter filtro = new BloomFilter(10_000, 0.01);
+
+        for (int i = 0; i < 10_000; i++) {
+            filtro.adicionar(String.format("%011d", i));
+        }
+
+        int falsosPositivos = 0;
+        for (int i = 10_000; i < 110_000; i++) {
+            if (filtro.possivelmenteContem(String.format("%011d", i))) {
+                falsosPositivos++;
+            }
+        }
+
+        assertTrue(falsosPositivos < 2_000, "falsos positivos: " + falsosPositivos);
+        assertTrue(filtro.taxaFalsoPositivoEstimada() < 0.02);
+    }
+
+    @Test
+    @DisplayName("Should report whether adding changed the filter")
+    void shouldReportWhetherAddChangedFilter() {
+        BloomFilter filtro = new BloomFilter(100, 0.01);
+
+        assertFalse(filtro.possivelmenteContem("52998224725"));
+        assertTrue(filtro.adicionar("52998224725"));
+        assertFalse(filtro.adicionar("52998224725"));
+        assertEquals(1, filtro.elementos());
+    }
+
+    @Test
+    @DisplayName("Should reject invalid sizing")
+    void shouldRejectInvalidSizing() {
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(100, 1.0));
+    }
+}
@@ -0,0 +1,95 @@
+package teste.tgid_bruno.infra.jfr;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.aop.framework.ProxyFactory;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class EventosJfrTest {
+
+    @TempDir
+    Path diretorio;
+
+    @Test
+    @DisplayName("Should record each balance movement with its outcome")
+    void shouldRecordMovimentacao() throws Exception {
+        List<RecordedEvent> eventos = gravar("tgid.MovimentacaoSaldo", () -> {
+            MovimentacaoSaldoEvent deposito = MovimentacaoSaldoEvent.iniciar(MovimentacaoSaldoEvent.DEPOSITO, "e1", 100);
+            deposito.sucesso(5, 95);
+            deposito.encerrar();
+
+            MovimentacaoSaldoEvent saque = MovimentacaoSaldoEvent.iniciar(MovimentacaoSaldoEvent.SAQUE, "e1", 500);
+            saque.rejeitado("saldo_insuficiente");
+            saque.encerrar();
+        });
+
+        assertEquals(2, eventos.size());
+        assertEquals("deposito", eventos.get(0).getString("operacao"));
+        assertEquals("e1", eventos.get(0).getString("empresaId"));
+        assertEquals(5, eventos.get(0).getDouble("taxa"));
+        assertEquals(95, eventos.get(0).getDouble("saldo"));
+        assertEquals("sucesso", eventos.get(0).getString("resultado"));
+        assertEquals("saldo_insuficiente", eventos.get(1).getString("resultado"));
+    }
+
+    @Test
+    @DisplayName("Should record repository calls, including the failed ones")
+    void shouldRecordChamadaRepositorio() throws Exception {
+        ProxyFactory fabrica = new ProxyFactory(new RepositorioFalso());
+        fabrica.addAdvice(new EventosRepositorioJfr(Supplier.class));
+        @SuppressWarnings("unchecked")
+        Supplier<String> repositorio = (Supplier<String>) fabrica.getProxy();
+
+        List<RecordedEvent> eventos = gravar("tgid.ChamadaRepositorio", () -> {
+            repositorio.get();
+            assertThrows(IllegalStateException.class, repositorio::get);
+        });
+
+        assertEquals(2, eventos.size());
+        assertEquals("Supplier", eventos.get(0).getString("repositorio"));
+        assertEquals("get", eventos.get(0).getString("metodo"));
+        assertEquals("sucesso", eventos.get(0).getString("resultado"));
+        assertEquals("IllegalStateException", eventos.get(1).getString("resultado"));
+    }
+
+    private List<RecordedEvent> gravar(String evento, Runnable acao) throws Exception {
+        Path arquivo = diretorio.resolve("teste.jfr");
+        try (Recording gravacao = new Recording()) {
+            gravacao.enable(evento).withoutThreshold();
+            gravacao.start();
+            acao.run();
+            gravacao.stop();
+            gravacao.dump(arquivo);
+        }
+        List<RecordedEvent> eventos = RecordingFile.readAllEvents(arquivo).stream()
+                .filter(e -> e.getEventType().getName().equals(evento))
+                .toList();
+        Files.deleteIfExists(arquivo);
+        return eventos;
+    }
+
+    static class RepositorioFalso implements Supplier<String> {
+
+        int chamadas;
+
+        @Override
+        public String get() {
+            if (chamadas++ > 0) {
+                throw new IllegalStateException();
+            }
+            return "ok";
+        }
+    }
+}
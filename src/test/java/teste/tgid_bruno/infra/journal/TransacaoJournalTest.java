@@ -0,0 +1,182 @@
+package teste.tgid_bruno.infra.journal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TransacaoJournalTest {
+
+    @TempDir
+    Path dir;
+
+    TransacaoJournal abrir(int tamanhoSegmento) throws IOException {
+        return abrir(tamanhoSegmento, Duration.ZERO);
+    }
+
+    TransacaoJournal abrir(int tamanhoSegmento, Duration retencao) throws IOException {
+        TransacaoJournal journal = new TransacaoJournal(true, dir.toString(), tamanhoSegmento, 0, retencao);
+        journal.abrir();
+        return journal;
+    }
+
+    @Test
+    @DisplayName("Should rebuild balances from the journal after reopening it")
+    void shouldRebuildBalancesOnReopen() throws IOException {
+        String empresa1 = UUID.randomUUID().toString();
+        String empresa2 = UUID.randomUUID().toString();
+
+        TransacaoJournal journal = abrir(4096);
+        journal.registrar(TransacaoJournal.CREDITO, empresa1, 10_000, 500, 9_500);
+        journal.registrar(TransacaoJournal.DEBITO, empresa1, 4_500, 0, 5_000);
+        journal.registrar(TransacaoJournal.CREDITO, empresa2, 1_000, 50, 950);
+        journal.fechar();
+
+        TransacaoJournal reaberto = abrir(4096);
+
+        assertEquals(5000L, reaberto.saldosRecuperados().get(UUID.fromString(empresa1)));
+        assertEquals(950L, reaberto.saldosRecuperados().get(UUID.fromString(empresa2)));
+
+        // Continua escrevendo depois do último registro válido
+        reaberto.registrar(TransacaoJournal.CREDITO, empresa2, 100, 0, 1_050);
+        reaberto.fechar();
+
+        assertEquals(1050L, abrir(4096).saldosRecuperados().get(UUID.fromString(empresa2)));
+    }
+
+    @Test
+    @DisplayName("Should roll over to a new segment, checkpoint the balances and archive the covered segments")
+    void shouldRollOverSegments() throws IOException {
+        String empresa = UUID.randomUUID().toString();
+
+        TransacaoJournal journal = abrir(2 * TransacaoJournal.TAMANHO_REGISTRO);
+        for (int i = 0; i < 5; i++) {
+            journal.registrar(TransacaoJournal.CREDITO, empresa, 100, 0, (i + 1) * 100L);
+        }
+        journal.fechar();
+
+        assertTrue(Files.exists(dir.resolve("journal-000002.log")));
+        assertTrue(Files.exists(dir.resolve("checkpoint.dat")));
+        assertFalse(Files.exists(dir.resolve("journal-000000.log")));
+        assertFalse(Files.exists(dir.resolve("journal-000001.log")));
+        assertTrue(Files.exists(dir.resolve("arquivo/journal-000000.log")));
+        assertTrue(Files.exists(dir.resolve("arquivo/journal-000001.log")));
+
+        // Checkpoint com os quatro primeiros registros mais o quinto, no segmento atual
+        TransacaoJournal reaberto = abrir(2 * TransacaoJournal.TAMANHO_REGISTRO);
+        assertEquals(500L, reaberto.saldosRecuperados().get(UUID.fromString(empresa)));
+
+        // A numeração continua depois do checkpoint e a próxima troca cobre o que veio antes
+        for (int i = 0; i < 3; i++) {
+            reaberto.registrar(TransacaoJournal.DEBITO, empresa, 50, 0, 500L - (i + 1) * 50);
+        }
+        reaberto.fechar();
+
+        assertFalse(Files.exists(dir.resolve("journal-000002.log")));
+        assertTrue(Files.exists(dir.resolve("arquivo/journal-000002.log")));
+        assertEquals(350L, abrir(2 * TransacaoJournal.TAMANHO_REGISTRO).saldosRecuperados()
+                .get(UUID.fromString(empresa)));
+    }
+
+    @Test
+    @DisplayName("Should delete archived segments only after the retention period")
+    void shouldDeleteArchivedSegmentsAfterRetention() throws IOException {
+        String empresa = UUID.randomUUID().toString();
+
+        TransacaoJournal journal = abrir(2 * TransacaoJournal.TAMANHO_REGISTRO, Duration.ofDays(7));
+        for (int i = 0; i < 3; i++) {
+            journal.registrar(TransacaoJournal.CREDITO, empresa, 100, 0, (i + 1) * 100L);
+        }
+        journal.fechar();
+
+        Path antigo = dir.resolve("arquivo/journal-000000.log");
+        assertTrue(Files.exists(antigo));
+
+        // Arquivado há mais tempo que a retenção: sai na abertura ou na próxima troca de segmento
+        Files.setLastModifiedTime(antigo, FileTime.from(Instant.now().minus(Duration.ofDays(8))));
+
+        TransacaoJournal reaberto = abrir(2 * TransacaoJournal.TAMANHO_REGISTRO, Duration.ofDays(7));
+        for (int i = 0; i < 2; i++) {
+            reaberto.registrar(TransacaoJournal.CREDITO, empresa, 100, 0, (i + 4) * 100L);
+        }
+        reaberto.fechar();
+
+        assertFalse(Files.exists(antigo));
+        assertTrue(Files.exists(dir.resolve("arquivo/journal-000001.log")));
+        assertEquals(500L, abrir(2 * TransacaoJournal.TAMANHO_REGISTRO).saldosRecuperados()
+                .get(UUID.fromString(empresa)));
+    }
+
+    @Test
+    @DisplayName("Should leave discarded empresas out of the next checkpoint")
+    void shouldDiscardEmpresasFromCheckpoint() throws IOException {
+        UUID mantida = UUID.randomUUID();
+        UUID descartada = UUID.randomUUID();
+
+        TransacaoJournal journal = abrir(2 * TransacaoJournal.TAMANHO_REGISTRO);
+        journal.registrar(TransacaoJournal.CREDITO, descartada.toString(), 100, 0, 100);
+        journal.registrar(TransacaoJournal.CREDITO, mantida.toString(), 200, 0, 200);
+        journal.descartar(List.of(descartada));
+        // Troca de segmento: o checkpoint sai sem a descartada
+        journal.registrar(TransacaoJournal.CREDITO, mantida.toString(), 300, 0, 500);
+        journal.fechar();
+
+        Map<UUID, Long> recuperados = abrir(2 * TransacaoJournal.TAMANHO_REGISTRO).saldosRecuperados();
+
+        assertEquals(Map.of(mantida, 500L), recuperados);
+    }
+
+    @Test
+    @DisplayName("Should append a whole batch across segments with a single call")
+    void shouldAppendBatch() throws IOException {
+        String empresa1 = UUID.randomUUID().toString();
+        String empresa2 = UUID.randomUUID().toString();
+
+        TransacaoJournal journal = abrir(2 * TransacaoJournal.TAMANHO_REGISTRO);
+        journal.registrarTodos(List.of(
+                new TransacaoJournal.Registro(TransacaoJournal.CREDITO, empresa1, 1_000, 50, 950),
+                new TransacaoJournal.Registro(TransacaoJournal.CREDITO, empresa2, 2_000, 0, 2_000),
+                new TransacaoJournal.Registro(TransacaoJournal.DEBITO, empresa1, 450, 0, 500),
+                new TransacaoJournal.Registro(TransacaoJournal.DEBITO, empresa2, 1_500, 0, 500),
+                new TransacaoJournal.Registro(TransacaoJournal.CREDITO, empresa1, 100, 0, 600)));
+        journal.fechar();
+
+        Map<UUID, Long> recuperados = abrir(2 * TransacaoJournal.TAMANHO_REGISTRO).saldosRecuperados();
+
+        assertEquals(Map.of(UUID.fromString(empresa1), 600L, UUID.fromString(empresa2), 500L), recuperados);
+    }
+
+    @Test
+    @DisplayName("Should stop replaying at a torn record")
+    void shouldIgnoreTornRecord() throws IOException {
+        String empresa = UUID.randomUUID().toString();
+
+        TransacaoJournal journal = abrir(4096);
+        journal.registrar(TransacaoJournal.CREDITO, empresa, 1_000, 0, 1_000);
+        journal.registrar(TransacaoJournal.CREDITO, empresa, 2_000, 0, 3_000);
+        journal.fechar();
+
+        // Corrompe o valor do segundo registro, simulando uma escrita interrompida
+        try (FileChannel canal = FileChannel.open(dir.resolve("journal-000000.log"), StandardOpenOption.WRITE)) {
+            canal.write(ByteBuffer.allocate(8).putLong(0, 999_999L), TransacaoJournal.TAMANHO_REGISTRO + 24);
+        }
+
+        assertEquals(1000L, abrir(4096).saldosRecuperados().get(UUID.fromString(empresa)));
+    }
+}
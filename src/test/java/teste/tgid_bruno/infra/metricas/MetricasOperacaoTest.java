@@ -0,0 +1,75 @@
+package teste.tgid_bruno.infra.metricas;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener.RepositoryMethodInvocation;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import teste.tgid_bruno.domain.repositories.EmpresaRepository;
+
+public class MetricasOperacaoTest {
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("Should time each stage by operation, also when the stage fails")
+    void shouldTimeStages() {
+        MetricasOperacao metricas = new MetricasOperacao(registry);
+
+        assertEquals(10, metricas.medir(MetricasOperacao.DEPOSITO, MetricasOperacao.ALTERACAO, () -> 10));
+        assertThrows(IllegalStateException.class,
+                () -> metricas.medir(MetricasOperacao.DEPOSITO, MetricasOperacao.ALTERACAO, (Runnable) () -> {
+                    throw new IllegalStateException();
+                }));
+        metricas.falhaValidacao(MetricasOperacao.NOVO_CLIENTE, "cpf_invalido");
+
+        Timer timer = registry.get("tgid.operacao").tag("operacao", "deposito").tag("etapa", "alteracao").timer();
+        assertEquals(2, timer.count());
+        assertEquals(1.0, registry.get("tgid.validacao.falhas").tag("motivo", "cpf_invalido").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should record the repository time spent by each request under its route")
+    void shouldRecordDatabaseTimePerRequest() throws Exception {
+        TempoBancoPorRequisicao tempoBanco = new TempoBancoPorRequisicao(registry);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/clientes/deposito");
+
+        HttpServlet servlet = new HttpServlet() {
+
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/clientes/deposito");
+                tempoBanco.afterInvocation(invocacao(2));
+                tempoBanco.afterInvocation(invocacao(3));
+            }
+        };
+
+        tempoBanco.doFilter(request, new MockHttpServletResponse(), new MockFilterChain(servlet));
+        // fora de uma requisição as chamadas não são contadas
+        tempoBanco.afterInvocation(invocacao(100));
+
+        Timer timer = registry.get("tgid.http.banco").tag("uri", "/api/clientes/deposito").timer();
+        assertEquals(1, timer.count());
+        assertEquals(5, timer.totalTime(TimeUnit.MILLISECONDS), 0.001);
+        assertTrue(registry.find("tgid.http.banco").tag("uri", "UNKNOWN").timers().isEmpty());
+    }
+
+    private RepositoryMethodInvocation invocacao(long milissegundos) {
+        return new RepositoryMethodInvocation(EmpresaRepository.class, null, null,
+                TimeUnit.MILLISECONDS.toNanos(milissegundos));
+    }
+}
@@ -2,9 +2,12 @@ package teste.tgid_bruno.services;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import org.junit.jupiter.api.DisplayName;
@@ -12,14 +15,24 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
-import jakarta.persistence.GenerationType;
 import teste.tgid_bruno.domain.entities.Cliente;
 import teste.tgid_bruno.domain.entities.Empresa;
 import teste.tgid_bruno.domain.repositories.ClienteRepository;
 import teste.tgid_bruno.dtos.ClienteRequestDto;
-
+import teste.tgid_bruno.dtos.ClienteResumoDto;
+import teste.tgid_bruno.dtos.PaginaClientesDto;
+import teste.tgid_bruno.infra.concorrencia.SingleFlight;
+import teste.tgid_bruno.infra.identificador.UuidV7;
+import teste.tgid_bruno.infra.auditoria.AuditoriaLog;
+import teste.tgid_bruno.infra.indice.DocumentosCadastrados;
+
+import java.util.List;
 import java.util.Optional;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,6 +41,19 @@ public class ClienteServiceTest {
     @Mock
     private ClienteRepository clienteRepository;
 
+    @Spy
+    private DocumentoValidator documentoValidator;
+
+    @Mock
+    private DocumentosCadastrados documentosCadastrados;
+
+    @Mock
+    private AuditoriaLog auditoriaLog;
+
+    @Spy
+    private SingleFlight<String, Optional<Cliente>> cargasPorCpf = new SingleFlight<>("cliente_por_cpf",
+            new SimpleMeterRegistry());
+
     @InjectMocks
     private ClienteService clienteService;
 
@@ -58,15 +84,18 @@ public class ClienteServiceTest {
         Cliente response = clienteService.newCliente(clienteRequestDto, empresa);
 
         assertEquals(response, newCliente);
+        verify(documentosCadastrados).registrarCpf(clienteRequestDto.cpf());
+        verify(auditoriaLog).registrar(AuditoriaLog.NOVO_CLIENTE, newCliente.getId(), empresa.getId(), 0, 0, 0);
     }
 
     @Test
     @DisplayName("Should find a cliente by cpf")
     void shouldFindAClienteByCpf() {
         Empresa empresa = new Empresa("1234567891011", "Empresa");
-        String uuidGenerated = GenerationType.UUID.toString();
+        String uuidGenerated = UuidV7.gerar().toString();
         Cliente cliente = new Cliente(uuidGenerated, "12345678910", "Cliente teste", empresa);
 
+        when(documentosCadastrados.cpfPossivelmenteCadastrado("12345678910")).thenReturn(true);
         when(clienteRepository.findByCpf(anyString())).thenReturn(Optional.of(cliente));
 
         Optional<Cliente> response = clienteService.findByCpf("12345678910");
@@ -79,8 +108,6 @@ public class ClienteServiceTest {
     @DisplayName("Should not find a cliente by cpf if Cpf is blank or null")
     void shouldNotFindAClienteByCpfIfCpfIsBlankOrNull() {
 
-        when(clienteRepository.findByCpf(anyString())).thenReturn(Optional.empty());
-
         Optional<Cliente> cpfIsBlank = clienteService.findByCpf("");
         Optional<Cliente> cpfIsNull = clienteService.findByCpf(null);
 
@@ -88,16 +115,28 @@ public class ClienteServiceTest {
         assertTrue(cpfIsNull.isEmpty());
     }
 
+    @Test
+    @DisplayName("Should not query the database when the cpf is not in the index")
+    void shouldSkipDatabaseWhenCpfIsNotIndexed() {
+
+        when(documentosCadastrados.cpfPossivelmenteCadastrado("12345678910")).thenReturn(false);
+
+        Optional<Cliente> response = clienteService.findByCpf("12345678910");
+
+        assertTrue(response.isEmpty());
+        verifyNoInteractions(clienteRepository);
+    }
+
     @Test
     @DisplayName("Should find a cliente by id")
     void shouldFindAClienteById() {
         Empresa empresa = new Empresa("1234567891011", "Empresa");
-        String uuidGenerated = GenerationType.UUID.toString();
+        String uuidGenerated = UuidV7.gerar().toString();
         Cliente cliente = new Cliente(uuidGenerated, "12345678910", "Cliente teste", empresa);
 
         when(clienteRepository.findById(anyString())).thenReturn(Optional.of(cliente));
 
-        Optional<Cliente> response = clienteService.findById("12345678910");
+        Optional<Cliente> response = clienteService.findById(uuidGenerated);
 
         assertEquals(response.get(), cliente);
         assertEquals(response.get().getId(), uuidGenerated);
@@ -108,13 +147,43 @@ public class ClienteServiceTest {
     @DisplayName("Should not find a cliente by id if id is blank or null")
     void shouldNotFindAClienteByIdIfIdIsBlankOrNull() {
 
-        when(clienteRepository.findById(anyString())).thenReturn(Optional.empty());
-
         Optional<Cliente> idIsBlank = clienteService.findById("");
         Optional<Cliente> idIsNull = clienteService.findById(null);
 
         assertTrue(idIsBlank.isEmpty());
         assertTrue(idIsNull.isEmpty());
+        verifyNoInteractions(clienteRepository);
+    }
+
+
+    @Test
+    @DisplayName("Should return a page with the cursor for the next one when there are more clientes")
+    void shouldListClientesWithNextCursor() {
+        String empresaId = UuidV7.gerar().toString();
+        List<ClienteResumoDto> clientes = List.of(
+                new ClienteResumoDto("a", "12345678910", "Cliente 1"),
+                new ClienteResumoDto("b", "12345678911", "Cliente 2"),
+                new ClienteResumoDto("c", "12345678912", "Cliente 3"));
+
+        when(clienteRepository.findPrimeiraPagina(empresaId, Limit.of(3))).thenReturn(clientes);
+
+        PaginaClientesDto pagina = clienteService.listarPorEmpresa(empresaId, null, 2);
+
+        assertEquals(clientes.subList(0, 2), pagina.clientes());
+        assertEquals("b", pagina.proximo());
     }
 
+    @Test
+    @DisplayName("Should return the last page without a cursor")
+    void shouldListLastPageWithoutCursor() {
+        String empresaId = UuidV7.gerar().toString();
+        List<ClienteResumoDto> clientes = List.of(new ClienteResumoDto("c", "12345678912", "Cliente 3"));
+
+        when(clienteRepository.findPaginaApos(empresaId, "b", Limit.of(3))).thenReturn(clientes);
+
+        PaginaClientesDto pagina = clienteService.listarPorEmpresa(empresaId, "b", 2);
+
+        assertEquals(clientes, pagina.clientes());
+        assertNull(pagina.proximo());
+    }
 }
@@ -0,0 +1,105 @@
+package teste.tgid_bruno.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import teste.tgid_bruno.domain.repositories.ClienteRepository;
+import teste.tgid_bruno.domain.repositories.EmpresaRepository;
+import teste.tgid_bruno.dtos.ValidacaoDocumentoDto;
+import teste.tgid_bruno.services.DocumentoService.Formato;
+
+@ExtendWith(MockitoExtension.class)
+public class DocumentoServiceTest {
+
+    @Mock
+    ClienteRepository clienteRepository;
+
+    @Mock
+    EmpresaRepository empresaRepository;
+
+    ObjectMapper mapper = new ObjectMapper();
+
+    DocumentoService documentoService;
+
+    @BeforeEach
+    void setUp() {
+        documentoService = new DocumentoService(new DocumentoValidator(), clienteRepository, empresaRepository,
+                mapper, 2);
+    }
+
+    List<ValidacaoDocumentoDto> validar(String entrada, Formato formato) throws Exception {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+
+        documentoService.validarLote(new ByteArrayInputStream(entrada.getBytes(StandardCharsets.UTF_8)), formato,
+                saida);
+
+        List<ValidacaoDocumentoDto> resultados = new ArrayList<>();
+        for (String linha : saida.toString(StandardCharsets.UTF_8).split("\n")) {
+            resultados.add(mapper.readValue(linha, ValidacaoDocumentoDto.class));
+        }
+        return resultados;
+    }
+
+    @Test
+    @DisplayName("Should validate NDJSON documents and check existence in batches")
+    void shouldValidateNdjson() throws Exception {
+        when(clienteRepository.findCpfsCadastrados(anyCollection())).thenReturn(List.of("482.472.818-56"));
+        when(empresaRepository.findCnpjsCadastrados(anyCollection())).thenReturn(List.of());
+
+        String entrada = """
+                {"documento": "482.472.818-56"}
+                "12.345.678/0001-95"
+
+                {"documento": "123.456.789-10"}
+                {nao e json
+                """;
+
+        List<ValidacaoDocumentoDto> resultados = validar(entrada, Formato.NDJSON);
+
+        assertEquals(4, resultados.size());
+        assertEquals(new ValidacaoDocumentoDto(1, "482.472.818-56", "CPF", true, true, null), resultados.get(0));
+        assertEquals(new ValidacaoDocumentoDto(2, "12.345.678/0001-95", "CNPJ", true, false, null),
+                resultados.get(1));
+        assertEquals(new ValidacaoDocumentoDto(4, "123.456.789-10", "CPF", false, null, null), resultados.get(2));
+        assertEquals(new ValidacaoDocumentoDto(5, null, null, false, null, "JSON inválido"), resultados.get(3));
+
+        // um lote por bloco de 2 linhas: só o primeiro tem documentos válidos
+        verify(clienteRepository, times(1)).findCpfsCadastrados(Set.of("482.472.818-56"));
+        verify(empresaRepository, times(1)).findCnpjsCadastrados(Set.of("12.345.678/0001-95"));
+    }
+
+    @Test
+    @DisplayName("Should read the first column of CSV lines")
+    void shouldValidateCsv() throws Exception {
+        when(clienteRepository.findCpfsCadastrados(anyCollection())).thenReturn(List.of());
+
+        String entrada = "\"482.472.818-56\",Cliente 1\n12345;Cliente 2\n";
+
+        List<ValidacaoDocumentoDto> resultados = validar(entrada, Formato.CSV);
+
+        assertEquals(new ValidacaoDocumentoDto(1, "482.472.818-56", "CPF", true, false, null), resultados.get(0));
+        assertEquals(new ValidacaoDocumentoDto(2, "12345", null, false, null, null), resultados.get(1));
+
+        verifyNoInteractions(empresaRepository);
+    }
+}
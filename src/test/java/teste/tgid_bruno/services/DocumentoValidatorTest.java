@@ -0,0 +1,52 @@
+package teste.tgid_bruno.services;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class DocumentoValidatorTest {
+
+    DocumentoValidator validator = new DocumentoValidator();
+
+    @Test
+    @DisplayName("Should validate a cpf with or without mask")
+    void shouldValidateCpf() {
+        assertTrue(validator.isCpfValido("482.472.818-56"));
+        assertTrue(validator.isCpfValido("48247281856"));
+        assertTrue(validator.isCpfValido(" 482 472 818 56 "));
+        assertTrue(validator.isCpfValido("529.982.247-25"));
+    }
+
+    @Test
+    @DisplayName("Should not validate an invalid cpf")
+    void shouldNotValidateInvalidCpf() {
+        assertFalse(validator.isCpfValido("123.456.789-10"));
+        assertFalse(validator.isCpfValido("482.472.818-5"));
+        assertFalse(validator.isCpfValido("482.472.818-567"));
+        assertFalse(validator.isCpfValido("111.111.111-11"));
+        assertFalse(validator.isCpfValido("00000000000"));
+        assertFalse(validator.isCpfValido(""));
+        assertFalse(validator.isCpfValido(null));
+    }
+
+    @Test
+    @DisplayName("Should validate a cnpj with or without mask")
+    void shouldValidateCnpj() {
+        assertTrue(validator.isCnpjValido("12.345.678/0001-95"));
+        assertTrue(validator.isCnpjValido("12345678000195"));
+        assertTrue(validator.isCnpjValido("11.222.333/0001-81"));
+    }
+
+    @Test
+    @DisplayName("Should not validate an invalid cnpj")
+    void shouldNotValidateInvalidCnpj() {
+        assertFalse(validator.isCnpjValido("12.345.678/0001-96"));
+        assertFalse(validator.isCnpjValido("123456789101213"));
+        assertFalse(validator.isCnpjValido("12345678910121"));
+        assertFalse(validator.isCnpjValido("1234567800019"));
+        assertFalse(validator.isCnpjValido(""));
+        assertFalse(validator.isCnpjValido(null));
+    }
+}
@@ -6,28 +6,58 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import jakarta.persistence.GenerationType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
 import teste.tgid_bruno.domain.entities.Cliente;
 import teste.tgid_bruno.domain.entities.Empresa;
+import teste.tgid_bruno.domain.entities.Movimentacao;
 import teste.tgid_bruno.domain.repositories.EmpresaRepository;
 import teste.tgid_bruno.dtos.EmpresaRequestDto;
+import teste.tgid_bruno.dtos.OperacaoLoteDto;
+import teste.tgid_bruno.dtos.ResultadoOperacaoDto;
+import teste.tgid_bruno.dtos.TipoMovimentacao;
+import teste.tgid_bruno.dtos.TipoOperacao;
 import teste.tgid_bruno.exceptions.SaldoException;
+import teste.tgid_bruno.infra.config.CacheConfig;
+import teste.tgid_bruno.infra.dinheiro.Dinheiro;
+import teste.tgid_bruno.infra.concorrencia.SingleFlight;
+import teste.tgid_bruno.infra.identificador.UuidV7;
+import teste.tgid_bruno.infra.auditoria.AuditoriaLog;
+import teste.tgid_bruno.infra.indice.DocumentosCadastrados;
+import teste.tgid_bruno.infra.journal.TransacaoJournal;
+import teste.tgid_bruno.infra.metricas.MetricasOperacao;
+import teste.tgid_bruno.services.liquidacao.ModoLiquidacao;
+import teste.tgid_bruno.services.saldo.SaldoEngine;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalLong;
 
 @ExtendWith(MockitoExtension.class)
 public class EmpresaServiceTest {
@@ -35,6 +65,41 @@ public class EmpresaServiceTest {
     @Mock
     private EmpresaRepository empresaRepository;
 
+    @Mock
+    private SaldoEngine saldoEngine;
+
+    @Mock
+    private TransacaoJournal transacaoJournal;
+
+    @Mock
+    private MovimentacaoService movimentacaoService;
+
+    @Spy
+    private DocumentoValidator documentoValidator;
+
+    @Mock
+    private DocumentosCadastrados documentosCadastrados;
+
+    @Mock
+    private AuditoriaLog auditoriaLog;
+
+    @Spy
+    private CacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.EMPRESAS,
+            CacheConfig.EMPRESAS_POR_CNPJ);
+
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private MetricasOperacao metricasOperacao = new MetricasOperacao(meterRegistry);
+
+    @Spy
+    private SingleFlight<String, Optional<Empresa>> cargasPorId = new SingleFlight<>("empresa_por_id", meterRegistry);
+
+    private PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
     @InjectMocks
     private EmpresaService empresaService;
 
@@ -48,7 +113,7 @@ public class EmpresaServiceTest {
                 new Cliente("12345678910", "Cliente 1", empresa),
                 new Cliente("12345678911", "Cliente 2", empresa));
 
-        uuidGenerated = GenerationType.UUID.toString();
+        uuidGenerated = UuidV7.gerar().toString();
 
     }
 
@@ -72,17 +137,18 @@ public class EmpresaServiceTest {
                 uuidGenerated,
                 "123456789101112",
                 "Teste Empresa",
-                100.00,
-                0.05f,
+                10_000,
+                500,
                 clientes);
 
+        when(documentosCadastrados.cnpjPossivelmenteCadastrado("123456789101112")).thenReturn(true);
         when(empresaRepository.findByCnpj(anyString())).thenReturn(Optional.of(empresa));
 
         Optional<Empresa> response = empresaService.findByCnpj("123456789101112");
 
         assertEquals(empresa, response.get());
         assertEquals(2, response.get().getClientes().size());
-        assertEquals(100, response.get().getSaldo());
+        assertEquals(10_000, response.get().getSaldo());
 
     }
 
@@ -90,8 +156,6 @@ public class EmpresaServiceTest {
     @DisplayName("Should not find empresa by Cnpj when cnpj is blank or null")
     void shouldNotFindEmpresaByCnpjWhenCnpjIsBlankOrNull() {
 
-        when(empresaRepository.findByCnpj(anyString())).thenReturn(Optional.empty());
-
         Optional<Empresa> cnpjBlank = empresaService.findByCnpj("");
         Optional<Empresa> cnpjNull = empresaService.findByCnpj(null);
 
@@ -108,8 +172,8 @@ public class EmpresaServiceTest {
                 uuidGenerated,
                 "123456789101112",
                 "Teste Empresa",
-                100.00,
-                0.05f,
+                10_000,
+                500,
                 clientes);
 
         when(empresaRepository.findById(anyString())).thenReturn(Optional.of(empresa));
@@ -119,7 +183,7 @@ public class EmpresaServiceTest {
         assertEquals(empresa, response.get());
         assertEquals(uuidGenerated, response.get().getId());
         assertEquals(2, response.get().getClientes().size());
-        assertEquals(100, response.get().getSaldo());
+        assertEquals(10_000, response.get().getSaldo());
 
     }
 
@@ -127,13 +191,12 @@ public class EmpresaServiceTest {
     @DisplayName("Should not find empresa by Id when Id is blank or null")
     void shouldNotFindEmpresaByIdWhenIdIsBlankOrNull() {
 
-        when(empresaRepository.findById(anyString())).thenReturn(Optional.empty());
-
         Optional<Empresa> idBlank = empresaService.findById("");
         Optional<Empresa> idNull = empresaService.findById(null);
 
         assertTrue(idBlank.isEmpty());
         assertTrue(idNull.isEmpty());
+        verify(empresaRepository, never()).findById(any());
 
     }
 
@@ -146,16 +209,16 @@ public class EmpresaServiceTest {
 
         // objeto que vai ser enviado para o repositorio
         Empresa novaEmpresa = new Empresa(empresaRequestDto.cnpj(), empresaRequestDto.nome());
-        novaEmpresa.setSaldo(0.0);
-        novaEmpresa.setTaxaServico(0.05f);
+        novaEmpresa.setSaldo(0);
+        novaEmpresa.setTaxaServico(500);
 
         // objeto que vai voltar do repositorio
         Empresa empresaResponse = new Empresa(novaEmpresa.getCnpj(), novaEmpresa.getNome());
         empresaResponse.setId(uuidGenerated);
-        empresaResponse.setSaldo(0.0);
-        empresaResponse.setTaxaServico(0.05f);
+        empresaResponse.setSaldo(0);
+        empresaResponse.setTaxaServico(500);
 
-        when(empresaService.findByCnpj(empresaRequestDto.cnpj())).thenReturn(Optional.empty());
+        when(documentosCadastrados.cnpjPossivelmenteCadastrado(empresaRequestDto.cnpj())).thenReturn(false);
 
         when(empresaRepository.save(novaEmpresa)).thenReturn(empresaResponse);
 
@@ -167,6 +230,8 @@ public class EmpresaServiceTest {
         assertEquals(0, response.getSaldo());
 
         verify(empresaRepository, times(1)).save(novaEmpresa);
+        verify(empresaRepository, times(0)).findByCnpj(anyString());
+        verify(documentosCadastrados, times(1)).registrarCnpj(empresaRequestDto.cnpj());
     }
 
     @Test
@@ -179,10 +244,11 @@ public class EmpresaServiceTest {
         // objeto que vai voltar do repositorio
         Empresa empresaResponse = new Empresa(empresaRequestDto.cnpj(), empresaRequestDto.nome());
         empresaResponse.setId(uuidGenerated);
-        empresaResponse.setSaldo(0.0);
-        empresaResponse.setTaxaServico(0.05f);
+        empresaResponse.setSaldo(0);
+        empresaResponse.setTaxaServico(500);
 
-        when(empresaService.findByCnpj(empresaRequestDto.cnpj())).thenReturn(Optional.of(empresaResponse));
+        when(documentosCadastrados.cnpjPossivelmenteCadastrado(empresaRequestDto.cnpj())).thenReturn(true);
+        when(empresaRepository.findByCnpj(empresaRequestDto.cnpj())).thenReturn(Optional.of(empresaResponse));
 
         Empresa response = empresaService.newEmpresa(empresaRequestDto);
 
@@ -194,59 +260,284 @@ public class EmpresaServiceTest {
     @Test
     @DisplayName("should credit amount and update balance correctly")
     void shouldCreditAmountAndUpdateBalanceCorrectly() {
-        empresa = new Empresa(uuidGenerated, "123456789101112", "Empresa Teste", 0.00, 0.05f, clientes);
+        empresa = new Empresa(uuidGenerated, "123456789101112", "Empresa Teste", 0, 500, clientes);
 
-        // Cálculo do saldo esperado após o crédito de 100.0
-        double valorAdicionar = 100.0;
-        double saldoEsperado = empresa.getSaldo() + (valorAdicionar - (valorAdicionar * empresa.getTaxaServico())); // 95.0
+        // Cálculo do saldo esperado após o crédito de R$ 100,00 (em centavos)
+        long valorAdicionar = 10_000;
+        long valorLiquido = valorAdicionar - Dinheiro.taxa(valorAdicionar, empresa.getTaxaServico());
+        long saldoEsperado = empresa.getSaldo() + valorLiquido; // 9500
 
-        Empresa expectedResponse = new Empresa(uuidGenerated, "123456789101112", "Empresa Teste", saldoEsperado, 0.05f,
+        Empresa expectedResponse = new Empresa(uuidGenerated, "123456789101112", "Empresa Teste", saldoEsperado, 500,
                 clientes);
 
-        when(empresaRepository.save(any(Empresa.class))).thenReturn(expectedResponse);
+        when(saldoEngine.credit(empresa, valorLiquido)).thenReturn(new SaldoEngine.Alteracao(saldoEsperado, null));
+
+        Empresa response = empresaService.credit(empresa, valorAdicionar);
 
-        empresaService.credit(empresa, valorAdicionar);
+        assertEquals(expectedResponse.getSaldo(), response.getSaldo(), "Saldo should match expectedResponse");
+        assertEquals(expectedResponse, response, "Empresa should be equal to expectedResponse");
 
-        assertEquals(expectedResponse.getSaldo(), empresa.getSaldo(), "Saldo should match expectedResponse");
-        assertEquals(expectedResponse, empresa, "Empresa should be equal to expectedResponse");
+        verify(saldoEngine, times(1)).credit(empresa, valorLiquido);
+        verify(transacaoJournal, times(1)).registrar(TransacaoJournal.CREDITO, uuidGenerated, valorAdicionar,
+                500L, saldoEsperado);
+        verify(movimentacaoService, times(1)).registrar(uuidGenerated, TipoMovimentacao.DEPOSITO, valorAdicionar,
+                500L, false, saldoEsperado, false);
+        verify(auditoriaLog, times(1)).registrar(AuditoriaLog.CREDITO, uuidGenerated, uuidGenerated, valorAdicionar,
+                500L, saldoEsperado);
+        verify(empresaRepository, times(0)).save(any(Empresa.class));
+    }
+
+    @Test
+    @DisplayName("should roll back the balance when the movement cannot be recorded with a transactional engine")
+    void shouldRollBackBalanceWhenMovementFails() {
+        empresa = new Empresa(uuidGenerated, "123456789101112", "Empresa Teste", 0, 500, clientes);
+
+        when(saldoEngine.transacional()).thenReturn(true);
+        when(saldoEngine.credit(empresa, 9_500)).thenReturn(new SaldoEngine.Alteracao(9_500L, null));
+        doThrow(new IllegalStateException("insert falhou")).when(movimentacaoService).registrar(uuidGenerated,
+                TipoMovimentacao.DEPOSITO, 10_000L, 500L, false, 9_500L, true);
+
+        assertThrows(IllegalStateException.class, () -> empresaService.credit(empresa, 10_000));
 
-        verify(empresaRepository, times(1)).save(any(Empresa.class));
+        // Saldo e movimentação na mesma transação: a falha do INSERT desfaz o crédito
+        verify(transactionManager, times(1)).rollback(any());
+        verify(transactionManager, never()).commit(any());
+        verify(transacaoJournal, never()).registrar(anyInt(), anyString(), anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    @DisplayName("should credit the gross amount and leave the fee pending when settlement is deferred")
+    void shouldCreditGrossAmountWhenSettlementIsDeferred() {
+        ReflectionTestUtils.setField(empresaService, "modoLiquidacao", ModoLiquidacao.DIFERIDA);
+        empresa = new Empresa(uuidGenerated, "123456789101112", "Empresa Teste", 0, 500, clientes);
+
+        when(saldoEngine.credit(empresa, 10_000)).thenReturn(new SaldoEngine.Alteracao(10_000L, null));
+
+        Empresa response = empresaService.credit(empresa, 10_000);
+
+        assertEquals(10_000, response.getSaldo());
+        // O journal só conhece o que foi descontado; a taxa pendente fica na movimentação
+        verify(transacaoJournal, times(1)).registrar(TransacaoJournal.CREDITO, uuidGenerated, 10_000L, 0L, 10_000L);
+        verify(movimentacaoService, times(1)).registrar(uuidGenerated, TipoMovimentacao.DEPOSITO, 10_000L, 500L,
+                true, 10_000L, false);
     }
 
     @Test
     @DisplayName("should debit amount and update balance correctly")
     void shouldDebitAmountAndUpdateBalanceCorrectly() {
-        empresa = new Empresa(uuidGenerated, "123456789101112", "Empresa Teste", 100.00, 0.05f, clientes);
+        empresa = new Empresa(uuidGenerated, "123456789101112", "Empresa Teste", 10_000, 500, clientes);
 
-        // Cálculo do saldo esperado após o debito de 45.0
-        double valorDebitar = 45.0;
-        double saldoEsperado = empresa.getSaldo() - valorDebitar; // 55.0
+        // Cálculo do saldo esperado após o debito de R$ 45,00 (em centavos)
+        long valorDebitar = 4_500;
+        long saldoEsperado = empresa.getSaldo() - valorDebitar; // 5500
 
-        Empresa expectedResponse = new Empresa(uuidGenerated, "123456789101112", "Empresa Teste", saldoEsperado, 0.05f,
+        Empresa expectedResponse = new Empresa(uuidGenerated, "123456789101112", "Empresa Teste", saldoEsperado, 500,
                 clientes);
 
-        when(empresaRepository.save(any(Empresa.class))).thenReturn(expectedResponse);
+        when(saldoEngine.debit(empresa, valorDebitar)).thenReturn(new SaldoEngine.Alteracao(saldoEsperado, null));
 
-        empresaService.debit(empresa, valorDebitar);
+        Empresa response = empresaService.debit(empresa, valorDebitar);
 
-        assertEquals(expectedResponse.getSaldo(), empresa.getSaldo(), "Saldo should match expectedResponse");
-        assertEquals(expectedResponse, empresa, "Empresa should be equal to expectedResponse");
+        assertEquals(expectedResponse.getSaldo(), response.getSaldo(), "Saldo should match expectedResponse");
+        assertEquals(expectedResponse, response, "Empresa should be equal to expectedResponse");
 
-        verify(empresaRepository, times(1)).save(any(Empresa.class));
+        verify(saldoEngine, times(1)).debit(empresa, valorDebitar);
+        verify(transacaoJournal, times(1)).registrar(TransacaoJournal.DEBITO, uuidGenerated, valorDebitar, 0L,
+                saldoEsperado);
+        verify(movimentacaoService, times(1)).registrar(uuidGenerated, TipoMovimentacao.SAQUE, valorDebitar, 0L,
+                false, saldoEsperado, false);
+        verify(auditoriaLog, times(1)).registrar(AuditoriaLog.DEBITO, uuidGenerated, uuidGenerated, valorDebitar, 0L,
+                saldoEsperado);
+        verify(empresaRepository, times(0)).save(any(Empresa.class));
     }
 
     @Test
     @DisplayName("should not debit amount and update balance when value is invalid")
     void shouldNotDebitAmountAndUpdateBalanceWhenValueIsInvalid() {
-        empresa = new Empresa(uuidGenerated, "123456789101112", "Empresa Teste", 100.00, 0.05f, clientes);
+        empresa = new Empresa(uuidGenerated, "123456789101112", "Empresa Teste", 10_000, 500, clientes);
+
+        // do saldo esperado após o debito de R$ 145,00
+        long valorDebitar = 14_500;
 
-        // do saldo esperado após o debito de 145.0
-        double valorDebitar = 145.0;
+        when(saldoEngine.debit(empresa, valorDebitar)).thenThrow(new SaldoException());
 
         assertThrows(SaldoException.class, () -> {
             empresaService.debit(empresa, valorDebitar);
         }, "Saldo insuficiente para saque! verifique o valor e tente novamente.");
 
+        assertEquals(10_000, empresa.getSaldo());
+        assertEquals(1.0, meterRegistry.get("tgid.saldo.rejeicoes").tag("operacao", "saque").counter().count());
         verify(empresaRepository, times(0)).save(any(Empresa.class));
+        verifyNoInteractions(transacaoJournal, movimentacaoService);
+    }
+
+    @Test
+    @DisplayName("Should return the engine balance when it is ahead of the database")
+    void shouldFindEmpresaByIdWithEngineBalance() {
+
+        empresa = new Empresa(uuidGenerated, "123456789101112", "Teste Empresa", 10_000, 500, clientes);
+
+        when(empresaRepository.findById(uuidGenerated)).thenReturn(Optional.of(empresa));
+        when(saldoEngine.saldoAtual(uuidGenerated)).thenReturn(OptionalLong.of(25_000));
+
+        Optional<Empresa> response = empresaService.findById(uuidGenerated);
+
+        assertEquals(25_000, response.get().getSaldo());
+    }
+
+    @Test
+    @DisplayName("Should keep the stored empresa in the cache and apply the engine balance on every hit")
+    void shouldApplyEngineBalanceOnCacheHit() {
+
+        empresa = new Empresa(uuidGenerated, "123456789101112", "Teste Empresa", 10_000, 500, clientes);
+
+        when(empresaRepository.findById(uuidGenerated)).thenReturn(Optional.of(empresa));
+        when(saldoEngine.saldoAtual(uuidGenerated)).thenReturn(OptionalLong.of(25_000), OptionalLong.of(18_000));
+
+        assertEquals(25_000, empresaService.findById(uuidGenerated).get().getSaldo());
+        assertEquals(18_000, empresaService.findById(uuidGenerated).get().getSaldo());
+
+        verify(empresaRepository, times(1)).findById(uuidGenerated);
+        assertEquals(10_000,
+                cacheManager.getCache(CacheConfig.EMPRESAS).get(uuidGenerated, Empresa.class).getSaldo());
+    }
+
+    @Test
+    @DisplayName("Should not let a read that started before a credit put the older version back in the cache")
+    void shouldNotOverwriteNewerCacheEntryWithStaleRead() {
+        empresa = new Empresa(uuidGenerated, "123456789101112", "Teste Empresa", 10_000, 500, clientes, 5L);
+
+        when(saldoEngine.saldoAtual(uuidGenerated)).thenReturn(OptionalLong.empty());
+        when(saldoEngine.credit(empresa, 9_500)).thenReturn(new SaldoEngine.Alteracao(19_500, 6L));
+        // A leitura busca a linha na versão 5 e, antes de guardar no cache, o depósito grava a 6
+        when(empresaRepository.findById(uuidGenerated)).thenAnswer(invocation -> {
+            empresaService.credit(empresa, 10_000);
+            return Optional.of(empresa);
+        });
+
+        assertEquals(10_000, empresaService.findById(uuidGenerated).get().getSaldo());
+
+        Empresa emCache = cacheManager.getCache(CacheConfig.EMPRESAS).get(uuidGenerated, Empresa.class);
+        assertEquals(6L, emCache.getVersion());
+        assertEquals(19_500, emCache.getSaldo());
+        assertEquals(19_500, empresaService.findById(uuidGenerated).get().getSaldo());
+    }
+
+    @Test
+    @DisplayName("Should build the revision from the stored version and the balance kept in memory by the engine")
+    void shouldBuildRevisionFromVersionAndEngineBalance() {
+        when(empresaRepository.findVersionById(uuidGenerated)).thenReturn(Optional.of(3L));
+        when(saldoEngine.saldoAtual(uuidGenerated)).thenReturn(OptionalLong.empty(), OptionalLong.of(25_000));
+
+        assertEquals(Optional.of("3"), empresaService.revisao(uuidGenerated));
+        assertEquals(Optional.of("3-61a8"), empresaService.revisao(uuidGenerated));
+        assertEquals(Optional.empty(), empresaService.revisao("abc"));
+
+        verify(empresaRepository, never()).findById(any());
+    }
+
+    @Test
+    @DisplayName("Should apply a batch reporting each item outcome")
+    void shouldApplyBatch() {
+        empresa = new Empresa(uuidGenerated, "123456789101112", "Empresa Teste", 0, 500, clientes);
+
+        List<OperacaoLoteDto> operacoes = List.of(
+                new OperacaoLoteDto(uuidGenerated, 10_000, TipoOperacao.DEPOSITO),
+                new OperacaoLoteDto("inexistente", 1_000, TipoOperacao.DEPOSITO),
+                new OperacaoLoteDto(uuidGenerated, 50_000, TipoOperacao.SAQUE),
+                new OperacaoLoteDto(uuidGenerated, 4_500, TipoOperacao.SAQUE));
+
+        long valorLiquido = 9_500;
+
+        when(empresaRepository.findAllById(List.of(uuidGenerated))).thenReturn(List.of(empresa));
+        when(saldoEngine.aplicarLote(List.of(
+                new SaldoEngine.Lancamento(empresa, true, valorLiquido),
+                new SaldoEngine.Lancamento(empresa, false, 50_000),
+                new SaldoEngine.Lancamento(empresa, false, 4_500))))
+                .thenReturn(new long[] { valorLiquido, SaldoEngine.SEM_SALDO, valorLiquido - 4_500 });
+
+        List<ResultadoOperacaoDto> resultados = empresaService.aplicarLote(operacoes);
+
+        assertEquals(4, resultados.size());
+        assertTrue(resultados.get(0).sucesso());
+        assertEquals(valorLiquido, resultados.get(0).saldo());
+        assertNull(resultados.get(2).saldo());
+        assertEquals("Empresa não encontrada, verifique o ID e tente novamente!", resultados.get(1).erro());
+        assertEquals("Saldo insuficiente para saque! verifique o valor e tente novamente.",
+                resultados.get(2).erro());
+        assertTrue(resultados.get(3).sucesso());
+        assertEquals(3, resultados.get(3).indice());
+
+        verify(transacaoJournal, times(1)).registrarTodos(List.of(
+                new TransacaoJournal.Registro(TransacaoJournal.CREDITO, uuidGenerated, 10_000L, 500L, valorLiquido),
+                new TransacaoJournal.Registro(TransacaoJournal.DEBITO, uuidGenerated, 4_500L, 0L,
+                        valorLiquido - 4_500)));
+        verify(transacaoJournal, never()).registrar(anyInt(), anyString(), anyLong(), anyLong(), anyLong());
+
+        ArgumentCaptor<List<Movimentacao>> movimentacoes = ArgumentCaptor.captor();
+        verify(movimentacaoService, times(1)).registrarTodas(movimentacoes.capture());
+        assertEquals(List.of(TipoMovimentacao.DEPOSITO, TipoMovimentacao.SAQUE),
+                movimentacoes.getValue().stream().map(Movimentacao::getTipo).toList());
+        assertEquals(List.of(valorLiquido, valorLiquido - 4_500),
+                movimentacoes.getValue().stream().map(Movimentacao::getSaldo).toList());
+    }
+
+    @Test
+    @DisplayName("Should load the batch empresas once, locked, when the engine is transactional")
+    void shouldLockBatchEmpresasOnceWithTransactionalEngine() {
+        empresa = new Empresa(uuidGenerated, "123456789101112", "Empresa Teste", 0, 500, clientes);
+
+        long valorLiquido = 9_500;
+
+        when(saldoEngine.transacional()).thenReturn(true);
+        when(empresaRepository.lockAllById(List.of(uuidGenerated))).thenReturn(List.of(empresa));
+        when(saldoEngine.aplicarLote(List.of(new SaldoEngine.Lancamento(empresa, true, valorLiquido))))
+                .thenReturn(new long[] { valorLiquido });
+
+        List<ResultadoOperacaoDto> resultados = empresaService.aplicarLote(
+                List.of(new OperacaoLoteDto(uuidGenerated, 10_000, TipoOperacao.DEPOSITO)));
+
+        assertTrue(resultados.get(0).sucesso());
+        verify(empresaRepository, never()).findAllById(any());
+        verify(transactionTemplate, times(1)).execute(any());
+
+        ArgumentCaptor<List<Movimentacao>> movimentacoes = ArgumentCaptor.captor();
+        verify(movimentacaoService, times(1)).registrarTodas(movimentacoes.capture());
+        assertTrue(movimentacoes.getValue().getFirst().isAtomica());
+    }
+
+    @Test
+    @DisplayName("Should not change the received empresa when crediting")
+    void shouldNotMutateReceivedEmpresaOnCredit() {
+        empresa = new Empresa(uuidGenerated, "123456789101112", "Empresa Teste", 0, 500, clientes);
+
+        long valorLiquido = 9_500;
+
+        when(saldoEngine.credit(empresa, valorLiquido)).thenReturn(new SaldoEngine.Alteracao(valorLiquido, null));
+
+        Empresa response = empresaService.credit(empresa, 10_000);
+
+        assertEquals(valorLiquido, response.getSaldo());
+        assertEquals(0, empresa.getSaldo());
+    }
+
+    @Test
+    @DisplayName("Should evict batch empresas from the cache")
+    void shouldEvictBatchEmpresasFromCache() {
+        empresa = new Empresa(uuidGenerated, "123456789101112", "Empresa Teste", 0, 500, clientes);
+
+        cacheManager.getCache(CacheConfig.EMPRESAS).put(uuidGenerated, Optional.of(empresa));
+        cacheManager.getCache(CacheConfig.EMPRESAS_POR_CNPJ).put(empresa.getCnpj(), Optional.of(empresa));
+
+        long valorLiquido = 9_500;
+
+        when(empresaRepository.findAllById(List.of(uuidGenerated))).thenReturn(List.of(empresa));
+        when(saldoEngine.aplicarLote(List.of(new SaldoEngine.Lancamento(empresa, true, valorLiquido))))
+                .thenReturn(new long[] { valorLiquido });
+
+        empresaService.aplicarLote(List.of(new OperacaoLoteDto(uuidGenerated, 10_000, TipoOperacao.DEPOSITO)));
+
+        assertNull(cacheManager.getCache(CacheConfig.EMPRESAS).get(uuidGenerated));
+        assertNull(cacheManager.getCache(CacheConfig.EMPRESAS_POR_CNPJ).get(empresa.getCnpj()));
     }
 }
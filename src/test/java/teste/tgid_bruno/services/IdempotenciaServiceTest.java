@@ -0,0 +1,226 @@
+package teste.tgid_bruno.services;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ResponseEntity;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import teste.tgid_bruno.domain.entities.RespostaIdempotente;
+import teste.tgid_bruno.domain.repositories.RespostaIdempotenteRepository;
+import teste.tgid_bruno.dtos.CreditRequestDto;
+import teste.tgid_bruno.exceptions.ChaveIdempotenciaException;
+import teste.tgid_bruno.exceptions.RequisicaoEmAndamentoException;
+import teste.tgid_bruno.exceptions.SaldoException;
+
+@ExtendWith(MockitoExtension.class)
+public class IdempotenciaServiceTest {
+
+    @Mock
+    private RespostaIdempotenteRepository respostaIdempotenteRepository;
+
+    private IdempotenciaService idempotenciaService;
+
+    private CreditRequestDto requisicao;
+    private AtomicInteger execucoes;
+
+    @BeforeEach
+    void setUp() {
+        idempotenciaService = new IdempotenciaService(respostaIdempotenteRepository, new ObjectMapper(),
+                Duration.ofHours(24), 1024 * 1024);
+
+        requisicao = new CreditRequestDto("empresa-1", 10_000);
+        execucoes = new AtomicInteger();
+    }
+
+    ResponseEntity<?> depositar() {
+        execucoes.incrementAndGet();
+        return ResponseEntity.ok(new CreditRequestDto("empresa-1", 9_500));
+    }
+
+    @Test
+    @DisplayName("Should execute the action once and replay the stored response")
+    void shouldReplayStoredResponse() {
+        when(respostaIdempotenteRepository.findById("chave-1")).thenReturn(Optional.empty());
+
+        ResponseEntity<?> primeira = idempotenciaService.executar("chave-1", "deposito", requisicao, this::depositar);
+        ResponseEntity<?> repetida = idempotenciaService.executar("chave-1", "deposito", requisicao, this::depositar);
+
+        assertEquals(1, execucoes.get());
+        assertEquals(200, repetida.getStatusCode().value());
+        assertEquals("true", repetida.getHeaders().getFirst(IdempotenciaService.HEADER_REPETIDA));
+        assertArrayEquals("{\"id_empresa\":\"empresa-1\",\"value\":95.00}".getBytes(), (byte[]) repetida.getBody());
+        assertEquals(primeira.getBody(), new CreditRequestDto("empresa-1", 9_500));
+
+        // Reserva da chave antes de executar e a resposta gravada nela depois
+        verify(respostaIdempotenteRepository, times(1)).saveAndFlush(any(RespostaIdempotente.class));
+        verify(respostaIdempotenteRepository, times(1)).concluir("chave-1", 200,
+                "{\"id_empresa\":\"empresa-1\",\"value\":95.00}".getBytes());
+    }
+
+    @Test
+    @DisplayName("Should replay a response stored by another instance")
+    void shouldReplayResponseFromDatabase() {
+        byte[] corpo = "{\"saldo\":95.0}".getBytes();
+        ArgumentCaptor<RespostaIdempotente> gravada = ArgumentCaptor.forClass(RespostaIdempotente.class);
+
+        when(respostaIdempotenteRepository.findById("chave-1")).thenReturn(Optional.empty());
+        idempotenciaService.executar("chave-1", "deposito", requisicao, this::depositar);
+        verify(respostaIdempotenteRepository).saveAndFlush(gravada.capture());
+        assertEquals(32, gravada.getValue().getImpressao().length);
+
+        // Outra instância, com a memória vazia
+        IdempotenciaService outra = new IdempotenciaService(respostaIdempotenteRepository, new ObjectMapper(),
+                Duration.ofHours(24), 1024 * 1024);
+        when(respostaIdempotenteRepository.findById("chave-1")).thenReturn(Optional.of(new RespostaIdempotente(
+                "chave-1", gravada.getValue().getImpressao(), 200, corpo, Instant.now())));
+
+        ResponseEntity<?> repetida = outra.executar("chave-1", "deposito", requisicao, this::depositar);
+
+        assertEquals(1, execucoes.get());
+        assertArrayEquals(corpo, (byte[]) repetida.getBody());
+    }
+
+    @Test
+    @DisplayName("Should reject a key reused with another request")
+    void shouldRejectKeyReusedWithAnotherRequest() {
+        when(respostaIdempotenteRepository.findById("chave-1")).thenReturn(Optional.empty());
+
+        idempotenciaService.executar("chave-1", "deposito", requisicao, this::depositar);
+
+        assertThrows(ChaveIdempotenciaException.class, () -> idempotenciaService.executar("chave-1", "deposito",
+                new CreditRequestDto("empresa-1", 20_000), this::depositar));
+        assertThrows(ChaveIdempotenciaException.class,
+                () -> idempotenciaService.executar("chave-1", "saque", requisicao, this::depositar));
+        assertEquals(1, execucoes.get());
+    }
+
+    @Test
+    @DisplayName("Should reject a repeated key, in any instance, while the request that reserved it is running")
+    void shouldRejectKeyWhileRunning() {
+        // Banco com a chave primária: o segundo INSERT da mesma chave falha
+        AtomicReference<RespostaIdempotente> reservada = new AtomicReference<>();
+        when(respostaIdempotenteRepository.findById("chave-1"))
+                .thenAnswer(invocacao -> Optional.ofNullable(reservada.get()));
+        when(respostaIdempotenteRepository.saveAndFlush(any(RespostaIdempotente.class))).thenAnswer(invocacao -> {
+            if (!reservada.compareAndSet(null, invocacao.getArgument(0))) {
+                throw new DataIntegrityViolationException("chave duplicada");
+            }
+            return invocacao.getArgument(0);
+        });
+
+        IdempotenciaService outra = new IdempotenciaService(respostaIdempotenteRepository, new ObjectMapper(),
+                Duration.ofHours(24), 1024 * 1024);
+
+        idempotenciaService.executar("chave-1", "deposito", requisicao, () -> {
+            assertThrows(RequisicaoEmAndamentoException.class,
+                    () -> idempotenciaService.executar("chave-1", "deposito", requisicao, this::depositar));
+            assertThrows(RequisicaoEmAndamentoException.class,
+                    () -> outra.executar("chave-1", "deposito", requisicao, this::depositar));
+            return depositar();
+        });
+
+        assertEquals(1, execucoes.get());
+    }
+
+    @Test
+    @DisplayName("Should take over a key whose expired row was not cleaned up yet")
+    void shouldReserveKeyOverExpiredRow() {
+        when(respostaIdempotenteRepository.findById("chave-1")).thenReturn(Optional.of(new RespostaIdempotente(
+                "chave-1", new byte[32], 200, "{}".getBytes(), Instant.now().minus(Duration.ofDays(2)))));
+        when(respostaIdempotenteRepository.saveAndFlush(any(RespostaIdempotente.class)))
+                .thenThrow(new DataIntegrityViolationException("chave duplicada"))
+                .thenAnswer(invocacao -> invocacao.getArgument(0));
+
+        idempotenciaService.executar("chave-1", "deposito", requisicao, this::depositar);
+
+        assertEquals(1, execucoes.get());
+        verify(respostaIdempotenteRepository, times(1)).deleteVencida(eq("chave-1"), any(Instant.class));
+    }
+
+    @Test
+    @DisplayName("Should not store failed responses")
+    void shouldNotStoreFailedResponses() {
+        when(respostaIdempotenteRepository.findById("chave-1")).thenReturn(Optional.empty());
+
+        idempotenciaService.executar("chave-1", "deposito", requisicao, () -> {
+            execucoes.incrementAndGet();
+            return ResponseEntity.badRequest().body("Empresa não encontrada");
+        });
+        idempotenciaService.executar("chave-1", "deposito", requisicao, this::depositar);
+
+        assertEquals(2, execucoes.get());
+        verify(respostaIdempotenteRepository, times(1)).deleteReserva("chave-1");
+    }
+
+    @Test
+    @DisplayName("Should release the key when the operation is rejected before changing the balance")
+    void shouldReleaseKeyOnRejectionBeforeChange() {
+        when(respostaIdempotenteRepository.findById("chave-1")).thenReturn(Optional.empty());
+
+        assertThrows(SaldoException.class, () -> idempotenciaService.executar("chave-1", "saque", requisicao, () -> {
+            throw new SaldoException();
+        }));
+
+        verify(respostaIdempotenteRepository, times(1)).deleteReserva("chave-1");
+    }
+
+    @Test
+    @DisplayName("Should keep the key reserved when the operation fails after it may have been applied")
+    void shouldKeepKeyReservedOnUnknownFailure() {
+        AtomicReference<RespostaIdempotente> reservada = new AtomicReference<>();
+        when(respostaIdempotenteRepository.findById("chave-1"))
+                .thenAnswer(invocacao -> Optional.ofNullable(reservada.get()));
+        when(respostaIdempotenteRepository.saveAndFlush(any(RespostaIdempotente.class))).thenAnswer(invocacao -> {
+            reservada.set(invocacao.getArgument(0));
+            return invocacao.getArgument(0);
+        });
+
+        // Saldo já gravado e o journal recusa o registro (encerramento)
+        assertThrows(IllegalStateException.class,
+                () -> idempotenciaService.executar("chave-1", "deposito", requisicao, () -> {
+                    execucoes.incrementAndGet();
+                    throw new IllegalStateException("Journal fechado");
+                }));
+
+        verify(respostaIdempotenteRepository, never()).deleteReserva(anyString());
+        assertThrows(RequisicaoEmAndamentoException.class,
+                () -> idempotenciaService.executar("chave-1", "deposito", requisicao, this::depositar));
+        assertEquals(1, execucoes.get());
+    }
+
+    @Test
+    @DisplayName("Should only execute when there is no key and reject invalid keys")
+    void shouldHandleMissingAndInvalidKeys() {
+        idempotenciaService.executar(null, "deposito", requisicao, this::depositar);
+        idempotenciaService.executar(null, "deposito", requisicao, this::depositar);
+
+        assertEquals(2, execucoes.get());
+        assertThrows(ChaveIdempotenciaException.class,
+                () -> idempotenciaService.executar(" ", "deposito", requisicao, this::depositar));
+        verify(respostaIdempotenteRepository, never()).findById(anyString());
+    }
+}
@@ -0,0 +1,114 @@
+package teste.tgid_bruno.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import teste.tgid_bruno.domain.entities.Cliente;
+import teste.tgid_bruno.domain.entities.Empresa;
+import teste.tgid_bruno.domain.repositories.ClienteRepository;
+import teste.tgid_bruno.domain.repositories.EmpresaRepository;
+import teste.tgid_bruno.dtos.ImportacaoClienteDto;
+import teste.tgid_bruno.infra.auditoria.AuditoriaLog;
+import teste.tgid_bruno.infra.indice.DocumentosCadastrados;
+import teste.tgid_bruno.services.DocumentoService.Formato;
+
+// Sem a transação do teste: cada bloco da importação precisa confirmar ou
+// falhar na sua própria, como em produção
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({ ImportacaoClienteService.class, DocumentoValidator.class })
+class ImportacaoClienteServiceJpaTest {
+
+    @Autowired
+    ImportacaoClienteService importacaoClienteService;
+
+    @Autowired
+    ClienteRepository clienteRepository;
+
+    @Autowired
+    EmpresaRepository empresaRepository;
+
+    @Autowired
+    ObjectMapper mapper;
+
+    @MockBean
+    DocumentosCadastrados documentosCadastrados;
+
+    @MockBean
+    AuditoriaLog auditoriaLog;
+
+    Empresa empresa;
+
+    @BeforeEach
+    void setUp() {
+        empresa = empresaRepository.save(new Empresa("12.345.678/0001-95", "Empresa"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        clienteRepository.deleteAll();
+        empresaRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should report the rows inserted one by one after the database rejects the chunk")
+    void shouldReportRowsInsertedByFallback() throws Exception {
+        // Já gravado por outro cadastro; o índice (mock) não o conhece e o bloco
+        // inteiro falha na unicidade do CPF
+        clienteRepository.save(new Cliente("482.472.818-56", "Existente", empresa));
+
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        importacaoClienteService.importar(empresa, new ByteArrayInputStream((
+                "529.982.247-25,Cliente 1\n"
+                        + "482.472.818-56,Cliente 2\n"
+                        + "111.444.777-35,Cliente 3\n").getBytes(StandardCharsets.UTF_8)),
+                Formato.CSV, saida);
+
+        List<ImportacaoClienteDto> resultados = new ArrayList<>();
+        for (String linha : saida.toString(StandardCharsets.UTF_8).split("\n")) {
+            resultados.add(mapper.readValue(linha, ImportacaoClienteDto.class));
+        }
+
+        assertTrue(resultados.get(0).importado());
+        assertNotNull(resultados.get(0).id());
+        assertFalse(resultados.get(1).importado());
+        assertEquals("CPF já cadastrado", resultados.get(1).erro());
+        assertTrue(resultados.get(2).importado());
+
+        assertEquals(3, clienteRepository.count());
+        assertTrue(clienteRepository.existsById(resultados.get(0).id()));
+        assertTrue(clienteRepository.existsById(resultados.get(2).id()));
+        verify(auditoriaLog).registrar(AuditoriaLog.NOVO_CLIENTE, resultados.get(0).id(), empresa.getId(), 0, 0, 0);
+        verify(auditoriaLog).registrar(AuditoriaLog.NOVO_CLIENTE, resultados.get(2).id(), empresa.getId(), 0, 0, 0);
+        verify(auditoriaLog, times(2)).registrar(anyInt(), anyString(), anyString(), anyLong(), anyLong(), anyLong());
+    }
+}
@@ -0,0 +1,188 @@
+package teste.tgid_bruno.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+import teste.tgid_bruno.domain.entities.Cliente;
+import teste.tgid_bruno.domain.entities.Empresa;
+import teste.tgid_bruno.domain.repositories.ClienteRepository;
+import teste.tgid_bruno.dtos.ImportacaoClienteDto;
+import teste.tgid_bruno.infra.auditoria.AuditoriaLog;
+import teste.tgid_bruno.infra.indice.DocumentosCadastrados;
+import teste.tgid_bruno.services.DocumentoService.Formato;
+
+@ExtendWith(MockitoExtension.class)
+public class ImportacaoClienteServiceTest {
+
+    @Mock
+    ClienteRepository clienteRepository;
+
+    @Mock
+    DocumentosCadastrados documentosCadastrados;
+
+    @Mock
+    AuditoriaLog auditoriaLog;
+
+    @Mock
+    EntityManager entityManager;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    ObjectMapper mapper = new ObjectMapper();
+
+    ImportacaoClienteService importacaoClienteService;
+    Empresa empresa;
+    List<List<Cliente>> gravados;
+
+    @BeforeEach
+    void setUp() {
+        importacaoClienteService = new ImportacaoClienteService(new DocumentoValidator(), documentosCadastrados,
+                clienteRepository, auditoriaLog, entityManager, new TransactionTemplate(transactionManager), mapper, 2);
+
+        empresa = new Empresa("12.345.678/0001-95", "Empresa Teste");
+        empresa.setId("empresa-1");
+
+        gravados = new ArrayList<>();
+    }
+
+    void simularGravacao() {
+        when(clienteRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Cliente> clientes = invocation.getArgument(0);
+            clientes.forEach(cliente -> cliente.setId(UUID.randomUUID().toString()));
+            gravados.add(new ArrayList<>(clientes));
+            return clientes;
+        });
+    }
+
+    List<ImportacaoClienteDto> importar(String entrada, Formato formato) throws Exception {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+
+        importacaoClienteService.importar(empresa, new ByteArrayInputStream(entrada.getBytes(StandardCharsets.UTF_8)),
+                formato, saida);
+
+        List<ImportacaoClienteDto> resultados = new ArrayList<>();
+        for (String linha : saida.toString(StandardCharsets.UTF_8).split("\n")) {
+            resultados.add(mapper.readValue(linha, ImportacaoClienteDto.class));
+        }
+        return resultados;
+    }
+
+    @Test
+    @DisplayName("Should import valid lines in chunks and report each line")
+    void shouldImportInChunks() throws Exception {
+        simularGravacao();
+
+        List<ImportacaoClienteDto> resultados = importar(
+                "cpf,nome\n"
+                        + "529.982.247-25,Cliente 1\n"
+                        + "123.456.789-10,Cliente 2\n"
+                        + "\n"
+                        + "482.472.818-56,\"Cliente 3\"\n"
+                        + "111.444.777-35,\n",
+                Formato.CSV);
+
+        assertEquals(4, resultados.size());
+        assertTrue(resultados.get(0).importado());
+        assertEquals(2, resultados.get(0).linha());
+        assertEquals("Informe um CPF válido!", resultados.get(1).erro());
+        assertTrue(resultados.get(2).importado());
+        assertEquals(5, resultados.get(2).linha());
+        assertEquals("Informe o nome do cliente", resultados.get(3).erro());
+
+        // Uma transação por bloco de 2 linhas com clientes válidos
+        assertEquals(2, gravados.size());
+        assertEquals("Cliente 3", gravados.get(1).get(0).getNome());
+        verify(documentosCadastrados).registrarCpf("529.982.247-25");
+    }
+
+    @Test
+    @DisplayName("Should skip cpfs repeated in the file or already registered")
+    void shouldSkipDuplicatedCpfs() throws Exception {
+        simularGravacao();
+        when(documentosCadastrados.cpfPossivelmenteCadastrado(anyString())).thenReturn(false);
+        when(documentosCadastrados.cpfPossivelmenteCadastrado("482.472.818-56")).thenReturn(true);
+        when(clienteRepository.findCpfsCadastrados(Set.of("482.472.818-56"))).thenReturn(List.of("482.472.818-56"));
+
+        List<ImportacaoClienteDto> resultados = importar(
+                "{\"cpf\":\"529.982.247-25\",\"nome\":\"Cliente 1\"}\n"
+                        + "{\"cpf\":\"529.982.247-25\",\"nome\":\"Cliente 1 de novo\"}\n"
+                        + "{\"cpf\":\"482.472.818-56\",\"nome\":\"Cliente 2\"}\n"
+                        + "{cpf}\n",
+                Formato.NDJSON);
+
+        assertTrue(resultados.get(0).importado());
+        assertEquals("CPF repetido no arquivo", resultados.get(1).erro());
+        assertEquals("CPF já cadastrado", resultados.get(2).erro());
+        assertFalse(resultados.get(3).importado());
+        assertEquals("JSON inválido", resultados.get(3).erro());
+        assertNull(resultados.get(3).cpf());
+
+        verify(clienteRepository, times(1)).saveAll(any());
+    }
+
+    @Test
+    @DisplayName("Should fall back to one insert per line when the database rejects a chunk")
+    void shouldFallBackToSingleInsertsOnConstraintViolation() throws Exception {
+        // O índice não conhece o CPF, mas outro cadastro já o gravou
+        when(documentosCadastrados.cpfPossivelmenteCadastrado(anyString())).thenReturn(false);
+        when(clienteRepository.saveAll(anyList())).thenThrow(violacaoUnicidade());
+        when(clienteRepository.save(any(Cliente.class))).thenAnswer(invocation -> {
+            Cliente cliente = invocation.getArgument(0);
+            if (cliente.getCpf().equals("482.472.818-56")) {
+                throw violacaoUnicidade();
+            }
+            cliente.setId(UUID.randomUUID().toString());
+            return cliente;
+        });
+
+        List<ImportacaoClienteDto> resultados = importar(
+                "529.982.247-25,Cliente 1\n"
+                        + "482.472.818-56,Cliente 2\n"
+                        + "111.444.777-35,Cliente 3\n",
+                Formato.CSV);
+
+        assertEquals(3, resultados.size());
+        assertTrue(resultados.get(0).importado());
+        assertFalse(resultados.get(1).importado());
+        assertEquals("CPF já cadastrado", resultados.get(1).erro());
+        // O bloco seguinte continua sendo importado
+        assertTrue(resultados.get(2).importado());
+        verify(clienteRepository, times(3)).save(any(Cliente.class));
+    }
+
+    private static ConstraintViolationException violacaoUnicidade() {
+        return new ConstraintViolationException("could not execute batch",
+                new SQLException("Unique index or primary key violation", "23505"), "UK_CLIENTES_CPF");
+    }
+}
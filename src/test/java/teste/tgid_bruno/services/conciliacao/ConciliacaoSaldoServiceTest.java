@@ -0,0 +1,185 @@
+package teste.tgid_bruno.services.conciliacao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import teste.tgid_bruno.domain.repositories.EmpresaRepository;
+import teste.tgid_bruno.domain.repositories.EmpresaRepository.IntervaloIds;
+import teste.tgid_bruno.domain.repositories.MovimentacaoRepository;
+import teste.tgid_bruno.domain.repositories.MovimentacaoRepository.SaldoConciliado;
+import teste.tgid_bruno.dtos.DivergenciaSaldoDto;
+import teste.tgid_bruno.dtos.RelatorioConciliacaoDto;
+import teste.tgid_bruno.exceptions.ConciliacaoEmAndamentoException;
+import teste.tgid_bruno.infra.identificador.FaixasId;
+import teste.tgid_bruno.services.saldo.SaldoEngine;
+
+@ExtendWith(MockitoExtension.class)
+class ConciliacaoSaldoServiceTest {
+
+    private static final String PRIMEIRO = "01900000-0000-7000-8000-000000000000";
+    private static final String ULTIMO = "01a00000-0000-7000-8000-000000000000";
+
+    @Mock
+    EmpresaRepository empresaRepository;
+
+    @Mock
+    MovimentacaoRepository movimentacaoRepository;
+
+    @Mock
+    SaldoEngine saldoEngine;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    ConciliacaoSaldoService conciliacao;
+
+    @BeforeEach
+    void setUp() {
+        conciliacao = new ConciliacaoSaldoService(empresaRepository, movimentacaoRepository, saldoEngine,
+                transactionManager, 4, 2, 1);
+    }
+
+    @Test
+    @DisplayName("Should reconcile every id range and report the empresas whose balance differs")
+    void shouldReportDivergencesAcrossRanges() {
+        when(empresaRepository.findIntervaloIds()).thenReturn(intervalo(PRIMEIRO, ULTIMO));
+        when(saldoEngine.saldoAtual(anyString())).thenReturn(OptionalLong.empty());
+        when(movimentacaoRepository.streamConciliacao(anyString(), anyString())).thenAnswer(invocacao -> {
+            String inicio = invocacao.getArgument(0);
+            if (inicio.equals(FaixasId.ID_MINIMO)) {
+                return Stream.of(saldo("a", 950, 950, 3), saldo("b", 1000, 900, 2));
+            }
+            if (invocacao.getArgument(1).equals(FaixasId.ID_MAXIMO)) {
+                return Stream.of(saldo("z", 0, 20, 1), saldo("y", 0, 0, 0));
+            }
+            return Stream.empty();
+        });
+
+        RelatorioConciliacaoDto relatorio = conciliacao.conciliar();
+
+        verify(movimentacaoRepository, times(4)).streamConciliacao(anyString(), anyString());
+        assertEquals(4, relatorio.particoes());
+        assertEquals(4, relatorio.empresas());
+        assertEquals(6, relatorio.movimentacoes());
+        assertEquals(2, relatorio.divergentes());
+        assertEquals(80, relatorio.diferencaTotal());
+        // Limite de uma divergência listada: fica a da primeira faixa
+        assertEquals(List.of(new DivergenciaSaldoDto("b", 1000, 900, 100, 2)), relatorio.divergencias());
+        assertTrue(relatorio.truncado());
+    }
+
+    @Test
+    @DisplayName("Should compare the balance kept in memory by the engine instead of the stored one")
+    void shouldUseEngineBalance() {
+        when(empresaRepository.findIntervaloIds()).thenReturn(intervalo(PRIMEIRO, PRIMEIRO));
+        when(saldoEngine.saldoAtual("a")).thenReturn(OptionalLong.of(950));
+        when(movimentacaoRepository.streamConciliacao(FaixasId.ID_MINIMO, FaixasId.ID_MAXIMO))
+                .thenReturn(Stream.of(saldo("a", 700, 950, 3)));
+
+        RelatorioConciliacaoDto relatorio = conciliacao.conciliar();
+
+        assertEquals(1, relatorio.particoes());
+        assertEquals(0, relatorio.divergentes());
+        assertTrue(relatorio.divergencias().isEmpty());
+        assertFalse(relatorio.truncado());
+    }
+
+    @Test
+    @DisplayName("Should return an empty report without reading movimentacoes when there are no empresas")
+    void shouldReturnEmptyReportWithoutEmpresas() {
+        when(empresaRepository.findIntervaloIds()).thenReturn(intervalo(null, null));
+
+        RelatorioConciliacaoDto relatorio = conciliacao.conciliar();
+
+        assertEquals(0, relatorio.particoes());
+        assertEquals(0, relatorio.empresas());
+        verify(movimentacaoRepository, never()).streamConciliacao(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should refuse a reconciliation while another one is running")
+    void shouldRefuseConcurrentReconciliation() throws Exception {
+        CountDownLatch iniciada = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+
+        when(empresaRepository.findIntervaloIds()).thenReturn(intervalo(PRIMEIRO, PRIMEIRO));
+        when(movimentacaoRepository.streamConciliacao(anyString(), anyString())).thenAnswer(invocacao -> {
+            iniciada.countDown();
+            liberar.await();
+            return Stream.empty();
+        });
+
+        CompletableFuture<RelatorioConciliacaoDto> primeira = CompletableFuture.supplyAsync(conciliacao::conciliar);
+        iniciada.await();
+
+        assertThrows(ConciliacaoEmAndamentoException.class, conciliacao::conciliar);
+
+        liberar.countDown();
+        assertEquals(0, primeira.get().empresas());
+
+        // Terminada a primeira, uma nova pode rodar
+        assertEquals(1, conciliacao.conciliar().particoes());
+    }
+
+    private static IntervaloIds intervalo(String primeiro, String ultimo) {
+        return new IntervaloIds() {
+
+            @Override
+            public String getPrimeiro() {
+                return primeiro;
+            }
+
+            @Override
+            public String getUltimo() {
+                return ultimo;
+            }
+        };
+    }
+
+    private static SaldoConciliado saldo(String empresaId, long saldo, long esperado, long movimentacoes) {
+        return new SaldoConciliado() {
+
+            @Override
+            public String getEmpresaId() {
+                return empresaId;
+            }
+
+            @Override
+            public long getSaldo() {
+                return saldo;
+            }
+
+            @Override
+            public long getMovimentacoes() {
+                return movimentacoes;
+            }
+
+            @Override
+            public long getSaldoEsperado() {
+                return esperado;
+            }
+        };
+    }
+}
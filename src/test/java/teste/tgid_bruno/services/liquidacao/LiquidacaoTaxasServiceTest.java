@@ -0,0 +1,191 @@
+package teste.tgid_bruno.services.liquidacao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import teste.tgid_bruno.domain.entities.Empresa;
+import teste.tgid_bruno.domain.entities.LiquidacaoParticao;
+import teste.tgid_bruno.domain.entities.Movimentacao;
+import teste.tgid_bruno.domain.repositories.EmpresaRepository;
+import teste.tgid_bruno.domain.repositories.LiquidacaoParticaoRepository;
+import teste.tgid_bruno.domain.repositories.MovimentacaoRepository;
+import teste.tgid_bruno.domain.repositories.MovimentacaoRepository.TaxaPendente;
+import teste.tgid_bruno.dtos.TipoMovimentacao;
+import teste.tgid_bruno.infra.identificador.FaixasId;
+import teste.tgid_bruno.infra.journal.TransacaoJournal;
+import teste.tgid_bruno.services.EmpresaService;
+import teste.tgid_bruno.services.MovimentacaoService;
+import teste.tgid_bruno.services.saldo.SaldoEngine;
+
+@ExtendWith(MockitoExtension.class)
+class LiquidacaoTaxasServiceTest {
+
+    private static final LocalDate DIA = LocalDate.of(2024, 3, 1);
+    private static final Instant DE = Instant.parse("2024-03-01T00:00:00Z");
+    private static final Instant ATE = Instant.parse("2024-03-02T00:00:00Z");
+
+    @Mock
+    EmpresaRepository empresaRepository;
+
+    @Mock
+    MovimentacaoRepository movimentacaoRepository;
+
+    @Mock
+    LiquidacaoParticaoRepository liquidacaoParticaoRepository;
+
+    @Mock
+    SaldoEngine saldoEngine;
+
+    @Mock
+    MovimentacaoService movimentacaoService;
+
+    @Mock
+    EmpresaService empresaService;
+
+    @Mock
+    TransacaoJournal transacaoJournal;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    LiquidacaoTaxasService liquidacao;
+    Empresa pagante;
+    Empresa semSaldo;
+
+    @BeforeEach
+    void setUp() {
+        when(saldoEngine.transacional()).thenReturn(true);
+
+        liquidacao = new LiquidacaoTaxasService(empresaRepository, movimentacaoRepository,
+                liquidacaoParticaoRepository, saldoEngine, movimentacaoService, empresaService, transacaoJournal,
+                new TransactionTemplate(transactionManager), 1, 1, 2);
+
+        pagante = new Empresa("a", "12.345.678/0001-95", "Pagante", 10_000, 500, List.of());
+        semSaldo = new Empresa("c", "11.222.333/0001-81", "Sem saldo", 10, 500, List.of());
+
+    }
+
+    @Test
+    @DisplayName("Should refuse to start with a balance engine that commits outside the block transaction")
+    void shouldRefuseNonTransactionalEngine() {
+        when(saldoEngine.transacional()).thenReturn(false);
+
+        assertThrows(IllegalStateException.class, () -> new LiquidacaoTaxasService(empresaRepository,
+                movimentacaoRepository, liquidacaoParticaoRepository, saldoEngine, movimentacaoService,
+                empresaService, transacaoJournal, new TransactionTemplate(transactionManager), 1, 1, 2));
+    }
+
+    @Test
+    @DisplayName("Should charge the pending fees of a partition block by block and conclude its checkpoint")
+    void shouldSettlePartitionInBlocks() {
+        LiquidacaoParticao particao = new LiquidacaoParticao(DIA, 0, FaixasId.ID_MINIMO,
+                FaixasId.ID_MAXIMO);
+
+        when(liquidacaoParticaoRepository.findByDiaOrderByParticao(DIA)).thenReturn(List.of(particao));
+        when(liquidacaoParticaoRepository.save(any())).then(invocation -> invocation.getArgument(0));
+        when(empresaRepository.findIdsFaixa(particao.getInicio(), particao.getFim(), Limit.of(2)))
+                .thenReturn(List.of("a", "b"));
+        when(empresaRepository.findIdsFaixaApos("b", particao.getFim(), Limit.of(2))).thenReturn(List.of("c"));
+        when(empresaRepository.findIdsFaixaApos("c", particao.getFim(), Limit.of(2))).thenReturn(List.of());
+        when(movimentacaoRepository.somarTaxasDiferidas(List.of("a", "b"), DE, ATE))
+                .thenReturn(List.of(taxa("a", 500)));
+        when(movimentacaoRepository.somarTaxasDiferidas(List.of("c"), DE, ATE))
+                .thenReturn(List.of(taxa("c", 50)));
+        when(empresaRepository.findAllById(Set.of("a"))).thenReturn(List.of(pagante));
+        when(empresaRepository.findAllById(Set.of("c"))).thenReturn(List.of(semSaldo));
+        when(saldoEngine.aplicarLote(List.of(new SaldoEngine.Lancamento(pagante, false, 500))))
+                .thenReturn(new long[] { 9_500 });
+        when(saldoEngine.aplicarLote(List.of(new SaldoEngine.Lancamento(semSaldo, false, 50))))
+                .thenReturn(new long[] { SaldoEngine.SEM_SALDO });
+
+        liquidacao.liquidar(DIA);
+
+        assertTrue(particao.isConcluida());
+        assertEquals("c", particao.getUltimoId());
+        assertEquals(3, particao.getEmpresas());
+        assertEquals(1, particao.getCobradas());
+        assertEquals(500, particao.getValorCobrado());
+        assertEquals(1, particao.getSemSaldo());
+        assertEquals(50, particao.getValorEmAberto());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Movimentacao>> cobrancas = ArgumentCaptor.forClass(List.class);
+        verify(movimentacaoService, times(2)).registrarTodas(cobrancas.capture());
+        Movimentacao cobranca = cobrancas.getAllValues().get(0).get(0);
+        assertEquals(TipoMovimentacao.TAXA, cobranca.getTipo());
+        assertEquals(500, cobranca.getValor());
+        assertEquals(9_500, cobranca.getSaldo());
+        assertTrue(cobrancas.getAllValues().get(1).isEmpty());
+
+        // Um único registro no journal por bloco com cobranças
+        verify(transacaoJournal).registrarTodos(
+                List.of(new TransacaoJournal.Registro(TransacaoJournal.DEBITO, "a", 500, 0, 9_500)));
+        verify(transacaoJournal, times(1)).registrarTodos(anyList());
+        verify(empresaService).atualizarCache(List.of(pagante));
+    }
+
+    @Test
+    @DisplayName("Should resume a partition after its last checkpoint and skip concluded ones")
+    void shouldResumeFromCheckpoint() {
+        LiquidacaoParticao concluida = new LiquidacaoParticao(DIA, 0, FaixasId.ID_MINIMO, "m");
+        concluida.setConcluida(true);
+        LiquidacaoParticao interrompida = new LiquidacaoParticao(DIA, 1, "m", FaixasId.ID_MAXIMO);
+        interrompida.setUltimoId("p");
+        interrompida.setEmpresas(10);
+
+        when(liquidacaoParticaoRepository.findByDiaOrderByParticao(DIA))
+                .thenReturn(List.of(concluida, interrompida));
+        when(liquidacaoParticaoRepository.save(any())).then(invocation -> invocation.getArgument(0));
+        when(empresaRepository.findIdsFaixaApos("p", FaixasId.ID_MAXIMO, Limit.of(2)))
+                .thenReturn(List.of());
+
+        liquidacao.liquidar(DIA);
+
+        assertTrue(interrompida.isConcluida());
+        assertEquals(10, interrompida.getEmpresas());
+        verify(empresaRepository, never()).findIdsFaixa(any(), any(), any());
+        verify(empresaRepository, never()).findIntervaloIds();
+        verify(saldoEngine, never()).aplicarLote(anyList());
+        verify(movimentacaoRepository, never()).somarTaxasDiferidas(anyCollection(), eq(DE), eq(ATE));
+    }
+
+    private static TaxaPendente taxa(String empresaId, long valor) {
+        return new TaxaPendente() {
+
+            @Override
+            public String getEmpresaId() {
+                return empresaId;
+            }
+
+            @Override
+            public long getTaxa() {
+                return valor;
+            }
+        };
+    }
+}
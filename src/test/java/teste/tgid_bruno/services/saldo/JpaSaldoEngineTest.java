@@ -0,0 +1,90 @@
+package teste.tgid_bruno.services.saldo;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import teste.tgid_bruno.domain.entities.Empresa;
+import teste.tgid_bruno.domain.repositories.EmpresaRepository;
+import teste.tgid_bruno.services.saldo.SaldoEngine.Lancamento;
+
+@DataJpaTest
+@Import(JpaSaldoEngine.class)
+class JpaSaldoEngineTest {
+
+    @Autowired
+    JpaSaldoEngine jpaSaldoEngine;
+
+    @Autowired
+    EmpresaRepository empresaRepository;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    Empresa empresa1;
+    Empresa empresa2;
+
+    @BeforeEach
+    void setUp() {
+        empresa1 = nova("12.345.678/0001-95", 10_000);
+        empresa2 = nova("11.222.333/0001-81", 0);
+        entityManager.flush();
+    }
+
+    Empresa nova(String cnpj, long saldo) {
+        Empresa empresa = new Empresa(cnpj, "Empresa " + cnpj);
+        empresa.setSaldo(saldo);
+        empresa.setTaxaServico(500);
+        return entityManager.persist(empresa);
+    }
+
+    @Test
+    @DisplayName("Should apply a batch in order, rejecting only the items without balance")
+    void shouldApplyBatch() {
+        long[] saldos = jpaSaldoEngine.aplicarLote(List.of(
+                new Lancamento(empresa1, false, 6_000),
+                new Lancamento(empresa2, true, 1_000),
+                new Lancamento(empresa1, false, 6_000),
+                new Lancamento(empresa1, true, 2_000),
+                new Lancamento(empresa1, false, 6_000)));
+
+        assertArrayEquals(new long[] { 4_000, 1_000, SaldoEngine.SEM_SALDO, 6_000, 0 }, saldos);
+
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(0, entityManager.find(Empresa.class, empresa1.getId()).getSaldo());
+        assertEquals(1_000, entityManager.find(Empresa.class, empresa2.getId()).getSaldo());
+    }
+
+    @Test
+    @DisplayName("Should apply a batch over empresas the caller already loaded locked")
+    void shouldApplyBatchOverLockedEmpresas() {
+        entityManager.clear();
+
+        List<Empresa> bloqueadas = empresaRepository.lockAllById(List.of(empresa1.getId(), empresa2.getId()));
+        Empresa bloqueada1 = bloqueadas.stream().filter(e -> e.getId().equals(empresa1.getId())).findFirst()
+                .orElseThrow();
+
+        long[] saldos = jpaSaldoEngine.aplicarLote(List.of(
+                new Lancamento(bloqueada1, false, 6_000),
+                new Lancamento(bloqueada1, false, 6_000)));
+
+        assertArrayEquals(new long[] { 4_000, SaldoEngine.SEM_SALDO }, saldos);
+        assertEquals(4_000, bloqueada1.getSaldo());
+
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(4_000, entityManager.find(Empresa.class, empresa1.getId()).getSaldo());
+    }
+}
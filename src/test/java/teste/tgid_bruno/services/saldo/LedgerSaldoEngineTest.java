@@ -0,0 +1,178 @@
+package teste.tgid_bruno.services.saldo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import teste.tgid_bruno.domain.entities.Empresa;
+import teste.tgid_bruno.domain.repositories.EmpresaRepository;
+import teste.tgid_bruno.exceptions.SaldoException;
+import teste.tgid_bruno.infra.journal.TransacaoJournal;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerSaldoEngineTest {
+
+    @Mock
+    EmpresaRepository empresaRepository;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    @Mock
+    TransacaoJournal transacaoJournal;
+
+    LedgerSaldoEngine ledger;
+    Empresa empresa;
+
+    @BeforeEach
+    void setUp() {
+        ledger = new LedgerSaldoEngine(empresaRepository, new TransactionTemplate(transactionManager),
+                transacaoJournal, 2);
+
+        empresa = new Empresa("12.345.678/0001-95", "Empresa Teste");
+        empresa.setId("empresa-1");
+        empresa.setSaldo(10_000);
+        empresa.setTaxaServico(500);
+    }
+
+    @Test
+    @DisplayName("Should apply credits and debits in memory without touching the database")
+    void shouldApplyOperationsInMemory() {
+        assertEquals(15_050, ledger.credit(empresa, 5_050).saldo());
+        assertEquals(10_025, ledger.debit(empresa, 5_025).saldo());
+        assertEquals(10_025, ledger.saldoAtual("empresa-1").getAsLong());
+
+        verify(empresaRepository, never()).updateSaldo(anyString(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Should reject a debit greater than the balance")
+    void shouldRejectDebitGreaterThanBalance() {
+        assertThrows(SaldoException.class, () -> ledger.debit(empresa, 10_001));
+
+        assertEquals(10_000, ledger.saldoAtual("empresa-1").getAsLong());
+    }
+
+    @Test
+    @DisplayName("Should not lose updates under concurrent debits")
+    void shouldNotOverdraftUnderConcurrentDebits() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // 200 saques de R$ 1,00 sobre um saldo de R$ 100,00: metade deve falhar
+        for (int i = 0; i < 200; i++) {
+            futures.add(executor.submit(() -> {
+                try {
+                    ledger.debit(empresa, 100);
+                } catch (SaldoException ignored) {
+                }
+            }));
+        }
+
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(0, ledger.saldoAtual("empresa-1").getAsLong());
+    }
+
+    @Test
+    @DisplayName("Should flush only the coalesced balance of changed empresas")
+    void shouldFlushCoalescedBalances() {
+        Empresa outra = new Empresa("11.222.333/0001-81", "Outra");
+        outra.setId("empresa-2");
+        outra.setSaldo(0);
+
+        ledger.credit(empresa, 1_000);
+        ledger.credit(empresa, 1_000);
+        ledger.credit(outra, 500);
+
+        ledger.flush();
+
+        verify(empresaRepository, times(1)).updateSaldo("empresa-1", 12_000);
+        verify(empresaRepository, times(1)).updateSaldo("empresa-2", 500);
+
+        ledger.flush();
+
+        verify(empresaRepository, times(2)).updateSaldo(anyString(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Should keep balances pending when the flush fails")
+    void shouldRetryFailedFlush() {
+        when(empresaRepository.updateSaldo(anyString(), anyLong()))
+                .thenThrow(new IllegalStateException("banco indisponível"))
+                .thenReturn(1);
+
+        ledger.credit(empresa, 1_000);
+
+        ledger.flush();
+        ledger.flush();
+
+        verify(empresaRepository, times(2)).updateSaldo("empresa-1", 11_000);
+        assertTrue(ledger.saldoAtual("empresa-1").isPresent());
+        verify(transactionManager, times(1)).rollback(any());
+    }
+
+    @Test
+    @DisplayName("Should prefer the balance rebuilt from the journal over the database")
+    void shouldRecoverBalancesFromJournal() {
+        UUID id = UUID.randomUUID();
+        empresa.setId(id.toString());
+
+        when(transacaoJournal.saldosRecuperados()).thenReturn(Map.of(id, 4250L));
+        when(empresaRepository.findIdsExistentes(List.of(id.toString()))).thenReturn(List.of(id.toString()));
+
+        ledger.recuperar();
+
+        assertEquals(5_250, ledger.credit(empresa, 1_000).saldo());
+
+        ledger.flush();
+
+        verify(empresaRepository, times(1)).updateSaldo(id.toString(), 5_250);
+        verify(transacaoJournal, never()).descartar(any());
+    }
+
+    @Test
+    @DisplayName("Should ignore and discard journal balances of empresas missing from the database")
+    void shouldIgnoreJournalBalancesOfUnknownEmpresas() {
+        UUID desconhecida = UUID.randomUUID();
+
+        when(transacaoJournal.saldosRecuperados()).thenReturn(Map.of(desconhecida, 4250L));
+        when(empresaRepository.findIdsExistentes(List.of(desconhecida.toString()))).thenReturn(List.of());
+
+        ledger.recuperar();
+
+        assertTrue(ledger.saldoAtual(desconhecida.toString()).isEmpty());
+        verify(transacaoJournal, times(1)).descartar(List.of(desconhecida));
+
+        ledger.flush();
+
+        verify(empresaRepository, never()).updateSaldo(anyString(), anyLong());
+    }
+}
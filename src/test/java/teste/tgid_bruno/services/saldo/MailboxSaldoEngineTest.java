@@ -0,0 +1,174 @@
+package teste.tgid_bruno.services.saldo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityNotFoundException;
+import teste.tgid_bruno.domain.entities.Empresa;
+import teste.tgid_bruno.domain.repositories.EmpresaRepository;
+import teste.tgid_bruno.domain.repositories.EmpresaRepository.SaldoEmpresa;
+import teste.tgid_bruno.exceptions.SaldoException;
+import teste.tgid_bruno.services.saldo.SaldoEngine.Lancamento;
+
+@ExtendWith(MockitoExtension.class)
+class MailboxSaldoEngineTest {
+
+    @Mock
+    EmpresaRepository empresaRepository;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    MailboxSaldoEngine mailbox;
+    Empresa empresa;
+
+    @BeforeEach
+    void setUp() {
+        mailbox = new MailboxSaldoEngine(empresaRepository, new TransactionTemplate(transactionManager), 2, 100, 50);
+
+        empresa = new Empresa("12.345.678/0001-95", "Empresa Teste");
+        empresa.setId("empresa-1");
+        empresa.setSaldo(10_000);
+        empresa.setTaxaServico(500);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        mailbox.encerrar();
+    }
+
+    SaldoEmpresa saldo(String id, long valor) {
+        return new SaldoEmpresa() {
+            public String getId() {
+                return id;
+            }
+
+            public long getSaldo() {
+                return valor;
+            }
+
+            public Long getVersion() {
+                return 0L;
+            }
+        };
+    }
+
+    @Test
+    @DisplayName("Should coalesce queued operations of an empresa into a single update")
+    void shouldCoalesceQueuedOperations() {
+        when(empresaRepository.lockSaldos(any())).thenReturn(List.of(saldo("empresa-1", 10_000)));
+
+        // Enfileiradas antes dos workers subirem: todas saem na mesma rodada
+        CompletableFuture<Long> primeiro = mailbox.enviar("empresa-1", true, 5_000);
+        CompletableFuture<Long> segundo = mailbox.enviar("empresa-1", false, 3_000);
+        CompletableFuture<Long> terceiro = mailbox.enviar("empresa-1", false, 50_000);
+        CompletableFuture<Long> quarto = mailbox.enviar("empresa-1", true, 1_000);
+
+        mailbox.iniciar();
+
+        assertEquals(15_000, primeiro.join());
+        assertEquals(12_000, segundo.join());
+        assertThrows(SaldoException.class, () -> {
+            try {
+                terceiro.join();
+            } catch (RuntimeException e) {
+                throw e.getCause();
+            }
+        });
+        assertEquals(13_000, quarto.join());
+
+        verify(empresaRepository, times(1)).lockSaldos(any());
+        verify(empresaRepository, times(1)).updateSaldo("empresa-1", 13_000);
+    }
+
+    @Test
+    @DisplayName("Should fail the operations left in the queues and refuse new ones after shutdown")
+    void shouldFailOperationsAfterShutdown() throws InterruptedException {
+        // Os workers não sobem: a operação fica na fila até o encerramento
+        CompletableFuture<Long> pendente = mailbox.enviar("empresa-1", true, 5_000);
+
+        mailbox.encerrar();
+
+        assertThrows(IllegalStateException.class, () -> {
+            try {
+                pendente.join();
+            } catch (RuntimeException e) {
+                throw e.getCause();
+            }
+        });
+        assertThrows(IllegalStateException.class, () -> mailbox.credit(empresa, 1_000));
+        verify(empresaRepository, never()).lockSaldos(any());
+    }
+
+    @Test
+    @DisplayName("Should block the caller until the operation is stored")
+    void shouldReturnBalanceAfterStoring() {
+        mailbox.iniciar();
+
+        when(empresaRepository.lockSaldos(any())).thenReturn(List.of(saldo("empresa-1", 10_000)));
+
+        assertEquals(14_500, mailbox.credit(empresa, 4_500).saldo());
+        verify(empresaRepository).updateSaldo("empresa-1", 14_500);
+    }
+
+    @Test
+    @DisplayName("Should reject a debit without balance and a credit to an unknown empresa")
+    void shouldRejectInvalidOperations() {
+        mailbox.iniciar();
+
+        when(empresaRepository.lockSaldos(any())).thenReturn(List.of(saldo("empresa-1", 10_000)));
+        assertThrows(SaldoException.class, () -> mailbox.debit(empresa, 10_001));
+
+        when(empresaRepository.lockSaldos(any())).thenReturn(List.of());
+        assertThrows(EntityNotFoundException.class, () -> mailbox.credit(empresa, 1_000));
+
+        verify(empresaRepository, never()).updateSaldo(anyString(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Should report a batch item without balance as SEM_SALDO")
+    void shouldApplyBatch() {
+        mailbox.iniciar();
+
+        // Os dois itens podem sair em rodadas diferentes; a segunda leria o saldo já gravado
+        when(empresaRepository.lockSaldos(any()))
+                .thenReturn(List.of(saldo("empresa-1", 10_000)), List.of(saldo("empresa-1", 4_000)));
+
+        long[] saldos = mailbox.aplicarLote(List.of(
+                new Lancamento(empresa, false, 6_000),
+                new Lancamento(empresa, false, 6_000)));
+
+        assertEquals(4_000, saldos[0]);
+        assertEquals(SaldoEngine.SEM_SALDO, saldos[1]);
+    }
+
+    @Test
+    @DisplayName("Should fail every queued operation when storing fails")
+    void shouldFailOperationsWhenStoringFails() {
+        mailbox.iniciar();
+
+        when(empresaRepository.lockSaldos(any())).thenThrow(new IllegalStateException("banco indisponível"));
+
+        assertThrows(IllegalStateException.class, () -> mailbox.credit(empresa, 1_000));
+    }
+}
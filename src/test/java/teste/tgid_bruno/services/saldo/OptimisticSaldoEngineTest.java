@@ -0,0 +1,113 @@
+package teste.tgid_bruno.services.saldo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import teste.tgid_bruno.domain.entities.Empresa;
+import teste.tgid_bruno.domain.repositories.EmpresaRepository;
+import teste.tgid_bruno.domain.repositories.EmpresaRepository.SaldoVersionado;
+import teste.tgid_bruno.exceptions.ConflitoSaldoException;
+import teste.tgid_bruno.exceptions.SaldoException;
+
+@ExtendWith(MockitoExtension.class)
+class OptimisticSaldoEngineTest {
+
+    @Mock
+    EmpresaRepository empresaRepository;
+
+    SimpleMeterRegistry meterRegistry;
+    OptimisticSaldoEngine optimistic;
+    Empresa empresa;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        optimistic = new OptimisticSaldoEngine(empresaRepository, meterRegistry, 3, 1, 2);
+
+        empresa = new Empresa("12.345.678/0001-95", "Empresa Teste");
+        empresa.setId("empresa-1");
+        empresa.setSaldo(10_000);
+        empresa.setTaxaServico(500);
+    }
+
+    Optional<SaldoVersionado> saldo(long valor, Long versao) {
+        return Optional.of(new SaldoVersionado() {
+            public long getSaldo() {
+                return valor;
+            }
+
+            public Long getVersion() {
+                return versao;
+            }
+        });
+    }
+
+    double contador(String nome) {
+        return meterRegistry.counter(nome, "empresa", "empresa-1").count();
+    }
+
+    @Test
+    @DisplayName("Should store the new balance when the version did not change")
+    void shouldCreditWithoutConflict() {
+        when(empresaRepository.findSaldoVersionado("empresa-1")).thenReturn(saldo(10_000, 7L));
+        when(empresaRepository.updateSaldoSeVersao("empresa-1", 15_000, 7L)).thenReturn(1);
+
+        SaldoEngine.Alteracao alteracao = optimistic.credit(empresa, 5_000);
+
+        assertEquals(15_000, alteracao.saldo());
+        assertEquals(8L, alteracao.version());
+        assertEquals(0, contador("saldo.otimista.conflitos"));
+    }
+
+    @Test
+    @DisplayName("Should read the balance again and retry after a conflict")
+    void shouldRetryAfterConflict() {
+        when(empresaRepository.findSaldoVersionado("empresa-1")).thenReturn(saldo(10_000, 7L), saldo(8_000, 8L));
+        when(empresaRepository.updateSaldoSeVersao("empresa-1", 6_000, 7L)).thenReturn(0);
+        when(empresaRepository.updateSaldoSeVersao("empresa-1", 4_000, 8L)).thenReturn(1);
+
+        assertEquals(4_000, optimistic.debit(empresa, 4_000).saldo());
+        assertEquals(1, contador("saldo.otimista.conflitos"));
+        assertEquals(1, contador("saldo.otimista.retentativas"));
+    }
+
+    @Test
+    @DisplayName("Should give up after the maximum number of attempts")
+    void shouldGiveUpAfterMaxAttempts() {
+        when(empresaRepository.findSaldoVersionado("empresa-1")).thenReturn(saldo(10_000, 7L));
+        when(empresaRepository.updateSaldoSeVersao("empresa-1", 15_000, 7L)).thenReturn(0);
+
+        assertThrows(ConflitoSaldoException.class, () -> optimistic.credit(empresa, 5_000));
+
+        verify(empresaRepository, times(3)).updateSaldoSeVersao("empresa-1", 15_000, 7L);
+        assertEquals(3, contador("saldo.otimista.conflitos"));
+        assertEquals(2, contador("saldo.otimista.retentativas"));
+        assertEquals(1, contador("saldo.otimista.esgotadas"));
+    }
+
+    @Test
+    @DisplayName("Should reject a debit without balance without writing")
+    void shouldRejectDebitWithoutBalance() {
+        when(empresaRepository.findSaldoVersionado("empresa-1")).thenReturn(saldo(10_000, 7L));
+
+        assertThrows(SaldoException.class, () -> optimistic.debit(empresa, 10_001));
+
+        verify(empresaRepository, never()).updateSaldoSeVersao(anyString(), anyLong(), anyLong());
+    }
+}